@@ -0,0 +1,173 @@
+package com.rvk.skycommerce.benchmark;
+
+import com.rvk.skycommerce.config.PricingProperties;
+import com.rvk.skycommerce.model.CartItemModel;
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.IndividualClient;
+import com.rvk.skycommerce.repository.entity.PriceRule;
+import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import com.rvk.skycommerce.service.pricing.CartPricing;
+import com.rvk.skycommerce.service.pricing.ClientPriceOverrides;
+import com.rvk.skycommerce.service.pricing.DatabasePriceCalculator;
+import com.rvk.skycommerce.service.pricing.PriceRuleCacheService;
+import com.rvk.skycommerce.service.pricing.YamlPriceCalculator;
+
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory inputs shared by the benchmarks. Prices mirror {@code pricing.yml} and the
+ * {@code price_rules} seed data, so both calculators resolve the same tiers.
+ */
+final class BenchmarkFixtures {
+
+    static final BigDecimal REVENUE_THRESHOLD = new BigDecimal("10000000.00");
+
+    private BenchmarkFixtures() {
+    }
+
+    enum ClientKind {
+        INDIVIDUAL,
+        PROFESSIONAL_LOW,
+        PROFESSIONAL_HIGH
+    }
+
+    static Client client(ClientKind kind) {
+        return switch (kind) {
+            case INDIVIDUAL -> new IndividualClient("BENCH_IND", "Bench", "Mark");
+            case PROFESSIONAL_LOW -> new ProfessionalClient(
+                    "BENCH_PRO_LOW", "LowCorp", "REG-LOW", new BigDecimal("5000000.00"), "EU-LOW");
+            case PROFESSIONAL_HIGH -> new ProfessionalClient(
+                    "BENCH_PRO_HIGH", "HighCorp", "REG-HIGH", new BigDecimal("20000000.00"), "EU-HIGH");
+        };
+    }
+
+    /**
+     * One line per product, as {@code uk_cart_items_cart_product} allows, so at most
+     * {@code ProductType.values().length} lines.
+     */
+    static List<CartItem> cartItems(int size) {
+        ProductType[] productTypes = ProductType.values();
+        if (size > productTypes.length) {
+            throw new IllegalArgumentException("A cart holds at most " + productTypes.length + " lines");
+        }
+        List<CartItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            CartItem item = new CartItem(productTypes[i], 1 + i);
+            item.setId((long) i + 1);
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * A priced cart of {@code size} lines for a high-revenue professional, as the service returns it.
+     */
+    static ShoppingCartModel cartModel(int size) {
+        Client client = client(ClientKind.PROFESSIONAL_HIGH);
+        List<CartItem> items = cartItems(size);
+        CartPricing pricing = yamlPriceCalculator().priceCart(client, items);
+
+        List<CartItemModel> itemModels = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            itemModels.add(CartItemModel.builder()
+                    .id(item.getId())
+                    .productType(item.getProductType())
+                    .quantity(item.getQuantity())
+                    .unitPrice(pricing.getUnitPrice(i))
+                    .lineTotal(pricing.getLineTotal(i))
+                    .build());
+        }
+
+        return ShoppingCartModel.builder()
+                .id(1L)
+                .clientId(client.getId())
+                .items(itemModels)
+                .totalAmount(pricing.getTotal())
+                .version(0L)
+                .build();
+    }
+
+    static YamlPriceCalculator yamlPriceCalculator() {
+        PricingProperties properties = new PricingProperties();
+        properties.setIndividual(prices("1500.00", "800.00", "1200.00"));
+
+        PricingProperties.Tier lowRevenue = new PricingProperties.Tier();
+        lowRevenue.setMaxRevenueInclusive(REVENUE_THRESHOLD);
+        lowRevenue.setProducts(prices("1150.00", "600.00", "1000.00"));
+
+        PricingProperties.Tier highRevenue = new PricingProperties.Tier();
+        highRevenue.setMinRevenueExclusive(REVENUE_THRESHOLD);
+        highRevenue.setProducts(prices("1000.00", "550.00", "900.00"));
+
+        PricingProperties.Professional professional = new PricingProperties.Professional();
+        professional.setTiers(List.of(lowRevenue, highRevenue));
+        properties.setProfessional(professional);
+
+        return new YamlPriceCalculator(properties, ClientPriceOverrides.NONE);
+    }
+
+    /**
+     * A database calculator whose rule cache always returns the same list, which is what the
+     * Caffeine-backed {@code priceRules} cache does between refreshes.
+     */
+    static DatabasePriceCalculator databasePriceCalculator() {
+        List<PriceRule> rules = List.copyOf(priceRules());
+        PriceRuleCacheService cacheService = new PriceRuleCacheService(null) {
+            @Override
+            public List<PriceRule> getAllPriceRules() {
+                return rules;
+            }
+        };
+        return new DatabasePriceCalculator(cacheService, ClientPriceOverrides.NONE);
+    }
+
+    private static List<PriceRule> priceRules() {
+        List<PriceRule> rules = new ArrayList<>();
+        addRules(rules, ClientType.INDIVIDUAL, null, null, prices("1500.00", "800.00", "1200.00"));
+        addRules(rules, ClientType.PROFESSIONAL, null, REVENUE_THRESHOLD, prices("1150.00", "600.00", "1000.00"));
+        addRules(rules, ClientType.PROFESSIONAL, REVENUE_THRESHOLD, null, prices("1000.00", "550.00", "900.00"));
+        return rules;
+    }
+
+    private static void addRules(List<PriceRule> rules, ClientType clientType, BigDecimal minExclusive,
+                                 BigDecimal maxInclusive, Map<ProductType, BigDecimal> prices) {
+        prices.forEach((productType, price) -> {
+            PriceRule rule = newPriceRule();
+            rule.setClientType(clientType);
+            rule.setProductType(productType);
+            rule.setMinRevenueExclusive(minExclusive);
+            rule.setMaxRevenueInclusive(maxInclusive);
+            rule.setPrice(price);
+            rules.add(rule);
+        });
+    }
+
+    // PriceRule only exposes the JPA no-arg constructor.
+    private static PriceRule newPriceRule() {
+        try {
+            Constructor<PriceRule> constructor = PriceRule.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate PriceRule", e);
+        }
+    }
+
+    private static Map<ProductType, BigDecimal> prices(String highEndPhone, String midRangePhone, String laptop) {
+        Map<ProductType, BigDecimal> prices = new EnumMap<>(ProductType.class);
+        prices.put(ProductType.HIGH_END_PHONE, new BigDecimal(highEndPhone));
+        prices.put(ProductType.MID_RANGE_PHONE, new BigDecimal(midRangePhone));
+        prices.put(ProductType.LAPTOP, new BigDecimal(laptop));
+        return prices;
+    }
+}
@@ -0,0 +1,81 @@
+package com.rvk.skycommerce.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvk.skycommerce.api.CartJsonCache;
+import com.rvk.skycommerce.api.mapper.CartItemResponseMapper;
+import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart reads that hit the {@code shoppingCarts} cache, from the model to the response stream:
+ * mapping plus Jackson serialization as the controller does by default, against the bytes held
+ * by {@link CartJsonCache}. Both write to a discarding stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CartJsonCacheBenchmark {
+
+    @Param({"1", "2", "3"})
+    private int cartSize;
+
+    private final OutputStream responseBody = new DiscardingOutputStream();
+    private ShoppingCartModel model;
+    private ObjectMapper objectMapper;
+    private CartJsonCache cartJsonCache;
+
+    @Setup
+    public void setUp() {
+        model = BenchmarkFixtures.cartModel(cartSize);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        CacheProperties.CacheSpec spec = new CacheProperties.CacheSpec();
+        spec.setTtl(Duration.ofMinutes(30));
+        spec.setMaxSize(10_000);
+        CacheProperties properties = new CacheProperties();
+        properties.setCartJson(spec);
+        cartJsonCache = new CartJsonCache(objectMapper, properties,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        cartJsonCache.json(model);
+    }
+
+    @Benchmark
+    public void mapAndSerialize() throws IOException {
+        objectMapper.writeValue(responseBody, CartItemResponseMapper.fromModel(model));
+    }
+
+    @Benchmark
+    public void cachedJson() throws IOException {
+        responseBody.write(cartJsonCache.json(model));
+    }
+
+    /**
+     * Unlike {@link OutputStream#nullOutputStream()}, stays usable after Jackson closes it.
+     */
+    private static final class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
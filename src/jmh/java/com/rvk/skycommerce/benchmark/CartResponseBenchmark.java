@@ -0,0 +1,57 @@
+package com.rvk.skycommerce.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvk.skycommerce.api.dto.cart.CartResponse;
+import com.rvk.skycommerce.api.mapper.CartItemResponseMapper;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tail of every cart response: {@link CartItemResponseMapper#fromModel} followed by Jackson
+ * serialization, using an {@link ObjectMapper} built with Spring's defaults.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartResponseBenchmark {
+
+    @Param({"1", "2", "3"})
+    private int cartSize;
+
+    private ShoppingCartModel model;
+    private CartResponse response;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        model = BenchmarkFixtures.cartModel(cartSize);
+        response = CartItemResponseMapper.fromModel(model);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public CartResponse fromModel() {
+        return CartItemResponseMapper.fromModel(model);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] fromModelAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(CartItemResponseMapper.fromModel(model));
+    }
+}
@@ -0,0 +1,50 @@
+package com.rvk.skycommerce.benchmark;
+
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.service.ShoppingCartServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShoppingCartServiceImpl#calculateTotal} across cart sizes. Repositories, cache and meter
+ * registry are not touched by this method, so the service is built without them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartTotalBenchmark {
+
+    @Param({"1", "2", "3"})
+    private int cartSize;
+
+    @Param({"INDIVIDUAL", "PROFESSIONAL_HIGH"})
+    private BenchmarkFixtures.ClientKind clientKind;
+
+    private Client client;
+    private List<CartItem> items;
+    private ShoppingCartServiceImpl shoppingCartService;
+
+    @Setup
+    public void setUp() {
+        client = BenchmarkFixtures.client(clientKind);
+        items = BenchmarkFixtures.cartItems(cartSize);
+        shoppingCartService = new ShoppingCartServiceImpl(
+                null, null, null, BenchmarkFixtures.yamlPriceCalculator(), null, null);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotal() {
+        return shoppingCartService.calculateTotal(client, items);
+    }
+}
@@ -0,0 +1,118 @@
+package com.rvk.skycommerce.benchmark;
+
+import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.ClientPriceOverrideJdbcRepository;
+import com.rvk.skycommerce.service.pricing.CachingClientPriceOverrides;
+import com.rvk.skycommerce.service.pricing.ClientPriceBook;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client price book lookups against an in-memory H2 {@code client_price_overrides} table of
+ * {@code overrideRows} rows, three products per client.
+ * <p>
+ * {@code cacheHit} reads one warmed client; {@code cacheMiss} walks all clients through a cache far
+ * smaller than the client count, so nearly every call loads; {@code indexedQuery} is the primary-key
+ * query a miss runs, without the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ClientPriceOverridesBenchmark {
+
+    private static final int PRODUCTS_PER_CLIENT = ProductType.values().length;
+
+    @Param({"5000000"})
+    private int overrideRows;
+
+    @Param({"10000"})
+    private long cacheSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private ClientPriceOverrideJdbcRepository repository;
+    private CachingClientPriceOverrides overrides;
+    private String[] clientIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:price-overrides-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        int clients = overrideRows / PRODUCTS_PER_CLIENT;
+        jdbcTemplate.update("""
+                INSERT INTO clients (id, client_type, company_name, annual_revenue)
+                SELECT 'BENCH_' || X, 'PROFESSIONAL', 'Bench ' || X, 20000000.00 FROM SYSTEM_RANGE(1, ?)
+                """, clients);
+        for (ProductType productType : ProductType.values()) {
+            jdbcTemplate.update("""
+                    INSERT INTO client_price_overrides (client_id, product_type, price)
+                    SELECT 'BENCH_' || X, ?, 500.00 + MOD(X, 500) FROM SYSTEM_RANGE(1, ?)
+                    """, productType.name(), clients);
+        }
+
+        clientIds = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIds[i] = "BENCH_" + (i + 1);
+        }
+
+        CacheProperties.CacheSpec spec = new CacheProperties.CacheSpec();
+        spec.setTtl(Duration.ofHours(1));
+        spec.setMaxSize(cacheSize);
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setClientPriceOverrides(spec);
+
+        repository = new ClientPriceOverrideJdbcRepository(jdbcTemplate);
+        overrides = new CachingClientPriceOverrides(repository, cacheProperties,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        overrides.priceBookFor(clientIds[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Benchmark
+    public ClientPriceBook cacheHit() {
+        return overrides.priceBookFor(clientIds[0]);
+    }
+
+    @Benchmark
+    public ClientPriceBook cacheMiss() {
+        return overrides.priceBookFor(nextClientId());
+    }
+
+    @Benchmark
+    public Map<ProductType, BigDecimal> indexedQuery() {
+        return repository.findClientOverrides(nextClientId());
+    }
+
+    // starts at 1 so cacheMiss never lands on the warmed client in the first pass
+    private String nextClientId() {
+        next = next + 1 < clientIds.length ? next + 1 : 1;
+        return clientIds[next];
+    }
+}
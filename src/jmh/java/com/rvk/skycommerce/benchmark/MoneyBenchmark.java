@@ -0,0 +1,63 @@
+package com.rvk.skycommerce.benchmark;
+
+import com.rvk.skycommerce.service.pricing.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart total arithmetic on the same lines, as {@code BigDecimal} (the previous implementation)
+ * and as {@link Money} minor units. Compare {@code gc.alloc.rate.norm} between the two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    private static final String[] PRICES = {"1500.00", "800.00", "1200.00", "1150.00", "550.00"};
+
+    @Param({"1", "2", "3"})
+    private int cartSize;
+
+    private BigDecimal[] unitPrices;
+    private long[] minorUnitPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        unitPrices = new BigDecimal[cartSize];
+        minorUnitPrices = new long[cartSize];
+        quantities = new int[cartSize];
+        for (int i = 0; i < cartSize; i++) {
+            unitPrices[i] = new BigDecimal(PRICES[i % PRICES.length]);
+            minorUnitPrices[i] = Money.toMinor(unitPrices[i]);
+            quantities[i] = 1 + i % 5;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < cartSize; i++) {
+            total = total.add(unitPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal minorUnitTotal() {
+        long total = 0;
+        for (int i = 0; i < cartSize; i++) {
+            total = Money.plus(total, Money.times(minorUnitPrices[i], quantities[i]));
+        }
+        return Money.toBigDecimal(total);
+    }
+}
@@ -0,0 +1,54 @@
+package com.rvk.skycommerce.benchmark;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.service.pricing.DatabasePriceCalculator;
+import com.rvk.skycommerce.service.pricing.YamlPriceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit price lookup for a single product, the operation every cart line goes through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PriceCalculatorBenchmark {
+
+    @Param({"INDIVIDUAL", "PROFESSIONAL_LOW", "PROFESSIONAL_HIGH"})
+    private BenchmarkFixtures.ClientKind clientKind;
+
+    @Param({"HIGH_END_PHONE", "LAPTOP"})
+    private ProductType productType;
+
+    private Client client;
+    private YamlPriceCalculator yamlPriceCalculator;
+    private DatabasePriceCalculator databasePriceCalculator;
+
+    @Setup
+    public void setUp() {
+        client = BenchmarkFixtures.client(clientKind);
+        yamlPriceCalculator = BenchmarkFixtures.yamlPriceCalculator();
+        databasePriceCalculator = BenchmarkFixtures.databasePriceCalculator();
+        databasePriceCalculator.warmUp();
+    }
+
+    @Benchmark
+    public BigDecimal yamlGetUnitPrice() {
+        return yamlPriceCalculator.getUnitPrice(client, productType);
+    }
+
+    @Benchmark
+    public BigDecimal databaseGetUnitPrice() {
+        return databasePriceCalculator.getUnitPrice(client, productType);
+    }
+}
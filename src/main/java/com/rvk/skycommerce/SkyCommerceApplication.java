@@ -1,13 +1,19 @@
 package com.rvk.skycommerce;
 
 import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.config.CartProperties;
+import com.rvk.skycommerce.config.ClientExportProperties;
+import com.rvk.skycommerce.config.ClientImportProperties;
 import com.rvk.skycommerce.config.PricingProperties;
+import com.rvk.skycommerce.config.PricingSourceProperties;
+import com.rvk.skycommerce.config.RepricingProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties({PricingProperties.class, CacheProperties.class})
+@EnableConfigurationProperties({PricingProperties.class, PricingSourceProperties.class, CacheProperties.class,
+        CartProperties.class, ClientExportProperties.class, ClientImportProperties.class, RepricingProperties.class})
 public class SkyCommerceApplication {
 
     public static void main(String[] args) {
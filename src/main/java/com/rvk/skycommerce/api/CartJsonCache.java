@@ -0,0 +1,80 @@
+package com.rvk.skycommerce.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rvk.skycommerce.api.mapper.CartItemResponseMapper;
+import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional tier in front of cart response serialization: the UTF-8 JSON of each cart's
+ * {@link com.rvk.skycommerce.api.dto.cart.CartResponse}, keyed by cart id and tagged with the
+ * version it was encoded from.
+ * <p>
+ * An entry is only served for a model of the same version, so it can never be older than the
+ * {@code shoppingCarts} cache it sits on. Every mutation response is encoded at its new version and
+ * replaces the entry. Changes made elsewhere, such as repricing runs, bump the version and are
+ * encoded on the next read. An older version never overwrites a newer one.
+ */
+@Component
+@ConditionalOnProperty(name = "skycommerce.cache.cart-json.enabled", havingValue = "true")
+@Slf4j
+public class CartJsonCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Entry> entries;
+
+    public CartJsonCache(ObjectMapper objectMapper,
+                         CacheProperties cacheProperties,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        CacheProperties.CacheSpec spec = cacheProperties.getCartJson();
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, entries, "cartJson"));
+    }
+
+    /**
+     * Returns the response JSON for {@code model}, encoding and storing it unless the cart's entry
+     * is already at the model's version.
+     */
+    public byte[] json(ShoppingCartModel model) {
+        Long version = model.getVersion();
+        if (model.getId() == null || version == null) {
+            return encode(model);
+        }
+        Entry cached = entries.getIfPresent(model.getId());
+        if (cached != null && cached.version() == version) {
+            return cached.json();
+        }
+
+        byte[] json = encode(model);
+        Entry encoded = new Entry(version, json);
+        entries.asMap().merge(model.getId(), encoded,
+                (current, candidate) -> current.version() > candidate.version() ? current : candidate);
+        log.debug("Encoded cart id={} version={} bytes={}", model.getId(), version, json.length);
+        return json;
+    }
+
+    private byte[] encode(ShoppingCartModel model) {
+        try {
+            return objectMapper.writeValueAsBytes(CartItemResponseMapper.fromModel(model));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot encode cart " + model.getId(), ex);
+        }
+    }
+
+    private record Entry(long version, byte[] json) {
+    }
+}
@@ -4,14 +4,20 @@ import com.rvk.skycommerce.api.dto.client.*;
 import com.rvk.skycommerce.api.mapper.ClientResponseMapper;
 import com.rvk.skycommerce.model.IndividualClientModel;
 import com.rvk.skycommerce.model.ProfessionalClientModel;
+import com.rvk.skycommerce.model.TaggedModel;
 import com.rvk.skycommerce.service.ClientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Function;
 
 import static com.rvk.skycommerce.api.mapper.ClientResponseMapper.toResponse;
 
@@ -65,16 +71,26 @@ public class ClientController {
         return toResponse(model);
     }
 
+    /**
+     * Answers {@code 304} when {@code If-None-Match} carries the current ETag; a cached client is
+     * then neither queried nor serialized.
+     */
     @GetMapping("/individual/{id}")
-    public IndividualClientResponse getIndividual(@PathVariable String id) {
-        IndividualClientModel model = clientService.getIndividualById(id);
-        return toResponse(model);
+    public ResponseEntity<IndividualClientResponse> getIndividual(@PathVariable String id, WebRequest request) {
+        TaggedModel<IndividualClientModel> client = clientService.getTaggedIndividual(id);
+        if (request.checkNotModified(client.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(client.etag()).body(toResponse(client.model()));
     }
 
     @GetMapping("/professional/{id}")
-    public ProfessionalClientResponse getProfessional(@PathVariable String id) {
-        ProfessionalClientModel model = clientService.getProfessionalById(id);
-        return toResponse(model);
+    public ResponseEntity<ProfessionalClientResponse> getProfessional(@PathVariable String id, WebRequest request) {
+        TaggedModel<ProfessionalClientModel> client = clientService.getTaggedProfessional(id);
+        if (request.checkNotModified(client.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(client.etag()).body(toResponse(client.model()));
     }
 
     @GetMapping("/individual")
@@ -88,4 +104,36 @@ public class ClientController {
         return clientService.getProfessionals(pageable)
                 .map(ClientResponseMapper::toResponse);
     }
+
+    /**
+     * Keyset listing, selected by the presence of {@code cursor}: pass it empty for the first
+     * slice, then the returned {@code nextCursor}. Cost per slice does not grow with depth.
+     */
+    @GetMapping(value = "/individual", params = "cursor")
+    public ClientSliceResponse<IndividualClientResponse> scrollIndividuals(@RequestParam String cursor,
+                                                                           @RequestParam(defaultValue = "20") int size) {
+        Slice<IndividualClientResponse> slice = clientService.scrollIndividuals(ClientCursor.decode(cursor), size)
+                .map(ClientResponseMapper::toResponse);
+        return toSliceResponse(slice, IndividualClientResponse::getId);
+    }
+
+    @GetMapping(value = "/professional", params = "cursor")
+    public ClientSliceResponse<ProfessionalClientResponse> scrollProfessionals(@RequestParam String cursor,
+                                                                               @RequestParam(defaultValue = "20") int size) {
+        Slice<ProfessionalClientResponse> slice = clientService.scrollProfessionals(ClientCursor.decode(cursor), size)
+                .map(ClientResponseMapper::toResponse);
+        return toSliceResponse(slice, ProfessionalClientResponse::getId);
+    }
+
+    private static <T> ClientSliceResponse<T> toSliceResponse(Slice<T> slice, Function<T, String> idOf) {
+        String nextCursor = slice.hasNext() && slice.hasContent()
+                ? ClientCursor.encode(idOf.apply(slice.getContent().getLast()))
+                : null;
+        return ClientSliceResponse.<T>builder()
+                .content(slice.getContent())
+                .size(slice.getNumberOfElements())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
@@ -0,0 +1,40 @@
+package com.rvk.skycommerce.api;
+
+import com.rvk.skycommerce.config.ClientExportProperties;
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.service.ClientExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+@RestController
+@RequestMapping("/api/admin/clients")
+@RequiredArgsConstructor
+public class ClientExportController {
+
+    private final ClientExportService clientExportService;
+    private final ClientExportProperties properties;
+
+    /**
+     * Streams all clients, or those of one {@code type}, as newline-delimited JSON. Rows are
+     * written as they are read, so the response starts immediately and is not buffered.
+     * <p>
+     * Runs as a {@link WebAsyncTask} so that {@code skycommerce.client-export.timeout} applies to
+     * this response only; other async requests keep the default timeout.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportClients(@RequestParam(required = false) ClientType type,
+                                            HttpServletResponse response) {
+        return new WebAsyncTask<>(properties.getTimeout().toMillis(), () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            clientExportService.exportClients(type, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.rvk.skycommerce.api;
+
+import com.rvk.skycommerce.api.dto.client.ClientImportResponse;
+import com.rvk.skycommerce.api.mapper.ClientResponseMapper;
+import com.rvk.skycommerce.model.ClientImportFormat;
+import com.rvk.skycommerce.service.ClientImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/clients")
+@RequiredArgsConstructor
+public class ClientImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ClientImportService clientImportService;
+
+    /**
+     * Imports clients from the request body as it is read. The response is a report of how many
+     * records were imported and why the others were rejected; the request succeeds even when some
+     * records fail.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ClientImportResponse importNdjson(InputStream body) throws IOException {
+        return ClientResponseMapper.toResponse(clientImportService.importClients(ClientImportFormat.NDJSON, body));
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ClientImportResponse importCsv(InputStream body) throws IOException {
+        return ClientResponseMapper.toResponse(clientImportService.importClients(ClientImportFormat.CSV, body));
+    }
+}
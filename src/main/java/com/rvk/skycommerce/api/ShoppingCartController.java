@@ -1,58 +1,136 @@
 package com.rvk.skycommerce.api;
 
 import com.rvk.skycommerce.api.dto.cart.AddCartItemsRequest;
-import com.rvk.skycommerce.api.dto.cart.CartResponse;
 import com.rvk.skycommerce.api.dto.cart.UpdateCartItemQuantityRequest;
 import com.rvk.skycommerce.api.mapper.CartItemResponseMapper;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
 import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.service.OptimisticRetry;
 import com.rvk.skycommerce.service.ShoppingCartService;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/carts")
-@RequiredArgsConstructor
 public class ShoppingCartController {
 
     private final ShoppingCartService shoppingCartService;
+    private final OptimisticRetry optimisticRetry;
+    // null unless skycommerce.cache.cart-json.enabled
+    private final CartJsonCache cartJsonCache;
+
+    public ShoppingCartController(ShoppingCartService shoppingCartService,
+                                  OptimisticRetry optimisticRetry,
+                                  ObjectProvider<CartJsonCache> cartJsonCache) {
+        this.shoppingCartService = shoppingCartService;
+        this.optimisticRetry = optimisticRetry;
+        this.cartJsonCache = cartJsonCache.getIfAvailable();
+    }
 
     @PostMapping
-    public CartResponse createCart(@RequestParam String clientId) {
+    public ResponseEntity<?> createCart(@RequestParam String clientId) {
         ShoppingCartModel model = shoppingCartService.createCartForClient(clientId);
-        return CartItemResponseMapper.fromModel(model);
+        return toResponse(model);
     }
 
+    /**
+     * Answers {@code 304} when {@code If-None-Match} carries the current version. The version is
+     * read from the cached model, so an unchanged cart is neither queried nor mapped nor serialized.
+     */
     @GetMapping("/{cartId}")
-    public CartResponse getCart(@PathVariable Long cartId) {
+    public ResponseEntity<?> getCart(@PathVariable Long cartId, WebRequest request) {
         ShoppingCartModel model = shoppingCartService.getCart(cartId);
-        return CartItemResponseMapper.fromModel(model);
+        if (model.getVersion() != null && request.checkNotModified(String.valueOf(model.getVersion()))) {
+            return null;
+        }
+        return toResponse(model);
     }
 
     @PostMapping("/{cartId}/items")
-    public CartResponse addItems(@PathVariable Long cartId,
-                                 @Valid @RequestBody AddCartItemsRequest request) {
+    public ResponseEntity<?> addItems(@PathVariable Long cartId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @Valid @RequestBody AddCartItemsRequest request) {
 
-        request.getItems().forEach(item ->
-                shoppingCartService.addItem(cartId, item.getProductType(), item.getQuantity())
-        );
+        List<AddCartItemModel> items = request.getItems().stream()
+                .map(item -> AddCartItemModel.builder()
+                        .productType(item.getProductType())
+                        .quantity(item.getQuantity())
+                        .build())
+                .toList();
 
-        ShoppingCartModel updated = shoppingCartService.getCart(cartId);
-        return CartItemResponseMapper.fromModel(updated);
+        Long expectedVersion = parseIfMatch(ifMatch);
+        ShoppingCartModel updated = optimisticRetry.execute(cartId, expectedVersion,
+                () -> shoppingCartService.addItems(cartId, items, expectedVersion));
+        return toResponse(updated);
     }
 
     @PutMapping("/{cartId}/items/{itemId}")
-    public CartResponse updateItemQuantity(@PathVariable Long cartId,
-                                           @PathVariable Long itemId,
-                                           @Valid @RequestBody UpdateCartItemQuantityRequest request) {
-        ShoppingCartModel model = shoppingCartService.updateItemQuantity(cartId, itemId, request.getQuantity());
-        return CartItemResponseMapper.fromModel(model);
+    public ResponseEntity<?> updateItemQuantity(@PathVariable Long cartId,
+                                                           @PathVariable Long itemId,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                           @Valid @RequestBody UpdateCartItemQuantityRequest request) {
+        Long expectedVersion = parseIfMatch(ifMatch);
+        ShoppingCartModel model = optimisticRetry.execute(cartId, expectedVersion,
+                () -> shoppingCartService.updateItemQuantity(cartId, itemId, request.getQuantity(), expectedVersion));
+        return toResponse(model);
     }
 
     @DeleteMapping("/{cartId}/items/{itemId}")
-    public CartResponse removeItem(@PathVariable Long cartId,
-                                   @PathVariable Long itemId) {
-        ShoppingCartModel model = shoppingCartService.removeItem(cartId, itemId);
-        return CartItemResponseMapper.fromModel(model);
+    public ResponseEntity<?> removeItem(@PathVariable Long cartId,
+                                                   @PathVariable Long itemId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = parseIfMatch(ifMatch);
+        ShoppingCartModel model = optimisticRetry.execute(cartId, expectedVersion,
+                () -> shoppingCartService.removeItem(cartId, itemId, expectedVersion));
+        return toResponse(model);
+    }
+
+    /**
+     * With {@link CartJsonCache} enabled the body is the cached JSON of the cart's version, written
+     * to the output stream as is; otherwise the response DTO is serialized by Jackson.
+     */
+    private ResponseEntity<?> toResponse(ShoppingCartModel model) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (model.getVersion() != null) {
+            builder.eTag(String.valueOf(model.getVersion()));
+        }
+        if (cartJsonCache != null) {
+            return builder.contentType(MediaType.APPLICATION_JSON).body(cartJsonCache.json(model));
+        }
+        return builder.body(CartItemResponseMapper.fromModel(model));
+    }
+
+    /**
+     * Accepts the ETag of a cart response ({@code "3"}); {@code *} or no header means any version.
+     * {@code If-Match} compares strongly, so a weak tag never matches and fails the precondition.
+     * Lists of tags are rejected: a mutation names the one version it was prepared against.
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new IllegalArgumentException("If-Match must carry a single entity tag: " + ifMatch);
+        }
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("Weak entity tag " + tag + " does not match strongly");
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
     }
 }
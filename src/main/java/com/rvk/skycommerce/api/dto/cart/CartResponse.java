@@ -14,6 +14,7 @@ public class CartResponse {
     String clientId;
     BigDecimal totalAmount;
     List<CartItemResponse> items;
+    Long version;
 
 
 }
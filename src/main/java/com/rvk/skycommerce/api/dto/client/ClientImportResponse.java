@@ -0,0 +1,22 @@
+package com.rvk.skycommerce.api.dto.client;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ClientImportResponse {
+    long received;
+    long imported;
+    long failed;
+    List<RecordError> errors;
+    boolean errorsTruncated;
+
+    @Value
+    public static class RecordError {
+        long record;
+        String message;
+    }
+}
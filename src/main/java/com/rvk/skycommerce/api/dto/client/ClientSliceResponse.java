@@ -0,0 +1,15 @@
+package com.rvk.skycommerce.api.dto.client;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ClientSliceResponse<T> {
+    List<T> content;
+    int size;
+    boolean hasNext;
+    String nextCursor;
+}
@@ -19,6 +19,7 @@ public class CartItemResponseMapper {
                 .clientId(model.getClientId())
                 .totalAmount(model.getTotalAmount())
                 .items(itemResponses)
+                .version(model.getVersion())
                 .build();
     }
 
@@ -1,7 +1,9 @@
 package com.rvk.skycommerce.api.mapper;
 
+import com.rvk.skycommerce.api.dto.client.ClientImportResponse;
 import com.rvk.skycommerce.api.dto.client.IndividualClientResponse;
 import com.rvk.skycommerce.api.dto.client.ProfessionalClientResponse;
+import com.rvk.skycommerce.model.ClientImportReport;
 import com.rvk.skycommerce.model.IndividualClientModel;
 import com.rvk.skycommerce.model.ProfessionalClientModel;
 
@@ -24,4 +26,16 @@ public class ClientResponseMapper {
                 .vatNumber(model.getVatNumber())
                 .build();
     }
+
+    public static ClientImportResponse toResponse(ClientImportReport report) {
+        return ClientImportResponse.builder()
+                .received(report.getReceived())
+                .imported(report.getImported())
+                .failed(report.getFailed())
+                .errors(report.getErrors().stream()
+                        .map(e -> new ClientImportResponse.RecordError(e.getRecord(), e.getMessage()))
+                        .toList())
+                .errorsTruncated(report.isErrorsTruncated())
+                .build();
+    }
 }
@@ -1,6 +1,9 @@
 package com.rvk.skycommerce.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rvk.skycommerce.repository.PriceRuleRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -10,37 +13,83 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableCaching
 @EnableConfigurationProperties(CacheProperties.class)
+@Slf4j
 public class CacheConfig {
 
+    // Not exposed as a bean: an Executor bean would switch off Boot's default task executor
+    private final ExecutorService priceRulesRefreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-rules-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Bean
-    public CacheManager cacheManager(CacheProperties properties) {
+    public CacheManager cacheManager(CacheProperties properties, PriceRuleRepository priceRuleRepository) {
         CacheProperties.CacheSpec shopping = properties.getShoppingCarts();
-        CacheProperties.CacheSpec priceRules = properties.getShoppingCarts();
+        CacheProperties.CacheSpec priceRules = properties.getPriceRules();
+        CacheProperties.CacheSpec clients = properties.getClients();
 
         CaffeineCache shoppingCartsCache = new CaffeineCache(
                 "shoppingCarts",
                 Caffeine.newBuilder()
-                        .expireAfterWrite(shopping.getTtl().toMinutes(), TimeUnit.MINUTES)
+                        .expireAfterWrite(shopping.getTtl())
                         .maximumSize(shopping.getMaxSize())
+                        .recordStats()
                         .build()
         );
 
         CaffeineCache priceRulesCache = new CaffeineCache(
                 "priceRules",
+                priceRulesBuilder(priceRules)
+                        .build(key -> {
+                            log.debug("Loading price rules for cache key={}", key);
+                            return priceRuleRepository.findAll();
+                        })
+        );
+
+        // written only through TaggedClientCache, which keeps reads from caching content an update
+        // has already replaced
+        CaffeineCache clientsCache = new CaffeineCache(
+                "clients",
                 Caffeine.newBuilder()
-                        .expireAfterWrite(priceRules.getTtl().toMinutes(), TimeUnit.MINUTES)
-                        .maximumSize(priceRules.getMaxSize())
+                        .expireAfterWrite(clients.getTtl())
+                        .maximumSize(clients.getMaxSize())
+                        .recordStats()
                         .build()
         );
 
-
         SimpleCacheManager manager = new SimpleCacheManager();
-        manager.setCaches(List.of(shoppingCartsCache, priceRulesCache));
+        manager.setCaches(List.of(shoppingCartsCache, priceRulesCache, clientsCache));
         return manager;
     }
+
+    /**
+     * Price rules are served stale while a refresh runs on {@link #priceRulesRefreshExecutor};
+     * {@code ttl} only bounds how long a stale list may survive repeated refresh failures.
+     */
+    private Caffeine<Object, Object> priceRulesBuilder(CacheProperties.CacheSpec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .executor(priceRulesRefreshExecutor)
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats();
+        if (spec.getRefresh() != null) {
+            if (spec.getRefresh().compareTo(spec.getTtl()) >= 0) {
+                throw new IllegalStateException("skycommerce.cache.price-rules.refresh must be shorter than its ttl");
+            }
+            builder.refreshAfterWrite(spec.getRefresh());
+        }
+        return builder;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        priceRulesRefreshExecutor.shutdownNow();
+    }
 }
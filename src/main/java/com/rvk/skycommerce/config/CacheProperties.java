@@ -11,10 +11,24 @@ public class CacheProperties {
 
     private CacheSpec shoppingCarts;
     private CacheSpec priceRules;
+    private CacheSpec authentications;
+    private CacheSpec clientPriceOverrides;
+    private CacheSpec clients;
+
+    /**
+     * Pre-encoded cart response JSON; used only when {@code skycommerce.cache.cart-json.enabled}
+     * is {@code true}.
+     */
+    private CacheSpec cartJson;
 
     @Data
     public static class CacheSpec {
         private Duration ttl;
         private long maxSize;
+        /**
+         * Optional refresh-ahead interval; entries older than this are reloaded in the
+         * background while the previous value keeps being served.
+         */
+        private Duration refresh;
     }
 }
@@ -0,0 +1,66 @@
+package com.rvk.skycommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "skycommerce.cart")
+public class CartProperties {
+
+    /**
+     * {@code entity}, {@code upsert}, {@code write-behind} or {@code serialized}; selects the
+     * ShoppingCartService implementation.
+     */
+    private String writeMode = "entity";
+
+    /**
+     * How many times a mutation without If-Match is retried after losing an optimistic lock race.
+     */
+    private int optimisticRetries = 3;
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    private Serialized serialized = new Serialized();
+
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * Directory of the local mutation log; it must survive restarts for recovery to work.
+         */
+        private Path logDirectory = Path.of("data", "cart-write-behind");
+
+        /**
+         * How often pending cart changes are written to the database.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /**
+         * Most carts written per flush transaction.
+         */
+        private int flushBatchSize = 500;
+
+        /**
+         * Whether a mutation waits for its log record to reach the disk. Without it a power loss
+         * can lose the last acknowledged mutations; a process crash cannot.
+         */
+        private boolean syncLog = true;
+
+        /**
+         * Carts with nothing left to flush are dropped from memory after this long untouched.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Serialized {
+
+        /**
+         * Most queued commands of one cart taken per drain; they are applied in one transaction.
+         */
+        private int maxBatchSize = 100;
+    }
+}
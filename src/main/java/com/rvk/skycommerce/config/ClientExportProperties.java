@@ -0,0 +1,16 @@
+package com.rvk.skycommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "skycommerce.client-export")
+public class ClientExportProperties {
+
+    /**
+     * Upper bound on one export response; only the export gets more than the default async timeout.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
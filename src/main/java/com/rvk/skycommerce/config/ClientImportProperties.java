@@ -0,0 +1,25 @@
+package com.rvk.skycommerce.config;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@ConfigurationProperties(prefix = "skycommerce.client-import")
+@Validated
+public class ClientImportProperties {
+
+    /**
+     * Records validated together and written as one JDBC batch in one transaction.
+     */
+    @Positive
+    private int chunkSize = 1000;
+
+    /**
+     * Upper bound on per-record errors listed in the report; failures beyond it are only counted.
+     */
+    @PositiveOrZero
+    private int maxReportedErrors = 1000;
+}
@@ -0,0 +1,24 @@
+package com.rvk.skycommerce.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enables {@code @Timed} on beans. The {@code class} tag is the target class rather than the
+     * declaring one, so methods inherited from a shared base (e.g. the price calculators) are
+     * still told apart per implementation.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry, joinPoint -> Tags.of(
+                "class", joinPoint.getTarget().getClass().getSimpleName(),
+                "method", joinPoint.getStaticPart().getSignature().getName()
+        ));
+    }
+}
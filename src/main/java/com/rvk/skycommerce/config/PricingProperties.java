@@ -5,6 +5,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @ConfigurationProperties(prefix = "pricing")
@@ -16,7 +18,23 @@ public class PricingProperties {
 
     @Data
     public static class Professional {
+
+        /**
+         * Revenue bands, each {@code (minRevenueExclusive, maxRevenueInclusive]}. For every product
+         * the bands must be contiguous.
+         */
+        private List<Tier> tiers = new ArrayList<>();
+
+        /**
+         * @deprecated use {@link #tiers}; read as the band below {@code highRevenue}
+         */
+        @Deprecated
         private Tier lowRevenue;
+
+        /**
+         * @deprecated use {@link #tiers}
+         */
+        @Deprecated
         private Tier highRevenue;
     }
 
@@ -0,0 +1,31 @@
+package com.rvk.skycommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Where the YAML price list is reloaded from at runtime. The startup price list is still
+ * bound through {@link PricingProperties}; these settings only drive hot reloads.
+ */
+@Data
+@ConfigurationProperties(prefix = "skycommerce.pricing")
+public class PricingSourceProperties {
+
+    /**
+     * Spring resource location of the price list, e.g. {@code file:/etc/skycommerce/pricing.yml}.
+     */
+    private String location = "classpath:pricing.yml";
+
+    /**
+     * Watch the file for changes; only supported for {@code file:} locations.
+     */
+    private boolean watch = false;
+
+    /**
+     * Quiet period after a file event before reloading, so editors that write in several steps
+     * trigger a single reload.
+     */
+    private Duration watchDebounce = Duration.ofMillis(500);
+}
@@ -0,0 +1,20 @@
+package com.rvk.skycommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "skycommerce.repricing")
+public class RepricingProperties {
+
+    /**
+     * Carts repriced and written back per batch and transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Worker threads pricing and writing chunks; the scan waits once twice this many chunks are
+     * in flight.
+     */
+    private int workers = 4;
+}
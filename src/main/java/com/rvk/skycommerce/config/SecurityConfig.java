@@ -1,11 +1,15 @@
 package com.rvk.skycommerce.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -42,9 +46,11 @@ public class SecurityConfig {
     private String userPassword;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CachingAuthenticationProvider authenticationProvider) throws Exception {
 
         http
+                .authenticationManager(new ProviderManager(authenticationProvider))
                 .csrf(AbstractHttpConfigurer::disable)
                 .headers(headers -> headers
                         .frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin)
@@ -52,6 +58,10 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/pricing").hasRole("ADMIN")
+                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
+                        .requestMatchers("/actuator/repricing").hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/clients/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/clients/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/clients/**").hasRole("ADMIN")
@@ -65,6 +75,25 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * HTTP Basic sends credentials on every request; verified ones are cached briefly so only
+     * the first request of a client pays for BCrypt.
+     */
+    @Bean
+    public CachingAuthenticationProvider cachingAuthenticationProvider(UserDetailsService userDetailsService,
+                                                                       PasswordEncoder encoder,
+                                                                       CacheProperties cacheProperties,
+                                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(userDetailsService);
+        dao.setPasswordEncoder(encoder);
+
+        CachingAuthenticationProvider provider =
+                new CachingAuthenticationProvider(dao, cacheProperties.getAuthentications());
+        meterRegistry.ifAvailable(provider::bindMetrics);
+        return provider;
+    }
+
     @Bean
     public UserDetailsService userDetailsService(PasswordEncoder encoder) {
         UserDetails admin = User.withUsername(adminUsername)
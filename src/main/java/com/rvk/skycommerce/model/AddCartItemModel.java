@@ -0,0 +1,12 @@
+package com.rvk.skycommerce.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class AddCartItemModel {
+
+    ProductType productType;
+    int quantity;
+}
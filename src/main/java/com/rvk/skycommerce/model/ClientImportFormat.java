@@ -0,0 +1,6 @@
+package com.rvk.skycommerce.model;
+
+public enum ClientImportFormat {
+    NDJSON,
+    CSV
+}
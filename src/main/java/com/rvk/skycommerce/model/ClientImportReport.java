@@ -0,0 +1,25 @@
+package com.rvk.skycommerce.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ClientImportReport {
+    long received;
+    long imported;
+    long failed;
+    List<RecordError> errors;
+    boolean errorsTruncated;
+
+    /**
+     * A rejected record; {@code record} is its 1-based position among the data records.
+     */
+    @Value
+    public static class RecordError {
+        long record;
+        String message;
+    }
+}
@@ -14,4 +14,5 @@ public class ShoppingCartModel {
     String clientId;
     List<CartItemModel> items;
     BigDecimal totalAmount;
+    Long version;
 }
@@ -0,0 +1,8 @@
+package com.rvk.skycommerce.model;
+
+/**
+ * A model together with the strong ETag of the response built from it. The tag is computed once,
+ * when the model is loaded, and cached with it.
+ */
+public record TaggedModel<T>(T model, String etag) {
+}
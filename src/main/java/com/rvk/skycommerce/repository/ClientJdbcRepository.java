@@ -0,0 +1,88 @@
+package com.rvk.skycommerce.repository;
+
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.IndividualClient;
+import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Plain JDBC access to {@code clients} for bulk export and import, bypassing the persistence
+ * context so that neither materializes the table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClientJdbcRepository {
+
+    public static final int FETCH_SIZE = 500;
+
+    private static final String SELECT_CLIENTS = """
+            SELECT id, client_type, first_name, last_name,
+                   company_name, registration_number, annual_revenue, vat_number
+            FROM clients
+            """;
+
+    private static final String INSERT_CLIENT = """
+            INSERT INTO clients (id, client_type, first_name, last_name,
+                                 company_name, registration_number, annual_revenue, vat_number)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams clients in id order, optionally restricted to one type, through a forward-only,
+     * read-only cursor that fetches {@link #FETCH_SIZE} rows per round trip. Each row is handed to
+     * {@code handler} and nothing is retained, so memory stays flat regardless of table size.
+     * Must run inside a transaction for drivers that only keep cursors open with autocommit off.
+     */
+    public void forEachClient(ClientType clientType, RowCallbackHandler handler) {
+        String sql = clientType == null
+                ? SELECT_CLIENTS + "ORDER BY id"
+                : SELECT_CLIENTS + "WHERE client_type = ? ORDER BY id";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            if (clientType != null) {
+                ps.setString(1, clientType.name());
+            }
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * Inserts all clients as one JDBC batch; the caller owns the transaction.
+     */
+    public void insertClients(List<? extends Client> clients) {
+        jdbcTemplate.batchUpdate(INSERT_CLIENT, clients, clients.size(), (ps, client) -> {
+            ps.setString(1, client.getId());
+            if (client instanceof ProfessionalClient professional) {
+                ps.setString(2, ClientType.PROFESSIONAL.name());
+                ps.setNull(3, Types.VARCHAR);
+                ps.setNull(4, Types.VARCHAR);
+                ps.setString(5, professional.getCompanyName());
+                ps.setString(6, professional.getRegistrationNumber());
+                ps.setBigDecimal(7, professional.getAnnualRevenue());
+                ps.setString(8, professional.getVatNumber());
+            } else {
+                IndividualClient individual = (IndividualClient) client;
+                ps.setString(2, ClientType.INDIVIDUAL.name());
+                ps.setString(3, individual.getFirstName());
+                ps.setString(4, individual.getLastName());
+                ps.setNull(5, Types.VARCHAR);
+                ps.setNull(6, Types.VARCHAR);
+                ps.setNull(7, Types.DECIMAL);
+                ps.setNull(8, Types.VARCHAR);
+            }
+        });
+    }
+}
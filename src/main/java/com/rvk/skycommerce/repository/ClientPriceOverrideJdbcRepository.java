@@ -0,0 +1,40 @@
+package com.rvk.skycommerce.repository;
+
+import com.rvk.skycommerce.model.ProductType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to {@code client_price_overrides}. The table is too large to load as a whole,
+ * so overrides are only ever read for one client at a time through the primary key.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClientPriceOverrideJdbcRepository {
+
+    private static final String SELECT_CLIENT_OVERRIDES = """
+            SELECT product_type, price
+            FROM client_price_overrides
+            WHERE client_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the client's negotiated prices by product; empty when the client has none.
+     */
+    public Map<ProductType, BigDecimal> findClientOverrides(String clientId) {
+        Map<ProductType, BigDecimal> overrides = new EnumMap<>(ProductType.class);
+        jdbcTemplate.query(SELECT_CLIENT_OVERRIDES,
+                rs -> {
+                    overrides.put(ProductType.valueOf(rs.getString("product_type")), rs.getBigDecimal("price"));
+                },
+                clientId);
+        return overrides;
+    }
+}
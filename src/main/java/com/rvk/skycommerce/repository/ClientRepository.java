@@ -5,8 +5,10 @@ import com.rvk.skycommerce.repository.entity.IndividualClient;
 import com.rvk.skycommerce.repository.entity.ProfessionalClient;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -18,4 +20,15 @@ public interface ClientRepository extends JpaRepository<Client, String> {
 
     @Query("select p from ProfessionalClient p")
     Page<ProfessionalClient> findProfessionals(Pageable pageable);
+
+    /**
+     * Keyset page of individuals with id greater than {@code afterId}, in id order. Pass an
+     * unsorted {@code PageRequest.of(0, size)}: the slice fetches one extra row to detect a next
+     * page and runs no count query.
+     */
+    @Query("select i from IndividualClient i where i.id > :afterId order by i.id")
+    Slice<IndividualClient> findIndividualsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    @Query("select p from ProfessionalClient p where p.id > :afterId order by p.id")
+    Slice<ProfessionalClient> findProfessionalsAfter(@Param("afterId") String afterId, Pageable pageable);
 }
@@ -0,0 +1,68 @@
+package com.rvk.skycommerce.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to the single {@code repricing_checkpoint} row, which outlives the process
+ * that ran the job. Each statement commits on its own, independently of the chunks' transactions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RepricingCheckpointJdbcRepository {
+
+    private static final String START_RUN = """
+            MERGE INTO repricing_checkpoint KEY (id)
+            VALUES (1, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    // never moves back, so workers may report in any order
+    private static final String ADVANCE = """
+            UPDATE repricing_checkpoint
+            SET checkpoint_cart_id = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = 1 AND checkpoint_cart_id < ?
+            """;
+
+    private static final String SET_STATE = """
+            UPDATE repricing_checkpoint
+            SET state = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = 1
+            """;
+
+    private static final String FIND = """
+            SELECT start_after_cart_id, checkpoint_cart_id, state, updated_at
+            FROM repricing_checkpoint
+            WHERE id = 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void startRun(long startAfterCartId, String state) {
+        jdbcTemplate.update(START_RUN, startAfterCartId, startAfterCartId, state);
+    }
+
+    public void advance(long checkpointCartId) {
+        jdbcTemplate.update(ADVANCE, checkpointCartId, checkpointCartId);
+    }
+
+    public void setState(String state) {
+        jdbcTemplate.update(SET_STATE, state);
+    }
+
+    public Optional<Checkpoint> find() {
+        return jdbcTemplate.query(FIND, (rs, rowNum) -> new Checkpoint(
+                        rs.getLong("start_after_cart_id"),
+                        rs.getLong("checkpoint_cart_id"),
+                        rs.getString("state"),
+                        rs.getTimestamp("updated_at").toInstant()))
+                .stream()
+                .findFirst();
+    }
+
+    public record Checkpoint(long startAfterCartId, long checkpointCartId, String state, Instant updatedAt) {
+    }
+}
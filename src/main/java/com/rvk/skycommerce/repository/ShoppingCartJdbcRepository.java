@@ -0,0 +1,493 @@
+package com.rvk.skycommerce.repository;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.IndividualClient;
+import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to carts: statement-level writes that bypass loading the {@code ShoppingCart}
+ * aggregate, and a single-query read that builds unmanaged objects without Hibernate.
+ * <p>
+ * Line changes rely on the unique {@code (cart_id, product_type)} constraint and H2's data change
+ * delta tables ({@code OLD TABLE}, {@code FINAL TABLE}) so that each write also returns the row
+ * values it replaced or produced, without a separate read.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShoppingCartJdbcRepository {
+
+    public static final int SCAN_FETCH_SIZE = 500;
+
+    private static final String FIND_CART_CLIENT = """
+            SELECT c.id AS client_id, c.client_type, c.annual_revenue
+            FROM shopping_carts s
+            JOIN clients c ON c.id = s.client_id
+            WHERE s.id = ?
+            """;
+
+    private static final String FIND_CART = """
+            SELECT s.id AS cart_id, s.total_amount, s.version,
+                   c.id AS client_id, c.client_type, c.annual_revenue,
+                   i.id AS item_id, i.product_type, i.quantity, i.unit_price, i.line_total
+            FROM shopping_carts s
+            JOIN clients c ON c.id = s.client_id
+            LEFT JOIN cart_items i ON i.cart_id = s.id
+            WHERE s.id = ?
+            ORDER BY i.id
+            """;
+
+    private static final String MERGE_PRICED_ITEM = """
+            SELECT product_type, quantity, unit_price, line_total
+            FROM OLD TABLE (
+                MERGE INTO cart_items t
+                USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(30)), CAST(? AS INT), CAST(? AS DECIMAL(19, 2))))
+                    s (cart_id, product_type, quantity, unit_price)
+                ON t.cart_id = s.cart_id AND t.product_type = s.product_type
+                WHEN MATCHED THEN UPDATE SET quantity = t.quantity + s.quantity, unit_price = s.unit_price,
+                    line_total = (t.quantity + s.quantity) * s.unit_price
+                WHEN NOT MATCHED THEN INSERT (cart_id, product_type, quantity, unit_price, line_total)
+                    VALUES (s.cart_id, s.product_type, s.quantity, s.unit_price, s.quantity * s.unit_price)
+            )
+            """;
+
+    private static final String SET_ITEM_QUANTITY = """
+            SELECT product_type, quantity, unit_price, line_total
+            FROM OLD TABLE (UPDATE cart_items SET quantity = ? WHERE id = ? AND cart_id = ?)
+            """;
+
+    private static final String DELETE_ITEM = """
+            SELECT product_type, quantity, unit_price, line_total
+            FROM OLD TABLE (DELETE FROM cart_items WHERE id = ? AND cart_id = ?)
+            """;
+
+    private static final String ADD_TO_TOTAL = """
+            SELECT total_amount, version
+            FROM FINAL TABLE (
+                UPDATE shopping_carts
+                SET total_amount = total_amount + ?, version = version + 1
+                WHERE id = ? AND (CAST(? AS BIGINT) IS NULL OR version = ?)
+            )
+            """;
+
+    private static final String UPDATE_ITEM_PRICE = """
+            UPDATE cart_items
+            SET unit_price = ?, line_total = ?
+            WHERE id = ?
+            """;
+
+    private static final String FIND_ITEMS = """
+            SELECT id, product_type, quantity, unit_price, line_total
+            FROM cart_items
+            WHERE cart_id = ?
+            ORDER BY id
+            """;
+
+    private static final String SCAN_CARTS = """
+            SELECT s.id AS cart_id, s.total_amount, s.version,
+                   c.id AS client_id, c.client_type, c.annual_revenue
+            FROM shopping_carts s
+            JOIN clients c ON c.id = s.client_id
+            WHERE s.id > ?
+            ORDER BY s.id
+            """;
+
+    private static final String FIND_CARTS_IN_RANGE = """
+            SELECT s.id AS cart_id, s.total_amount, s.version,
+                   c.id AS client_id, c.client_type, c.annual_revenue
+            FROM shopping_carts s
+            JOIN clients c ON c.id = s.client_id
+            WHERE s.id BETWEEN ? AND ?
+            ORDER BY s.id
+            """;
+
+    private static final String FIND_ITEMS_IN_RANGE = """
+            SELECT cart_id, id, product_type, quantity, unit_price, line_total
+            FROM cart_items
+            WHERE cart_id BETWEEN ? AND ?
+            ORDER BY cart_id, id
+            """;
+
+    private static final String FIND_CLIENT_CARTS = """
+            SELECT s.id AS cart_id, s.total_amount, s.version,
+                   c.id AS client_id, c.client_type, c.annual_revenue
+            FROM shopping_carts s
+            JOIN clients c ON c.id = s.client_id
+            WHERE s.client_id = ?
+            ORDER BY s.id
+            """;
+
+    private static final String FIND_CLIENT_ITEMS = """
+            SELECT i.cart_id, i.id, i.product_type, i.quantity, i.unit_price, i.line_total
+            FROM cart_items i
+            JOIN shopping_carts s ON s.id = i.cart_id
+            WHERE s.client_id = ?
+            ORDER BY i.cart_id, i.id
+            """;
+
+    private static final String UPDATE_TOTAL_IF_VERSION = """
+            UPDATE shopping_carts
+            SET total_amount = ?, version = version + 1
+            WHERE id = ? AND version = ?
+            """;
+
+    private static final String INSERT_ITEM = """
+            INSERT INTO cart_items (cart_id, product_type, quantity, unit_price, line_total)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String DELETE_ITEM_BY_ID = """
+            DELETE FROM cart_items
+            WHERE id = ? AND cart_id = ?
+            """;
+
+    private static final String WRITE_TOTAL = """
+            UPDATE shopping_carts
+            SET total_amount = ?, version = ?
+            WHERE id = ? AND version = ?
+            """;
+
+    private static final String REPLAY_TOTAL = """
+            UPDATE shopping_carts
+            SET total_amount = ?, version = ?
+            WHERE id = ? AND version < ?
+            """;
+
+    private static final String WRITE_ITEM_BY_ID = """
+            MERGE INTO cart_items (id, cart_id, product_type, quantity, unit_price, line_total)
+            KEY (id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String WRITE_ITEM_BY_PRODUCT = """
+            MERGE INTO cart_items (cart_id, product_type, quantity, unit_price, line_total)
+            KEY (cart_id, product_type)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the cart owner with only the attributes pricing needs, or empty if the cart does
+     * not exist. The result is a transient instance, not a managed entity.
+     */
+    public Optional<Client> findCartClient(Long cartId) {
+        return jdbcTemplate.query(FIND_CART_CLIENT, (rs, rowNum) -> toClient(rs), cartId).stream().findFirst();
+    }
+
+    /**
+     * Reads a cart, its owner and its lines with one joined query into plain, unmanaged objects.
+     * The client carries only its id and the attributes pricing needs.
+     */
+    public Optional<ShoppingCart> findCart(Long cartId) {
+        return Optional.ofNullable(jdbcTemplate.query(FIND_CART, rs -> {
+            ShoppingCart cart = null;
+            while (rs.next()) {
+                if (cart == null) {
+                    cart = new ShoppingCart(toClient(rs));
+                    cart.setId(rs.getLong("cart_id"));
+                    cart.setTotalAmount(rs.getBigDecimal("total_amount"));
+                    cart.setVersion(rs.getLong("version"));
+                }
+                if (rs.getObject("item_id") != null) {
+                    cart.getItems().add(toPricedItem(rs, "item_id"));
+                }
+            }
+            return cart;
+        }, cartId));
+    }
+
+    /**
+     * Adds {@code quantity} to the cart's line for {@code productType} at {@code unitPrice},
+     * creating the line if needed, and stores the line's price snapshot. Returns the line as it was
+     * before, or empty if it was created. The returned line carries no id.
+     */
+    public Optional<CartItem> mergePricedItem(Long cartId, ProductType productType, int quantity, BigDecimal unitPrice) {
+        return jdbcTemplate.query(MERGE_PRICED_ITEM, (rs, rowNum) -> toPricedItem(null, rs),
+                cartId, productType.name(), quantity, unitPrice).stream().findFirst();
+    }
+
+    /**
+     * Sets the quantity of a line and returns the line as it was before, with its price snapshot,
+     * or empty if the cart has no such line.
+     */
+    public Optional<CartItem> setItemQuantity(Long cartId, Long itemId, int quantity) {
+        return jdbcTemplate.query(SET_ITEM_QUANTITY, (rs, rowNum) -> toPricedItem(itemId, rs),
+                quantity, itemId, cartId).stream().findFirst();
+    }
+
+    /**
+     * Deletes a line and returns it with its price snapshot, or empty if the cart has no such line.
+     */
+    public Optional<CartItem> deleteItem(Long cartId, Long itemId) {
+        return jdbcTemplate.query(DELETE_ITEM, (rs, rowNum) -> toPricedItem(itemId, rs),
+                itemId, cartId).stream().findFirst();
+    }
+
+    /**
+     * Adds {@code delta} to the stored total and bumps the version, in one statement that also
+     * returns the new values. With an {@code expectedVersion} the update only applies at that
+     * version; empty means the cart does not exist or has moved on.
+     */
+    public Optional<CartTotals> addToTotal(Long cartId, BigDecimal delta, Long expectedVersion) {
+        return jdbcTemplate.query(ADD_TO_TOTAL, (rs, rowNum) ->
+                        new CartTotals(rs.getBigDecimal("total_amount"), rs.getLong("version")),
+                delta, cartId, expectedVersion, expectedVersion).stream().findFirst();
+    }
+
+    /**
+     * Writes the price snapshots of the given lines as one batch.
+     */
+    public void updateItemPrices(List<CartItem> items) {
+        jdbcTemplate.batchUpdate(UPDATE_ITEM_PRICE, items, items.size(), (ps, item) -> {
+            ps.setBigDecimal(1, item.getUnitPrice());
+            ps.setBigDecimal(2, item.getLineTotal());
+            ps.setLong(3, item.getId());
+        });
+    }
+
+    public List<CartItem> findItems(Long cartId) {
+        return jdbcTemplate.query(FIND_ITEMS, (rs, rowNum) -> toPricedItem(rs, "id"), cartId);
+    }
+
+    /**
+     * Streams every cart with an id above {@code afterId}, in id order, with its owner, through a
+     * forward-only cursor fetching {@link #SCAN_FETCH_SIZE} rows at a time. Items are not read.
+     */
+    public void scanCarts(long afterId, Consumer<CartSnapshot> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SCAN_CARTS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            ps.setLong(1, afterId);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(toSnapshot(rs)));
+    }
+
+    /**
+     * Returns the carts with ids in {@code [fromCartId, toCartId]} with their owner, in id order.
+     * Items are not read.
+     */
+    public List<CartSnapshot> findCartsInRange(long fromCartId, long toCartId) {
+        return jdbcTemplate.query(FIND_CARTS_IN_RANGE, (rs, rowNum) -> toSnapshot(rs), fromCartId, toCartId);
+    }
+
+    /**
+     * Returns the lines of all carts with ids in {@code [fromCartId, toCartId]}, keyed by cart id.
+     */
+    public Map<Long, List<CartItem>> findItemsInRange(long fromCartId, long toCartId) {
+        Map<Long, List<CartItem>> items = new HashMap<>();
+        jdbcTemplate.query(FIND_ITEMS_IN_RANGE, (RowCallbackHandler) rs -> items
+                .computeIfAbsent(rs.getLong("cart_id"), id -> new ArrayList<>())
+                .add(toPricedItem(rs, "id")),
+                fromCartId, toCartId);
+        return items;
+    }
+
+    /**
+     * Returns all carts of one client with their owner, in id order. Items are not read.
+     */
+    public List<CartSnapshot> findClientCarts(String clientId) {
+        return jdbcTemplate.query(FIND_CLIENT_CARTS, (rs, rowNum) -> toSnapshot(rs), clientId);
+    }
+
+    /**
+     * Returns the lines of all carts of one client, keyed by cart id.
+     */
+    public Map<Long, List<CartItem>> findClientItems(String clientId) {
+        Map<Long, List<CartItem>> items = new HashMap<>();
+        jdbcTemplate.query(FIND_CLIENT_ITEMS, (RowCallbackHandler) rs -> items
+                .computeIfAbsent(rs.getLong("cart_id"), id -> new ArrayList<>())
+                .add(toPricedItem(rs, "id")),
+                clientId);
+        return items;
+    }
+
+    /**
+     * Writes new totals as one batch, each guarded by the version it was computed from, and bumps
+     * the version of every cart it changes. Returns per-update row counts; {@code 0} means the
+     * cart changed or disappeared in the meantime and was left alone.
+     */
+    public int[] updateTotals(List<CartSnapshot> carts) {
+        return jdbcTemplate.batchUpdate(UPDATE_TOTAL_IF_VERSION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CartSnapshot cart = carts.get(i);
+                ps.setBigDecimal(1, cart.totalAmount());
+                ps.setLong(2, cart.id());
+                ps.setLong(3, cart.version());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return carts.size();
+            }
+        });
+    }
+
+    /**
+     * Inserts one priced line and returns its generated id.
+     */
+    public long insertItem(long cartId, CartItem item) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_ITEM, new String[]{"id"});
+            ps.setLong(1, cartId);
+            ps.setString(2, item.getProductType().name());
+            ps.setInt(3, item.getQuantity());
+            ps.setBigDecimal(4, item.getUnitPrice());
+            ps.setBigDecimal(5, item.getLineTotal());
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Long.class);
+    }
+
+    /**
+     * Deletes the given lines as one batch.
+     */
+    public void deleteItems(List<CartLine> lines) {
+        jdbcTemplate.batchUpdate(DELETE_ITEM_BY_ID, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, line.item().getId());
+            ps.setLong(2, line.cartId());
+        });
+    }
+
+    /**
+     * Sets totals and versions as one batch, each only if the cart is still at its
+     * {@code expectedVersion}. Returns per-update row counts; {@code 0} means the cart was
+     * changed or deleted in the meantime.
+     */
+    public int[] writeTotals(List<CartWrite> carts) {
+        return jdbcTemplate.batchUpdate(WRITE_TOTAL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CartWrite cart = carts.get(i);
+                ps.setBigDecimal(1, cart.totalAmount());
+                ps.setLong(2, cart.version());
+                ps.setLong(3, cart.id());
+                ps.setLong(4, cart.expectedVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return carts.size();
+            }
+        });
+    }
+
+    /**
+     * Sets totals and versions as one batch where the stored version is still below the new
+     * one, so a replayed state never replaces a later one. Returns per-update row counts.
+     */
+    public int[] replayTotals(List<CartSnapshot> carts) {
+        return jdbcTemplate.batchUpdate(REPLAY_TOTAL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                CartSnapshot cart = carts.get(i);
+                ps.setBigDecimal(1, cart.totalAmount());
+                ps.setLong(2, cart.version());
+                ps.setLong(3, cart.id());
+                ps.setLong(4, cart.version());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return carts.size();
+            }
+        });
+    }
+
+    /**
+     * Writes lines with their quantities and price snapshots, inserting any that are missing.
+     * Lines with an id are matched by id, so a deleted row comes back under the same id; lines
+     * without one by {@code (cart_id, product_type)}.
+     */
+    public void writeItems(List<CartLine> lines) {
+        List<CartLine> byId = lines.stream().filter(line -> line.item().getId() != null).toList();
+        List<CartLine> byProduct = lines.stream().filter(line -> line.item().getId() == null).toList();
+
+        if (!byId.isEmpty()) {
+            jdbcTemplate.batchUpdate(WRITE_ITEM_BY_ID, byId, byId.size(), (ps, line) -> {
+                ps.setLong(1, line.item().getId());
+                ps.setLong(2, line.cartId());
+                ps.setString(3, line.item().getProductType().name());
+                ps.setInt(4, line.item().getQuantity());
+                ps.setBigDecimal(5, line.item().getUnitPrice());
+                ps.setBigDecimal(6, line.item().getLineTotal());
+            });
+        }
+        if (!byProduct.isEmpty()) {
+            jdbcTemplate.batchUpdate(WRITE_ITEM_BY_PRODUCT, byProduct, byProduct.size(), (ps, line) -> {
+                ps.setLong(1, line.cartId());
+                ps.setString(2, line.item().getProductType().name());
+                ps.setInt(3, line.item().getQuantity());
+                ps.setBigDecimal(4, line.item().getUnitPrice());
+                ps.setBigDecimal(5, line.item().getLineTotal());
+            });
+        }
+    }
+
+    private static CartSnapshot toSnapshot(ResultSet rs) throws SQLException {
+        return new CartSnapshot(
+                rs.getLong("cart_id"),
+                rs.getLong("version"),
+                rs.getBigDecimal("total_amount"),
+                toClient(rs));
+    }
+
+    private static Client toClient(ResultSet rs) throws SQLException {
+        String id = rs.getString("client_id");
+        if ("PROFESSIONAL".equals(rs.getString("client_type"))) {
+            return new ProfessionalClient(id, null, null, rs.getBigDecimal("annual_revenue"), null);
+        }
+        return new IndividualClient(id);
+    }
+
+    private static CartItem toItem(Long id, String productType, int quantity) {
+        CartItem item = new CartItem(ProductType.valueOf(productType), quantity);
+        item.setId(id);
+        return item;
+    }
+
+    private static CartItem toPricedItem(ResultSet rs, String idColumn) throws SQLException {
+        return toPricedItem(rs.getLong(idColumn), rs);
+    }
+
+    private static CartItem toPricedItem(Long id, ResultSet rs) throws SQLException {
+        CartItem item = toItem(id, rs.getString("product_type"), rs.getInt("quantity"));
+        item.setUnitPrice(rs.getBigDecimal("unit_price"));
+        item.setLineTotal(rs.getBigDecimal("line_total"));
+        return item;
+    }
+
+    public record CartTotals(BigDecimal totalAmount, long version) {
+    }
+
+    public record CartSnapshot(long id, long version, BigDecimal totalAmount, Client client) {
+    }
+
+    public record CartLine(long cartId, CartItem item) {
+    }
+
+    public record CartWrite(long id, long expectedVersion, long version, BigDecimal totalAmount) {
+    }
+}
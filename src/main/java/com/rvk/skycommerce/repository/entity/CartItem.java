@@ -7,6 +7,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
+
 @Entity
 @Table(name = "cart_items")
 @Getter
@@ -15,7 +17,8 @@ import lombok.Setter;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -25,8 +28,22 @@ public class CartItem {
     @Column(name = "quantity", nullable = false)
     private int quantity;
 
+    /**
+     * Price snapshot written with the line, so reads do not reprice. {@code null} for lines
+     * stored before snapshots existed.
+     */
+    @Column(name = "unit_price")
+    private BigDecimal unitPrice;
+
+    @Column(name = "line_total")
+    private BigDecimal lineTotal;
+
     public CartItem(ProductType productType, int quantity) {
         this.productType = productType;
         this.quantity = quantity;
     }
+
+    public boolean isPriced() {
+        return unitPrice != null && lineTotal != null;
+    }
 }
@@ -18,7 +18,8 @@ import java.math.BigDecimal;
 public class PriceRule {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_rules_seq")
+    @SequenceGenerator(name = "price_rules_seq", sequenceName = "price_rules_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
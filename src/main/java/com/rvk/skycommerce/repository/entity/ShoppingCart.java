@@ -18,7 +18,8 @@ import java.util.List;
 public class ShoppingCart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_carts_seq")
+    @SequenceGenerator(name = "shopping_carts_seq", sequenceName = "shopping_carts_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -32,6 +33,10 @@ public class ShoppingCart {
     @Column(name = "total_amount", nullable = false)
     private BigDecimal totalAmount;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 
     public ShoppingCart(Client client) {
         this.client = client;
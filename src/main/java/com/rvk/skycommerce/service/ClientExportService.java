@@ -0,0 +1,88 @@
+package com.rvk.skycommerce.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.repository.ClientJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes clients as newline-delimited JSON straight from the JDBC result set, one object per
+ * line, without building entities or models. Field names match the client API responses, plus
+ * {@code clientType}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientExportService {
+
+    private final ClientJdbcRepository clientJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Streams every client, or only those of {@code clientType} when it is not {@code null}, to
+     * {@code out}. The stream is flushed but not closed.
+     *
+     * @return the number of clients written
+     */
+    @Transactional(readOnly = true)
+    public long exportClients(ClientType clientType, OutputStream out) throws IOException {
+        log.info("Exporting clients clientType={}", clientType);
+
+        long[] count = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            // Records are separated by the newline written after each one, not Jackson's default space.
+            generator.setRootValueSeparator(null);
+            clientJdbcRepository.forEachClient(clientType, rs -> {
+                writeClient(generator, rs);
+                count[0]++;
+            });
+            generator.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("Exported {} clients clientType={}", count[0], clientType);
+        return count[0];
+    }
+
+    private static void writeClient(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            String clientType = rs.getString("client_type");
+            generator.writeStartObject();
+            generator.writeStringField("id", rs.getString("id"));
+            generator.writeStringField("clientType", clientType);
+            if (ClientType.PROFESSIONAL.name().equals(clientType)) {
+                generator.writeStringField("companyName", rs.getString("company_name"));
+                generator.writeStringField("registrationNumber", rs.getString("registration_number"));
+                BigDecimal annualRevenue = rs.getBigDecimal("annual_revenue");
+                if (annualRevenue != null) {
+                    generator.writeNumberField("annualRevenue", annualRevenue);
+                } else {
+                    generator.writeNullField("annualRevenue");
+                }
+                generator.writeStringField("vatNumber", rs.getString("vat_number"));
+            } else {
+                generator.writeStringField("firstName", rs.getString("first_name"));
+                generator.writeStringField("lastName", rs.getString("last_name"));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            // Typically the client went away; abort the cursor instead of reading further rows.
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.rvk.skycommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvk.skycommerce.config.ClientImportProperties;
+import com.rvk.skycommerce.model.ClientImportFormat;
+import com.rvk.skycommerce.model.ClientImportReport;
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.repository.ClientJdbcRepository;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.IndividualClient;
+import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Imports clients from NDJSON or CSV. Records are read in chunks; each chunk is validated in
+ * parallel and its valid records are inserted as one JDBC batch in their own transaction, so a
+ * failed chunk never undoes earlier ones. If a batch is rejected by the database, that chunk is
+ * retried record by record to report exactly which records failed.
+ * <p>
+ * Fields are those of the create requests plus {@code clientType}; ids are always generated.
+ * CSV input needs a header row naming the columns, and quoted values may not span lines.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientImportService {
+
+    private final ClientJdbcRepository clientJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ClientImportProperties properties;
+
+    @Timed("skycommerce.client.import")
+    public ClientImportReport importClients(ClientImportFormat format, InputStream in) throws IOException {
+        log.info("Importing clients format={} chunkSize={}", format, properties.getChunkSize());
+
+        ReportCollector report = new ReportCollector(properties.getMaxReportedErrors());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            Iterator<ImportRecord> records = format == ClientImportFormat.CSV ? csvRecords(reader) : ndjsonRecords(reader);
+
+            List<ImportRecord> chunk = new ArrayList<>(properties.getChunkSize());
+            while (records.hasNext()) {
+                chunk.add(records.next());
+                if (chunk.size() == properties.getChunkSize()) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        }
+
+        ClientImportReport result = report.build();
+        log.info("Imported clients format={} received={} imported={} failed={}",
+                format, result.getReceived(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void importChunk(List<ImportRecord> chunk, ReportCollector report) {
+        List<Validated> validated = chunk.parallelStream()
+                .map(ClientImportService::validate)
+                .toList();
+
+        List<Validated> valid = new ArrayList<>(validated.size());
+        for (Validated v : validated) {
+            report.received++;
+            if (v.error() != null) {
+                report.reject(v.record(), v.error());
+            } else {
+                valid.add(v);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        List<Client> clients = valid.stream().map(Validated::client).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> clientJdbcRepository.insertClients(clients));
+            report.imported += clients.size();
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} clients rejected, retrying one by one: {}", clients.size(), e.getMessage());
+            for (Validated v : valid) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> clientJdbcRepository.insertClients(List.of(v.client())));
+                    report.imported++;
+                } catch (DataAccessException ex) {
+                    report.reject(v.record(), "Rejected by database: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+    }
+
+    private static Validated validate(ImportRecord record) {
+        if (record.parseError() != null) {
+            return Validated.invalid(record.number(), record.parseError());
+        }
+        Map<String, String> fields = record.fields();
+
+        String clientType = trimToNull(fields.get("clientType"));
+        if (clientType == null) {
+            return Validated.invalid(record.number(), "clientType: must not be blank");
+        }
+
+        List<String> errors = new ArrayList<>();
+        Client client;
+        if (ClientType.INDIVIDUAL.name().equalsIgnoreCase(clientType)) {
+            String firstName = required(fields, "firstName", 100, errors);
+            String lastName = required(fields, "lastName", 100, errors);
+            client = new IndividualClient(UUID.randomUUID().toString(), firstName, lastName);
+        } else if (ClientType.PROFESSIONAL.name().equalsIgnoreCase(clientType)) {
+            String companyName = required(fields, "companyName", 200, errors);
+            String registrationNumber = required(fields, "registrationNumber", 50, errors);
+            BigDecimal annualRevenue = annualRevenue(fields, errors);
+            String vatNumber = optional(fields, "vatNumber", 50, errors);
+            client = new ProfessionalClient(UUID.randomUUID().toString(), companyName, registrationNumber, annualRevenue, vatNumber);
+        } else {
+            return Validated.invalid(record.number(), "clientType: must be INDIVIDUAL or PROFESSIONAL");
+        }
+
+        if (!errors.isEmpty()) {
+            return Validated.invalid(record.number(), String.join("; ", errors));
+        }
+        return new Validated(record.number(), client, null);
+    }
+
+    private static String required(Map<String, String> fields, String name, int maxLength, List<String> errors) {
+        String value = trimToNull(fields.get(name));
+        if (value == null) {
+            errors.add(name + ": must not be blank");
+            return null;
+        }
+        return checkLength(name, value, maxLength, errors);
+    }
+
+    private static String optional(Map<String, String> fields, String name, int maxLength, List<String> errors) {
+        String value = trimToNull(fields.get(name));
+        return value == null ? null : checkLength(name, value, maxLength, errors);
+    }
+
+    private static String checkLength(String name, String value, int maxLength, List<String> errors) {
+        if (value.length() > maxLength) {
+            errors.add(name + ": size must be at most " + maxLength);
+        }
+        return value;
+    }
+
+    private static BigDecimal annualRevenue(Map<String, String> fields, List<String> errors) {
+        String value = trimToNull(fields.get("annualRevenue"));
+        if (value == null) {
+            errors.add("annualRevenue: must not be null");
+            return null;
+        }
+        try {
+            BigDecimal revenue = new BigDecimal(value);
+            if (revenue.signum() < 0) {
+                errors.add("annualRevenue: must be greater than or equal to 0");
+            }
+            return revenue;
+        } catch (NumberFormatException e) {
+            errors.add("annualRevenue: must be a number");
+            return null;
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private Iterator<ImportRecord> ndjsonRecords(BufferedReader reader) {
+        return new RecordIterator(reader) {
+            @Override
+            ImportRecord parse(long number, String line) {
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!node.isObject()) {
+                        return ImportRecord.unparseable(number, "Expected a JSON object");
+                    }
+                    Map<String, String> fields = new HashMap<>();
+                    node.fields().forEachRemaining(e -> fields.put(e.getKey(), e.getValue().isNull() ? null : e.getValue().asText()));
+                    return new ImportRecord(number, fields, null);
+                } catch (JsonProcessingException e) {
+                    return ImportRecord.unparseable(number, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        };
+    }
+
+    private Iterator<ImportRecord> csvRecords(BufferedReader reader) throws IOException {
+        String headerLine = reader.readLine();
+        while (headerLine != null && headerLine.isBlank()) {
+            headerLine = reader.readLine();
+        }
+        if (headerLine == null) {
+            return List.<ImportRecord>of().iterator();
+        }
+        List<String> header = splitCsvLine(headerLine.replace("\uFEFF", "")).stream().map(String::trim).toList();
+
+        return new RecordIterator(reader) {
+            @Override
+            ImportRecord parse(long number, String line) {
+                List<String> values = splitCsvLine(line);
+                if (values.size() != header.size()) {
+                    return ImportRecord.unparseable(number,
+                            "Expected " + header.size() + " columns, found " + values.size());
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    fields.put(header.get(i), values.get(i));
+                }
+                return new ImportRecord(number, fields, null);
+            }
+        };
+    }
+
+    /**
+     * Splits one RFC 4180 line: fields may be quoted, and {@code ""} inside quotes is a quote.
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    /**
+     * Lazily turns non-blank lines into records so that only the current chunk is held in memory.
+     */
+    private abstract static class RecordIterator implements Iterator<ImportRecord> {
+
+        private final BufferedReader reader;
+        private String nextLine;
+        private long number;
+
+        RecordIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        abstract ImportRecord parse(long number, String line);
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (!line.isBlank()) {
+                        nextLine = line;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public ImportRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            return parse(++number, line);
+        }
+    }
+
+    private record ImportRecord(long number, Map<String, String> fields, String parseError) {
+
+        static ImportRecord unparseable(long number, String error) {
+            return new ImportRecord(number, null, error);
+        }
+    }
+
+    private record Validated(long record, Client client, String error) {
+
+        static Validated invalid(long record, String error) {
+            return new Validated(record, null, error);
+        }
+    }
+
+    private static final class ReportCollector {
+
+        private final int maxReportedErrors;
+        private final List<ClientImportReport.RecordError> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long failed;
+
+        ReportCollector(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        void reject(long record, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ClientImportReport.RecordError(record, message));
+            }
+        }
+
+        ClientImportReport build() {
+            return ClientImportReport.builder()
+                    .received(received)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(List.copyOf(errors))
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
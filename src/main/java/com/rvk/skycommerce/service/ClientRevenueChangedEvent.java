@@ -0,0 +1,10 @@
+package com.rvk.skycommerce.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Published when a professional client's annual revenue is updated, so that prices depending on
+ * the revenue tier can be recomputed once the change is committed.
+ */
+public record ClientRevenueChangedEvent(String clientId, BigDecimal previousRevenue, BigDecimal annualRevenue) {
+}
@@ -2,8 +2,10 @@ package com.rvk.skycommerce.service;
 
 import com.rvk.skycommerce.model.IndividualClientModel;
 import com.rvk.skycommerce.model.ProfessionalClientModel;
+import com.rvk.skycommerce.model.TaggedModel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 
@@ -28,7 +30,23 @@ public interface ClientService {
 
     ProfessionalClientModel getProfessionalById(String id);
 
+    /**
+     * Like {@link #getIndividualById}, with a strong ETag of the client's content. Served from the
+     * {@code clients} cache, so an unchanged client is looked up without a query.
+     */
+    TaggedModel<IndividualClientModel> getTaggedIndividual(String id);
+
+    TaggedModel<ProfessionalClientModel> getTaggedProfessional(String id);
+
     Page<IndividualClientModel> getIndividuals(Pageable pageable);
 
     Page<ProfessionalClientModel> getProfessionals(Pageable pageable);
+
+    /**
+     * Returns up to {@code size} individuals ordered by id, starting after {@code afterId}
+     * ({@code null} for the first slice). Unlike {@link #getIndividuals}, no count query runs.
+     */
+    Slice<IndividualClientModel> scrollIndividuals(String afterId, int size);
+
+    Slice<ProfessionalClientModel> scrollProfessionals(String afterId, int size);
 }
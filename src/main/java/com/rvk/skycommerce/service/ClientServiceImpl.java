@@ -4,18 +4,28 @@ import com.rvk.skycommerce.exception.NotFoundException;
 import com.rvk.skycommerce.mapper.ClientMapper;
 import com.rvk.skycommerce.model.IndividualClientModel;
 import com.rvk.skycommerce.model.ProfessionalClientModel;
+import com.rvk.skycommerce.model.TaggedModel;
 import com.rvk.skycommerce.repository.ClientRepository;
 import com.rvk.skycommerce.repository.entity.Client;
 import com.rvk.skycommerce.repository.entity.IndividualClient;
 import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
 
 import static com.rvk.skycommerce.mapper.ClientMapper.toModel;
@@ -25,7 +35,11 @@ import static com.rvk.skycommerce.mapper.ClientMapper.toModel;
 @Slf4j
 public class ClientServiceImpl implements ClientService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaggedClientCache taggedClientCache;
 
     @Override
     @Transactional
@@ -65,6 +79,7 @@ public class ClientServiceImpl implements ClientService {
     }
 
     @Override
+    @Transactional
     public IndividualClientModel updateIndividualClient(String id, String firstName, String lastName) {
         log.info("Updating individual client id={} firstName={} lastName={}", id, firstName, lastName);
 
@@ -75,7 +90,9 @@ public class ClientServiceImpl implements ClientService {
 
         log.debug("Updated individual client id={} firstName={} lastName={}", saved.getId(), firstName, lastName);
 
-        return toModel(saved);
+        TaggedModel<IndividualClientModel> tagged = tagged(saved);
+        taggedClientCache.putAfterCommit("individual:" + id, tagged);
+        return tagged.model();
     }
 
 
@@ -90,6 +107,7 @@ public class ClientServiceImpl implements ClientService {
         log.info("Updating professional client id={} companyName={}", id, companyName);
 
         ProfessionalClient professional = getProfessionalClient(id);
+        BigDecimal previousRevenue = professional.getAnnualRevenue();
         professional.setCompanyName(companyName);
         professional.setRegistrationNumber(registrationNumber);
         professional.setAnnualRevenue(annualRevenue);
@@ -98,7 +116,14 @@ public class ClientServiceImpl implements ClientService {
 
         log.debug("Updated professional client id={} companyName={}", saved.getId(), companyName);
 
-        return toModel(saved);
+        if (revenueChanged(previousRevenue, annualRevenue)) {
+            // Carts are repriced by a listener once this transaction commits
+            eventPublisher.publishEvent(new ClientRevenueChangedEvent(id, previousRevenue, annualRevenue));
+        }
+
+        TaggedModel<ProfessionalClientModel> tagged = tagged(saved);
+        taggedClientCache.putAfterCommit("professional:" + id, tagged);
+        return tagged.model();
     }
 
 
@@ -127,6 +152,19 @@ public class ClientServiceImpl implements ClientService {
 
     @Override
     @Transactional(readOnly = true)
+    public TaggedModel<IndividualClientModel> getTaggedIndividual(String id) {
+        return taggedClientCache.get("individual:" + id, () -> tagged(getIndividualClient(id)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaggedModel<ProfessionalClientModel> getTaggedProfessional(String id) {
+        return taggedClientCache.get("professional:" + id, () -> tagged(getProfessionalClient(id)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "skycommerce.client.list", extraTags = {"type", "individual"}, histogram = true)
     public Page<IndividualClientModel> getIndividuals(Pageable pageable) {
         log.debug("Fetching individual clients: page={}", pageable);
         Page<IndividualClientModel> page = clientRepository.findIndividuals(pageable)
@@ -137,6 +175,7 @@ public class ClientServiceImpl implements ClientService {
 
     @Override
     @Transactional(readOnly = true)
+    @Timed(value = "skycommerce.client.list", extraTags = {"type", "professional"}, histogram = true)
     public Page<ProfessionalClientModel> getProfessionals(Pageable pageable) {
         log.debug("Fetching professional clients: page={}", pageable);
 
@@ -147,6 +186,85 @@ public class ClientServiceImpl implements ClientService {
         return page;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "skycommerce.client.list", extraTags = {"type", "individual"}, histogram = true)
+    public Slice<IndividualClientModel> scrollIndividuals(String afterId, int size) {
+        log.debug("Scrolling individual clients: afterId={} size={}", afterId, size);
+        Slice<IndividualClientModel> slice = clientRepository.findIndividualsAfter(lowerBound(afterId), scrollRequest(size))
+                .map(ClientMapper::toModel);
+        log.debug("Scrolled individual clients: returned={} hasNext={}", slice.getNumberOfElements(), slice.hasNext());
+        return slice;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "skycommerce.client.list", extraTags = {"type", "professional"}, histogram = true)
+    public Slice<ProfessionalClientModel> scrollProfessionals(String afterId, int size) {
+        log.debug("Scrolling professional clients: afterId={} size={}", afterId, size);
+        Slice<ProfessionalClientModel> slice = clientRepository.findProfessionalsAfter(lowerBound(afterId), scrollRequest(size))
+                .map(ClientMapper::toModel);
+        log.debug("Scrolled professional clients: returned={} hasNext={}", slice.getNumberOfElements(), slice.hasNext());
+        return slice;
+    }
+
+    private static TaggedModel<IndividualClientModel> tagged(IndividualClient individual) {
+        String etag = contentTag("individual", individual.getId(), individual.getFirstName(), individual.getLastName());
+        return new TaggedModel<>(toModel(individual), etag);
+    }
+
+    private static TaggedModel<ProfessionalClientModel> tagged(ProfessionalClient professional) {
+        String etag = contentTag("professional", professional.getId(), professional.getCompanyName(),
+                professional.getRegistrationNumber(), professional.getAnnualRevenue(), professional.getVatNumber());
+        return new TaggedModel<>(toModel(professional), etag);
+    }
+
+    /**
+     * SHA-256 over the fields a client response is built from, each length-prefixed so that field
+     * boundaries cannot shift. Amounts use their plain string, which keeps the scale the response
+     * shows.
+     */
+    private static String contentTag(Object... fields) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        for (Object field : fields) {
+            if (field == null) {
+                digest.update((byte) 0);
+                continue;
+            }
+            String value = field instanceof BigDecimal amount ? amount.toPlainString() : field.toString();
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update((byte) 1);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean revenueChanged(BigDecimal previous, BigDecimal current) {
+        if (previous == null || current == null) {
+            return previous != current;
+        }
+        return previous.compareTo(current) != 0;
+    }
+
+    // Client ids are never empty, so "" sorts before every id and starts the first slice.
+    private static String lowerBound(String afterId) {
+        return afterId != null ? afterId : "";
+    }
+
+    private static Pageable scrollRequest(int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            log.warn("Invalid scroll size {}", size);
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        return PageRequest.of(0, size);
+    }
+
     private <T extends Client> T getClient(String id, Class<T> type) {
         Client client = clientRepository.findById(id)
                 .orElseThrow(() -> {
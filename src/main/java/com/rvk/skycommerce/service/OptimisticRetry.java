@@ -0,0 +1,46 @@
+package com.rvk.skycommerce.service;
+
+import com.rvk.skycommerce.config.CartProperties;
+import com.rvk.skycommerce.exception.ConflictException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a cart mutation that lost an optimistic lock race. Each attempt must be its own
+ * transaction, so callers pass a call through the transactional service proxy.
+ * <p>
+ * A caller that sent If-Match asked for a specific version, so a lost race is reported as a failed
+ * precondition instead of being retried against a newer cart.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OptimisticRetry {
+
+    private final CartProperties cartProperties;
+
+    public <T> T execute(Long cartId, Long expectedVersion, Supplier<T> mutation) {
+        int retries = 0;
+        while (true) {
+            try {
+                return mutation.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (expectedVersion != null) {
+                    log.warn("Cart {} changed concurrently after version {}", cartId, expectedVersion);
+                    throw new PreconditionFailedException("Cart " + cartId + " was modified concurrently");
+                }
+                if (retries >= cartProperties.getOptimisticRetries()) {
+                    log.warn("Giving up on cart {} after {} optimistic lock retries", cartId, retries);
+                    throw new ConflictException("Cart " + cartId + " is being modified concurrently, please retry");
+                }
+                retries++;
+                log.debug("Optimistic lock conflict on cart {}, retry {}", cartId, retries);
+            }
+        }
+    }
+}
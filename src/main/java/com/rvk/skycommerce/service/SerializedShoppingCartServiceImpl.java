@@ -0,0 +1,281 @@
+package com.rvk.skycommerce.service;
+
+import com.rvk.skycommerce.config.CartProperties;
+import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import com.rvk.skycommerce.service.pricing.PriceCalculator;
+import com.rvk.skycommerce.service.serialized.CartMailboxes;
+import com.rvk.skycommerce.service.serialized.CartMailboxes.CartCommand;
+import com.rvk.skycommerce.service.serialized.CartMailboxes.Submission;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Entity-mode cart service whose item mutations go through {@link CartMailboxes}, so mutations of
+ * one cart never run concurrently. The commands queued for a cart while its previous batch ran are
+ * applied together: one load, every command in arrival order, one repricing and one flush. A burst
+ * of adds to one cart thus costs a few transactions instead of one contending transaction each.
+ * <p>
+ * A batch is a single version step. Every caller whose command was applied gets the cart as saved
+ * by the batch. A command that fails, including on its If-Match version, fails alone; the rest of
+ * its batch still applies. Cart creation and reads are inherited from {@link ShoppingCartServiceImpl}.
+ * <p>
+ * The calling thread only validates its arguments and waits; it holds no transaction or
+ * connection while its command is queued.
+ */
+@Service
+@ConditionalOnProperty(name = "skycommerce.cart.write-mode", havingValue = "serialized")
+@Slf4j
+public class SerializedShoppingCartServiceImpl extends ShoppingCartServiceImpl {
+
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final TransactionTemplate batchTransaction;
+    private final CartMailboxes mailboxes;
+    private final DistributionSummary batchSizes;
+
+    public SerializedShoppingCartServiceImpl(ShoppingCartRepository shoppingCartRepository,
+                                             ShoppingCartJdbcRepository shoppingCartJdbcRepository,
+                                             ClientRepository clientRepository,
+                                             PriceCalculator priceCalculator,
+                                             CacheManager cacheManager,
+                                             MeterRegistry meterRegistry,
+                                             PlatformTransactionManager transactionManager,
+                                             CartProperties cartProperties) {
+        super(shoppingCartRepository, shoppingCartJdbcRepository, clientRepository, priceCalculator,
+                cacheManager, meterRegistry);
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+
+        CartProperties.Serialized properties = cartProperties.getSerialized();
+        this.mailboxes = new CartMailboxes(properties.getMaxBatchSize(), this::applyBatch);
+
+        this.batchSizes = DistributionSummary.builder("skycommerce.cart.serialized.batch-size")
+                .description("Cart mutations applied per load/save cycle")
+                .register(meterRegistry);
+        Gauge.builder("skycommerce.cart.serialized.queued", mailboxes, CartMailboxes::queued)
+                .description("Cart mutations waiting for their cart's mailbox")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mailboxes.close();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.add-item", histogram = true)
+    public ShoppingCartModel addItem(Long cartId, ProductType productType, int quantity, Long expectedVersion) {
+
+        log.info("Queueing add item cartId={} productType={} quantity={}", cartId, productType, quantity);
+
+        if (quantity <= 0) {
+            log.warn("Invalid quantity {} for cartId={}", quantity, cartId);
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        ShoppingCartModel model = await(cartId, expectedVersion, cart -> add(cart, productType, quantity));
+
+        log.info("Item added to cartId={} total={}", cartId, model.getTotalAmount());
+
+        return model;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.add-items", histogram = true)
+    public ShoppingCartModel addItems(Long cartId, List<AddCartItemModel> items, Long expectedVersion) {
+
+        log.info("Queueing add of {} items to cartId={}", items.size(), cartId);
+
+        Map<ProductType, Integer> quantities = new EnumMap<>(ProductType.class);
+        for (AddCartItemModel item : items) {
+            if (item.getProductType() == null) {
+                log.warn("Missing product type for cartId={}", cartId);
+                throw new IllegalArgumentException("Product type is required");
+            }
+            if (item.getQuantity() <= 0) {
+                log.warn("Invalid quantity {} for cartId={}", item.getQuantity(), cartId);
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            quantities.merge(item.getProductType(), item.getQuantity(), Integer::sum);
+        }
+
+        ShoppingCartModel model = await(cartId, expectedVersion,
+                cart -> quantities.forEach((productType, quantity) -> add(cart, productType, quantity)));
+
+        log.info("Items added to cartId={} lines={} total={}", cartId, quantities.size(), model.getTotalAmount());
+
+        return model;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.update-item-quantity", histogram = true)
+    public ShoppingCartModel updateItemQuantity(Long cartId, Long itemId, int quantity, Long expectedVersion) {
+
+        log.info("Queueing item quantity update cartId={} itemId={} quantity={}", cartId, itemId, quantity);
+
+        if (quantity <= 0) {
+            log.warn("Invalid quantity {} for cartId={} itemId={}", quantity, cartId, itemId);
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        ShoppingCartModel model = await(cartId, expectedVersion,
+                cart -> findItem(cart, itemId).setQuantity(quantity));
+
+        log.info("Updated item quantity cartId={} itemId={} total={}", cartId, itemId, model.getTotalAmount());
+
+        return model;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.remove-item", histogram = true)
+    public ShoppingCartModel removeItem(Long cartId, Long itemId, Long expectedVersion) {
+
+        log.info("Queueing item removal itemId={} from cartId={}", itemId, cartId);
+
+        ShoppingCartModel model = await(cartId, expectedVersion,
+                cart -> cart.getItems().remove(findItem(cart, itemId)));
+
+        log.info("Removed item itemId={} from cartId={} newTotal={}", itemId, cartId, model.getTotalAmount());
+
+        return model;
+    }
+
+    /**
+     * Queues the command and waits for its batch. If the wait is interrupted the command may
+     * still be applied later.
+     */
+    private ShoppingCartModel await(Long cartId, Long expectedVersion, CartCommand command) {
+        try {
+            return mailboxes.submit(cartId, expectedVersion, command).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for cart " + cartId, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Applies one cart's queued commands in a single transaction and completes their futures once
+     * it commits. If the load or the flush fails, {@link CartMailboxes} fails every command of the
+     * batch with that exception, including those that had been rejected: a rejection because an
+     * earlier command changed the cart no longer holds once that change is rolled back. Callers
+     * without If-Match are then retried by {@link OptimisticRetry}.
+     */
+    private void applyBatch(long cartId, List<Submission> batch) {
+        batchSizes.record(batch.size());
+
+        List<Submission> applied = new ArrayList<>(batch.size());
+        Map<Submission, RuntimeException> rejected = new LinkedHashMap<>();
+        ShoppingCartModel model = batchTransaction.execute(status -> {
+            ShoppingCart cart = shoppingCartRepository.findByIdWithItems(cartId)
+                    .orElseThrow(() -> {
+                        log.warn("Cart with id {} not found", cartId);
+                        return new NotFoundException("Cart with id " + cartId + " not found");
+                    });
+
+            for (Submission submission : batch) {
+                try {
+                    checkVersion(cart, submission.expectedVersion(), !applied.isEmpty());
+                    submission.command().apply(cart);
+                    applied.add(submission);
+                } catch (RuntimeException ex) {
+                    rejected.put(submission, ex);
+                }
+            }
+            if (applied.isEmpty()) {
+                return null;
+            }
+
+            updateCartTotal(cart);
+            return toModel(shoppingCartRepository.saveAndFlush(cart));
+        });
+
+        rejected.forEach((submission, ex) -> submission.result().completeExceptionally(ex));
+        if (model != null) {
+            applied.forEach(submission -> submission.result().complete(model));
+            log.debug("Applied {} of {} commands to cartId={} version={}", applied.size(), batch.size(), cartId,
+                    model.getVersion());
+        }
+    }
+
+    /**
+     * The loaded version is the only one a caller can have seen; once a command of the batch has
+     * changed the cart, an If-Match for any version is stale.
+     */
+    private static void checkVersion(ShoppingCart cart, Long expectedVersion, boolean changedInBatch) {
+        if (expectedVersion == null) {
+            return;
+        }
+        if (changedInBatch) {
+            log.warn("Cart {} changed by an earlier queued command after version {}", cart.getId(), expectedVersion);
+            throw new PreconditionFailedException("Cart " + cart.getId() + " was modified concurrently");
+        }
+        if (!expectedVersion.equals(cart.getVersion())) {
+            log.warn("Version mismatch for cartId={} expected={} actual={}", cart.getId(), expectedVersion, cart.getVersion());
+            throw new PreconditionFailedException("Cart " + cart.getId() + " is at version " + cart.getVersion()
+                    + ", expected " + expectedVersion);
+        }
+    }
+
+    private static void add(ShoppingCart cart, ProductType productType, int quantity) {
+        for (CartItem item : cart.getItems()) {
+            if (item.getProductType() == productType) {
+                item.setQuantity(item.getQuantity() + quantity);
+                return;
+            }
+        }
+        cart.getItems().add(new CartItem(productType, quantity));
+    }
+
+    private static CartItem findItem(ShoppingCart cart, Long itemId) {
+        return cart.getItems().stream()
+                .filter(item -> itemId.equals(item.getId()))
+                .findFirst()
+                .orElseThrow(() -> {
+                    log.warn("Item with id {} not found in cart {}", itemId, cart.getId());
+                    return new NotFoundException("Item with id " + itemId + " not found in cart " + cart.getId());
+                });
+    }
+}
@@ -1,19 +1,33 @@
 package com.rvk.skycommerce.service;
 
+import com.rvk.skycommerce.model.AddCartItemModel;
 import com.rvk.skycommerce.model.ProductType;
 import com.rvk.skycommerce.model.ShoppingCartModel;
 
+import java.util.List;
+
 public interface ShoppingCartService {
 
     ShoppingCartModel createCartForClient(String clientId);
 
     ShoppingCartModel getCart(Long cartId);
 
-    ShoppingCartModel addItem(Long cartId, ProductType productType, int quantity);
+    /**
+     * Cart mutations take the version the caller last saw; a {@code null} version skips the check.
+     *
+     * @throws com.rvk.skycommerce.exception.PreconditionFailedException if the cart is at another version
+     */
+    ShoppingCartModel addItem(Long cartId, ProductType productType, int quantity, Long expectedVersion);
+
+    /**
+     * Merges all lines into the cart in a single transaction; quantities for a product already
+     * in the cart (or repeated in the request) are summed.
+     */
+    ShoppingCartModel addItems(Long cartId, List<AddCartItemModel> items, Long expectedVersion);
 
-    ShoppingCartModel updateItemQuantity(Long cartId, Long itemId, int quantity);
+    ShoppingCartModel updateItemQuantity(Long cartId, Long itemId, int quantity, Long expectedVersion);
 
-    ShoppingCartModel removeItem(Long cartId, Long itemId);
+    ShoppingCartModel removeItem(Long cartId, Long itemId, Long expectedVersion);
 
 
 }
\ No newline at end of file
@@ -1,37 +1,55 @@
 package com.rvk.skycommerce.service;
 
 import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
 import com.rvk.skycommerce.model.CartItemModel;
 import com.rvk.skycommerce.model.ProductType;
 import com.rvk.skycommerce.model.ShoppingCartModel;
 import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
 import com.rvk.skycommerce.repository.ShoppingCartRepository;
 import com.rvk.skycommerce.repository.entity.CartItem;
 import com.rvk.skycommerce.repository.entity.Client;
 import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import com.rvk.skycommerce.service.pricing.CartPricing;
 import com.rvk.skycommerce.service.pricing.PriceCalculator;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "skycommerce.cart.write-mode", havingValue = "entity", matchIfMissing = true)
 @Slf4j
 public class ShoppingCartServiceImpl implements ShoppingCartService {
 
     private final ShoppingCartRepository shoppingCartRepository;
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
     private final ClientRepository clientRepository;
     private final PriceCalculator priceCalculator;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
 
     @Override
     @Transactional
     @CachePut(value = "shoppingCarts", key = "#result.id")
+    @Timed(value = "skycommerce.cart.create", histogram = true)
     public ShoppingCartModel createCartForClient(String clientId) {
 
         log.info("Creating shopping cart for client={}", clientId);
@@ -50,25 +68,44 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
         return toModel(saved);
     }
 
+    /**
+     * Reads through the {@code shoppingCarts} cache explicitly rather than with {@code @Cacheable},
+     * so that hits and misses are timed separately ({@code skycommerce.cart.get}, tag
+     * {@code cache}). Misses are served by one JDBC query into unmanaged objects; no persistence
+     * context or transaction is opened for the read.
+     */
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "shoppingCarts", key = "#cartId")
     public ShoppingCartModel getCart(Long cartId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Cache cache = cacheManager.getCache("shoppingCarts");
 
-        log.debug("Fetching shopping cart id={}", cartId);
+        ShoppingCartModel cached = cache.get(cartId, ShoppingCartModel.class);
+        if (cached != null) {
+            sample.stop(getCartTimer("hit"));
+            return cached;
+        }
 
-        ShoppingCart cart = shoppingCartRepository.findByIdWithItems(cartId)
-                .orElseThrow(() -> {
-                    log.warn("Cart with id {} not found", cartId);
-                    return new NotFoundException("Cart with id " + cartId + " not found");
-                });
-        return toModel(cart);
+        try {
+            log.debug("Fetching shopping cart id={}", cartId);
+
+            ShoppingCart cart = shoppingCartJdbcRepository.findCart(cartId)
+                    .orElseThrow(() -> {
+                        log.warn("Cart with id {} not found", cartId);
+                        return new NotFoundException("Cart with id " + cartId + " not found");
+                    });
+            ShoppingCartModel model = toModel(cart);
+            cacheUnlessNewer(cache, cartId, model);
+            return model;
+        } finally {
+            sample.stop(getCartTimer("miss"));
+        }
     }
 
     @Override
     @Transactional
     @CachePut(value = "shoppingCarts", key = "#cartId")
-    public ShoppingCartModel addItem(Long cartId, ProductType productType, int quantity) {
+    @Timed(value = "skycommerce.cart.add-item", histogram = true)
+    public ShoppingCartModel addItem(Long cartId, ProductType productType, int quantity, Long expectedVersion) {
 
         log.info("Adding item to cartId={} productType={} quantity={}", cartId, productType, quantity);
 
@@ -83,6 +120,8 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
                     return new NotFoundException("Cart with id " + cartId + " not found");
                 });
 
+        checkVersion(cart, expectedVersion);
+
         CartItem existing = cart.getItems().stream()
                 .filter(i -> i.getProductType() == productType)
                 .findFirst()
@@ -100,7 +139,8 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
 
         updateCartTotal(cart);
 
-        ShoppingCart saved = shoppingCartRepository.save(cart);
+        // flush so the incremented version is part of the returned model
+        ShoppingCart saved = shoppingCartRepository.saveAndFlush(cart);
 
         log.info("Item added to cartId={} savedCartId={} total={}", cartId, saved.getId(), saved.getTotalAmount());
 
@@ -110,7 +150,60 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
     @Override
     @Transactional
     @CachePut(value = "shoppingCarts", key = "#cartId")
-    public ShoppingCartModel updateItemQuantity(Long cartId, Long itemId, int quantity) {
+    @Timed(value = "skycommerce.cart.add-items", histogram = true)
+    public ShoppingCartModel addItems(Long cartId, List<AddCartItemModel> items, Long expectedVersion) {
+
+        log.info("Adding {} items to cartId={}", items.size(), cartId);
+
+        for (AddCartItemModel item : items) {
+            if (item.getProductType() == null) {
+                log.warn("Missing product type for cartId={}", cartId);
+                throw new IllegalArgumentException("Product type is required");
+            }
+            if (item.getQuantity() <= 0) {
+                log.warn("Invalid quantity {} for cartId={}", item.getQuantity(), cartId);
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+        }
+
+        ShoppingCart cart = shoppingCartRepository.findByIdWithItems(cartId)
+                .orElseThrow(() -> {
+                    log.warn("Cart with id {} not found", cartId);
+                    return new NotFoundException("Cart with id " + cartId + " not found");
+                });
+
+        checkVersion(cart, expectedVersion);
+
+        Map<ProductType, CartItem> lines = new EnumMap<>(ProductType.class);
+        for (CartItem existing : cart.getItems()) {
+            lines.putIfAbsent(existing.getProductType(), existing);
+        }
+
+        for (AddCartItemModel item : items) {
+            CartItem line = lines.get(item.getProductType());
+            if (line != null) {
+                line.setQuantity(line.getQuantity() + item.getQuantity());
+            } else {
+                line = new CartItem(item.getProductType(), item.getQuantity());
+                cart.getItems().add(line);
+                lines.put(item.getProductType(), line);
+            }
+        }
+
+        updateCartTotal(cart);
+
+        ShoppingCart saved = shoppingCartRepository.saveAndFlush(cart);
+
+        log.info("Items added to cartId={} lines={} total={}", cartId, saved.getItems().size(), saved.getTotalAmount());
+
+        return toModel(saved);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.update-item-quantity", histogram = true)
+    public ShoppingCartModel updateItemQuantity(Long cartId, Long itemId, int quantity, Long expectedVersion) {
 
         log.info("Updating item quantity cartId={} itemId={} quantity={}", cartId, itemId, quantity);
 
@@ -125,6 +218,8 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
                     return new NotFoundException("Cart with id " + cartId + " not found");
                 });
 
+        checkVersion(cart, expectedVersion);
+
         CartItem item = cart.getItems().stream()
                 .filter(i -> itemId.equals(i.getId()))
                 .findFirst()
@@ -139,7 +234,7 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
 
         updateCartTotal(cart);
 
-        ShoppingCart saved = shoppingCartRepository.save(cart);
+        ShoppingCart saved = shoppingCartRepository.saveAndFlush(cart);
 
         log.info("Updated item quantity cartId={} itemId={} total={}", cartId, itemId, saved.getTotalAmount());
 
@@ -149,7 +244,8 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
     @Override
     @Transactional
     @CachePut(value = "shoppingCarts", key = "#cartId")
-    public ShoppingCartModel removeItem(Long cartId, Long itemId) {
+    @Timed(value = "skycommerce.cart.remove-item", histogram = true)
+    public ShoppingCartModel removeItem(Long cartId, Long itemId, Long expectedVersion) {
 
         log.info("Removing item itemId={} from cartId={}", itemId, cartId);
 
@@ -159,6 +255,8 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
                     return new NotFoundException("Cart with id " + cartId + " not found");
                 });
 
+        checkVersion(cart, expectedVersion);
+
         boolean removed = cart.getItems().removeIf(i -> itemId.equals(i.getId()));
         if (!removed) {
             log.warn("Item with id {} not found in cart {}", itemId, cartId);
@@ -167,64 +265,124 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
 
         updateCartTotal(cart);
 
-        ShoppingCart saved = shoppingCartRepository.save(cart);
+        ShoppingCart saved = shoppingCartRepository.saveAndFlush(cart);
 
         log.info("Removed item itemId={} from cartId={} newTotal={}", itemId, cartId, saved.getTotalAmount());
 
         return toModel(saved);
     }
 
-    private void updateCartTotal(ShoppingCart cart) {
-        Client client = cart.getClient();
-        BigDecimal total = calculateTotal(client, cart.getItems());
-        cart.setTotalAmount(total);
+    private static void checkVersion(ShoppingCart cart, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(cart.getVersion())) {
+            log.warn("Version mismatch for cartId={} expected={} actual={}", cart.getId(), expectedVersion, cart.getVersion());
+            throw new PreconditionFailedException("Cart " + cart.getId() + " is at version " + cart.getVersion()
+                    + ", expected " + expectedVersion);
+        }
+    }
+
+    /**
+     * Caches a model read on a miss unless the cache already holds the cart at a later version.
+     * A mutation that committed while the read was in flight has put its result; the older content
+     * must not replace it, or its ETag would keep validating until the entry expires.
+     */
+    @SuppressWarnings("unchecked")
+    private static void cacheUnlessNewer(Cache cache, Long cartId, ShoppingCartModel model) {
+        Object nativeCache = cache.getNativeCache();
+        ConcurrentMap<Object, Object> entries = nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine
+                ? (ConcurrentMap<Object, Object>) caffeine.asMap()
+                : nativeCache instanceof ConcurrentMap<?, ?> map ? (ConcurrentMap<Object, Object>) map : null;
+        if (entries == null || model.getVersion() == null) {
+            cache.put(cartId, model);
+            return;
+        }
+        entries.merge(cartId, model, (current, candidate) -> isNewer(current, model) ? current : candidate);
+    }
+
+    private static boolean isNewer(Object cached, ShoppingCartModel model) {
+        return cached instanceof ShoppingCartModel current
+                && current.getVersion() != null
+                && current.getVersion() > model.getVersion();
+    }
+
+    private Timer getCartTimer(String cacheOutcome) {
+        return Timer.builder("skycommerce.cart.get")
+                .description("Cart reads, split by shoppingCarts cache outcome")
+                .tag("cache", cacheOutcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reprices every line at current prices, storing the result as the lines' price snapshots and
+     * the cart total.
+     */
+    protected void updateCartTotal(ShoppingCart cart) {
+        CartPricing pricing = priceCalculator.priceCart(cart.getClient(), cart.getItems());
+        pricing.applyTo(cart.getItems());
+        cart.setTotalAmount(pricing.getTotal());
 
-        log.debug("Updated cart total cartId={} total={}", cart.getId(), total);
+        log.debug("Updated cart total cartId={} total={}", cart.getId(), pricing.getTotal());
     }
 
     public BigDecimal calculateTotal(Client client, List<CartItem> items) {
-        BigDecimal total = items.stream()
-                .map(item -> {
-                    BigDecimal unitPrice = priceCalculator.getUnitPrice(client, item.getProductType());
-                    return unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal total = priceCalculator.priceCart(client, items).getTotal();
 
         log.debug("Calculated total for clientId={} itemsCount={} total={}", client.getId(), items.size(), total);
 
         return total;
     }
 
-    private List<CartItemModel> buildItemModels(Client client, List<CartItem> items) {
-        return items.stream()
-                .map(item -> {
-                    BigDecimal unitPrice = priceCalculator.getUnitPrice(client, item.getProductType());
-                    BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
-                    return CartItemModel.builder()
-                            .id(item.getId())
-                            .productType(item.getProductType())
-                            .quantity(item.getQuantity())
-                            .unitPrice(unitPrice)
-                            .lineTotal(lineTotal)
-                            .build();
-                })
-                .toList();
+    private List<CartItem> pricedCopies(Client client, List<CartItem> items) {
+        List<CartItem> copies = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            CartItem copy = new CartItem(item.getProductType(), item.getQuantity());
+            copy.setId(item.getId());
+            copies.add(copy);
+        }
+        priceCalculator.priceCart(client, copies).applyTo(copies);
+        return copies;
+    }
+
+    private static List<CartItemModel> buildItemModels(List<CartItem> items) {
+        List<CartItemModel> models = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            models.add(CartItemModel.builder()
+                    .id(item.getId())
+                    .productType(item.getProductType())
+                    .quantity(item.getQuantity())
+                    .unitPrice(item.getUnitPrice())
+                    .lineTotal(item.getLineTotal())
+                    .build());
+        }
+        return models;
     }
 
-    private ShoppingCartModel toModel(ShoppingCart cart) {
+    /**
+     * Assembles the model from the stored price snapshots. If lines written before snapshots
+     * existed are present, copies of the lines are priced instead; the snapshots are stored on the
+     * cart's next write or repricing run. The cart's lines are never modified, as they may be
+     * shared, e.g. with a published write-behind state.
+     */
+    protected ShoppingCartModel toModel(ShoppingCart cart) {
         Client client = cart.getClient();
-        List<CartItemModel> itemModels = buildItemModels(client, cart.getItems());
+        List<CartItem> items = cart.getItems();
+        if (!items.stream().allMatch(CartItem::isPriced)) {
+            log.debug("Pricing unpriced lines of cart id={} on read", cart.getId());
+            items = pricedCopies(client, items);
+        }
+
         BigDecimal total = cart.getTotalAmount() != null
                 ? cart.getTotalAmount()
-                : calculateTotal(client, cart.getItems());
+                : CartPricing.sumLineTotals(items);
 
         log.debug("Mapping cart id={} to model total={}", cart.getId(), total);
 
         return ShoppingCartModel.builder()
                 .id(cart.getId())
                 .clientId(client != null ? client.getId() : null)
-                .items(itemModels)
+                .items(buildItemModels(items))
                 .totalAmount(total)
+                .version(cart.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,89 @@
+package com.rvk.skycommerce.service;
+
+import com.rvk.skycommerce.model.TaggedModel;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@code clients} cache of tagged client models, kept consistent with concurrent updates.
+ * <p>
+ * An update puts its new model once its transaction has committed. A read that missed stores what
+ * it loaded only if no update was published for the key since the read began; otherwise it may
+ * hold content older than the update's, whose ETag would keep validating until the entry expires.
+ * Keys are spread over stripes with one generation counter each, which every published update
+ * bumps; an update of another key in the stripe only costs a read its put.
+ */
+@Component
+public class TaggedClientCache {
+
+    private static final int STRIPES = 64;
+
+    private final Cache cache;
+    private final Object[] locks = new Object[STRIPES];
+    // guarded by the stripe's lock
+    private final long[] generations = new long[STRIPES];
+
+    public TaggedClientCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache("clients");
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns the cached model, or loads it and caches it unless an update overtook the load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TaggedModel<T> get(String key, Supplier<TaggedModel<T>> loader) {
+        TaggedModel<T> cached = cache.get(key, TaggedModel.class);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(key);
+        long generation;
+        synchronized (locks[stripe]) {
+            generation = generations[stripe];
+        }
+        TaggedModel<T> loaded = loader.get();
+        synchronized (locks[stripe]) {
+            if (generations[stripe] == generation) {
+                cache.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Publishes {@code updated} for {@code key} once the current transaction commits, or at once
+     * outside a transaction. A rolled back update publishes nothing.
+     */
+    public void putAfterCommit(String key, TaggedModel<?> updated) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(key, updated);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(key, updated);
+            }
+        });
+    }
+
+    private void publish(String key, TaggedModel<?> updated) {
+        int stripe = stripe(key);
+        synchronized (locks[stripe]) {
+            generations[stripe]++;
+            cache.put(key, updated);
+        }
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,231 @@
+package com.rvk.skycommerce.service;
+
+import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository.CartTotals;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import com.rvk.skycommerce.service.pricing.CartPricing;
+import com.rvk.skycommerce.service.pricing.Money;
+import com.rvk.skycommerce.service.pricing.PriceCalculator;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cart service whose item mutations are a line upsert/update/delete plus a delta update of the
+ * stored total, instead of loading and flushing the whole aggregate. Reads and cart creation are
+ * inherited from {@link ShoppingCartServiceImpl}.
+ * <p>
+ * Only the changed line is repriced; it stores its new price snapshot, and the total moves by the
+ * difference between the line's old and new {@code line_total}. Other lines keep the prices they
+ * were written with. No row is locked up front: the version check rides on the total update, so a
+ * stale If-Match rolls back the line change made earlier in the same transaction.
+ */
+@Service
+@ConditionalOnProperty(name = "skycommerce.cart.write-mode", havingValue = "upsert")
+@Slf4j
+public class UpsertShoppingCartServiceImpl extends ShoppingCartServiceImpl {
+
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    private final PriceCalculator priceCalculator;
+
+    public UpsertShoppingCartServiceImpl(ShoppingCartRepository shoppingCartRepository,
+                                         ShoppingCartJdbcRepository shoppingCartJdbcRepository,
+                                         ClientRepository clientRepository,
+                                         PriceCalculator priceCalculator,
+                                         CacheManager cacheManager,
+                                         MeterRegistry meterRegistry) {
+        super(shoppingCartRepository, shoppingCartJdbcRepository, clientRepository, priceCalculator,
+                cacheManager, meterRegistry);
+        this.shoppingCartJdbcRepository = shoppingCartJdbcRepository;
+        this.priceCalculator = priceCalculator;
+    }
+
+    @Override
+    @Transactional
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.add-item", histogram = true)
+    public ShoppingCartModel addItem(Long cartId, ProductType productType, int quantity, Long expectedVersion) {
+
+        log.info("Upserting item cartId={} productType={} quantity={}", cartId, productType, quantity);
+
+        if (quantity <= 0) {
+            log.warn("Invalid quantity {} for cartId={}", quantity, cartId);
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        Client client = findCartClient(cartId);
+        long unitPrice = Money.toMinor(priceCalculator.getUnitPrice(client, productType));
+        long delta = mergeLine(cartId, client, productType, quantity, unitPrice);
+        CartTotals totals = addToTotal(cartId, delta, expectedVersion);
+
+        log.info("Item upserted cartId={} total={}", cartId, totals.totalAmount());
+
+        return toModel(cartId, client, totals);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.add-items", histogram = true)
+    public ShoppingCartModel addItems(Long cartId, List<AddCartItemModel> items, Long expectedVersion) {
+
+        log.info("Upserting {} items into cartId={}", items.size(), cartId);
+
+        Map<ProductType, Integer> quantities = new EnumMap<>(ProductType.class);
+        for (AddCartItemModel item : items) {
+            if (item.getProductType() == null) {
+                log.warn("Missing product type for cartId={}", cartId);
+                throw new IllegalArgumentException("Product type is required");
+            }
+            if (item.getQuantity() <= 0) {
+                log.warn("Invalid quantity {} for cartId={}", item.getQuantity(), cartId);
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            quantities.merge(item.getProductType(), item.getQuantity(), Integer::sum);
+        }
+
+        Client client = findCartClient(cartId);
+        List<CartItem> added = new ArrayList<>(quantities.size());
+        quantities.forEach((productType, quantity) -> added.add(new CartItem(productType, quantity)));
+        CartPricing pricing = priceCalculator.priceCart(client, added);
+
+        long delta = 0;
+        for (int i = 0; i < added.size(); i++) {
+            CartItem line = added.get(i);
+            delta = Money.plus(delta, mergeLine(cartId, client, line.getProductType(), line.getQuantity(),
+                    pricing.getUnitPriceMinor(i)));
+        }
+        CartTotals totals = addToTotal(cartId, delta, expectedVersion);
+
+        log.info("Items upserted cartId={} lines={} total={}", cartId, quantities.size(), totals.totalAmount());
+
+        return toModel(cartId, client, totals);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.update-item-quantity", histogram = true)
+    public ShoppingCartModel updateItemQuantity(Long cartId, Long itemId, int quantity, Long expectedVersion) {
+
+        log.info("Setting item quantity cartId={} itemId={} quantity={}", cartId, itemId, quantity);
+
+        if (quantity <= 0) {
+            log.warn("Invalid quantity {} for cartId={} itemId={}", quantity, cartId, itemId);
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        Client client = findCartClient(cartId);
+        CartItem previous = shoppingCartJdbcRepository.setItemQuantity(cartId, itemId, quantity)
+                .orElseThrow(() -> itemNotFound(cartId, itemId));
+
+        long unitPrice = Money.toMinor(priceCalculator.getUnitPrice(client, previous.getProductType()));
+        CartItem line = new CartItem(previous.getProductType(), quantity);
+        line.setId(itemId);
+        line.setUnitPrice(Money.toBigDecimal(unitPrice));
+        line.setLineTotal(Money.toBigDecimal(Money.times(unitPrice, quantity)));
+        shoppingCartJdbcRepository.updateItemPrices(List.of(line));
+
+        long delta = Money.minus(Money.times(unitPrice, quantity), previousLineTotal(client, previous));
+        CartTotals totals = addToTotal(cartId, delta, expectedVersion);
+
+        log.info("Updated item quantity cartId={} itemId={} total={}", cartId, itemId, totals.totalAmount());
+
+        return toModel(cartId, client, totals);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.remove-item", histogram = true)
+    public ShoppingCartModel removeItem(Long cartId, Long itemId, Long expectedVersion) {
+
+        log.info("Deleting item itemId={} from cartId={}", itemId, cartId);
+
+        Client client = findCartClient(cartId);
+        CartItem removed = shoppingCartJdbcRepository.deleteItem(cartId, itemId)
+                .orElseThrow(() -> itemNotFound(cartId, itemId));
+
+        long delta = Money.minus(0, previousLineTotal(client, removed));
+        CartTotals totals = addToTotal(cartId, delta, expectedVersion);
+
+        log.info("Removed item itemId={} from cartId={} newTotal={}", itemId, cartId, totals.totalAmount());
+
+        return toModel(cartId, client, totals);
+    }
+
+    private Client findCartClient(Long cartId) {
+        return shoppingCartJdbcRepository.findCartClient(cartId)
+                .orElseThrow(() -> {
+                    log.warn("Cart with id {} not found", cartId);
+                    return new NotFoundException("Cart with id " + cartId + " not found");
+                });
+    }
+
+    /**
+     * Upserts the product's line at {@code unitPrice} and returns how much its line total grew.
+     */
+    private long mergeLine(Long cartId, Client client, ProductType productType, int quantity, long unitPrice) {
+        CartItem previous = shoppingCartJdbcRepository
+                .mergePricedItem(cartId, productType, quantity, Money.toBigDecimal(unitPrice))
+                .orElse(null);
+        if (previous == null) {
+            return Money.times(unitPrice, quantity);
+        }
+        long lineTotal = Money.times(unitPrice, previous.getQuantity() + quantity);
+        return Money.minus(lineTotal, previousLineTotal(client, previous));
+    }
+
+    /**
+     * The line total a line contributed to the stored total. Lines stored before price snapshots
+     * existed have none recorded and are taken at the current price.
+     */
+    private long previousLineTotal(Client client, CartItem previous) {
+        if (previous.isPriced()) {
+            return Money.toMinor(previous.getLineTotal());
+        }
+        long unitPrice = Money.toMinor(priceCalculator.getUnitPrice(client, previous.getProductType()));
+        return Money.times(unitPrice, previous.getQuantity());
+    }
+
+    private CartTotals addToTotal(Long cartId, long delta, Long expectedVersion) {
+        return shoppingCartJdbcRepository.addToTotal(cartId, Money.toBigDecimal(delta), expectedVersion)
+                .orElseThrow(() -> {
+                    log.warn("Version mismatch for cartId={} expected={}", cartId, expectedVersion);
+                    return new PreconditionFailedException("Cart " + cartId + " is not at version " + expectedVersion);
+                });
+    }
+
+    private static NotFoundException itemNotFound(Long cartId, Long itemId) {
+        log.warn("Item with id {} not found in cart {}", itemId, cartId);
+        return new NotFoundException("Item with id " + itemId + " not found in cart " + cartId);
+    }
+
+    private ShoppingCartModel toModel(Long cartId, Client client, CartTotals totals) {
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setId(cartId);
+        cart.setItems(shoppingCartJdbcRepository.findItems(cartId));
+        cart.setTotalAmount(totals.totalAmount());
+        cart.setVersion(totals.version());
+        return toModel(cart);
+    }
+}
@@ -0,0 +1,272 @@
+package com.rvk.skycommerce.service;
+
+import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.service.pricing.CartPricing;
+import com.rvk.skycommerce.service.pricing.PriceCalculator;
+import com.rvk.skycommerce.service.writebehind.CartState;
+import com.rvk.skycommerce.service.writebehind.WriteBehindCartStore;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Cart service whose item mutations only update the {@link WriteBehindCartStore}; the database
+ * catches up on the store's next flush. Cart creation is inherited from
+ * {@link ShoppingCartServiceImpl} and stays synchronous.
+ * <p>
+ * Reads prefer the store, since the database may lag behind it. Only the changed lines are
+ * repriced, as in {@link UpsertShoppingCartServiceImpl}.
+ * <p>
+ * Mutations run outside any transaction: a new line's insert commits on its own before the state
+ * carrying its id is published, where the flusher and other readers can see it.
+ */
+@Service
+@ConditionalOnProperty(name = "skycommerce.cart.write-mode", havingValue = "write-behind")
+@Slf4j
+public class WriteBehindShoppingCartServiceImpl extends ShoppingCartServiceImpl {
+
+    private final WriteBehindCartStore cartStore;
+    private final PriceCalculator priceCalculator;
+
+    public WriteBehindShoppingCartServiceImpl(ShoppingCartRepository shoppingCartRepository,
+                                              ShoppingCartJdbcRepository shoppingCartJdbcRepository,
+                                              ClientRepository clientRepository,
+                                              PriceCalculator priceCalculator,
+                                              CacheManager cacheManager,
+                                              MeterRegistry meterRegistry,
+                                              WriteBehindCartStore cartStore) {
+        super(shoppingCartRepository, shoppingCartJdbcRepository, clientRepository, priceCalculator,
+                cacheManager, meterRegistry);
+        this.cartStore = cartStore;
+        this.priceCalculator = priceCalculator;
+    }
+
+    @Override
+    public ShoppingCartModel getCart(Long cartId) {
+        return cartStore.find(cartId)
+                .map(state -> toModel(state.toCart()))
+                .orElseGet(() -> super.getCart(cartId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.add-item", histogram = true)
+    public ShoppingCartModel addItem(Long cartId, ProductType productType, int quantity, Long expectedVersion) {
+
+        log.info("Adding item write-behind cartId={} productType={} quantity={}", cartId, productType, quantity);
+
+        if (quantity <= 0) {
+            log.warn("Invalid quantity {} for cartId={}", quantity, cartId);
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        CartState state = cartStore.mutate(cartId, current -> {
+            checkVersion(current, expectedVersion);
+            Lines lines = new Lines(current);
+            lines.add(productType, quantity);
+            return next(current, lines, item -> item.getProductType() == productType);
+        });
+
+        log.info("Item added write-behind cartId={} total={}", cartId, state.totalAmount());
+
+        return toModel(state.toCart());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.add-items", histogram = true)
+    public ShoppingCartModel addItems(Long cartId, List<AddCartItemModel> items, Long expectedVersion) {
+
+        log.info("Adding {} items write-behind to cartId={}", items.size(), cartId);
+
+        Map<ProductType, Integer> quantities = new EnumMap<>(ProductType.class);
+        for (AddCartItemModel item : items) {
+            if (item.getProductType() == null) {
+                log.warn("Missing product type for cartId={}", cartId);
+                throw new IllegalArgumentException("Product type is required");
+            }
+            if (item.getQuantity() <= 0) {
+                log.warn("Invalid quantity {} for cartId={}", item.getQuantity(), cartId);
+                throw new IllegalArgumentException("Quantity must be positive");
+            }
+            quantities.merge(item.getProductType(), item.getQuantity(), Integer::sum);
+        }
+
+        CartState state = cartStore.mutate(cartId, current -> {
+            checkVersion(current, expectedVersion);
+            Lines lines = new Lines(current);
+            quantities.forEach(lines::add);
+            return next(current, lines, item -> quantities.containsKey(item.getProductType()));
+        });
+
+        log.info("Items added write-behind cartId={} lines={} total={}", cartId, quantities.size(), state.totalAmount());
+
+        return toModel(state.toCart());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.update-item-quantity", histogram = true)
+    public ShoppingCartModel updateItemQuantity(Long cartId, Long itemId, int quantity, Long expectedVersion) {
+
+        log.info("Setting item quantity write-behind cartId={} itemId={} quantity={}", cartId, itemId, quantity);
+
+        if (quantity <= 0) {
+            log.warn("Invalid quantity {} for cartId={} itemId={}", quantity, cartId, itemId);
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+
+        CartState state = cartStore.mutate(cartId, current -> {
+            checkVersion(current, expectedVersion);
+            Lines lines = new Lines(current);
+            lines.setQuantity(itemId, quantity);
+            return next(current, lines, item -> itemId.equals(item.getId()));
+        });
+
+        log.info("Updated item quantity write-behind cartId={} itemId={} total={}", cartId, itemId, state.totalAmount());
+
+        return toModel(state.toCart());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CachePut(value = "shoppingCarts", key = "#cartId")
+    @Timed(value = "skycommerce.cart.remove-item", histogram = true)
+    public ShoppingCartModel removeItem(Long cartId, Long itemId, Long expectedVersion) {
+
+        log.info("Removing item write-behind itemId={} from cartId={}", itemId, cartId);
+
+        CartState state = cartStore.mutate(cartId, current -> {
+            checkVersion(current, expectedVersion);
+            Lines lines = new Lines(current);
+            lines.remove(itemId);
+            return next(current, lines, item -> false);
+        });
+
+        log.info("Removed item write-behind itemId={} from cartId={} newTotal={}", itemId, cartId, state.totalAmount());
+
+        return toModel(state.toCart());
+    }
+
+    private static void checkVersion(CartState state, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != state.version()) {
+            log.warn("Version mismatch for cartId={} expected={} actual={}", state.cartId(), expectedVersion, state.version());
+            throw new PreconditionFailedException("Cart " + state.cartId() + " is at version " + state.version()
+                    + ", expected " + expectedVersion);
+        }
+    }
+
+    /**
+     * Reprices the changed lines, and any stored before price snapshots existed, and builds the
+     * next state with the sum of the line totals and the next version.
+     */
+    private CartState next(CartState current, Lines lines, Predicate<CartItem> changed) {
+        List<CartItem> repriced = new ArrayList<>();
+        for (int i = 0; i < lines.items.size(); i++) {
+            CartItem item = lines.items.get(i);
+            if (!item.isPriced() || changed.test(item)) {
+                CartItem copy = Lines.copy(item, item.getQuantity());
+                lines.items.set(i, copy);
+                repriced.add(copy);
+            }
+        }
+        if (!repriced.isEmpty()) {
+            priceCalculator.priceCart(current.client(), repriced).applyTo(repriced);
+        }
+
+        BigDecimal total = CartPricing.sumLineTotals(lines.items);
+        return new CartState(current.cartId(), current.client(), current.version() + 1, total,
+                lines.items, lines.removed);
+    }
+
+    /**
+     * Working copy of a state's lines. Lines of the published state are never modified; a change
+     * replaces the line with a copy.
+     */
+    private static final class Lines {
+
+        private final long cartId;
+        private final List<CartItem> items;
+        private final List<CartItem> removed;
+
+        private Lines(CartState state) {
+            this.cartId = state.cartId();
+            this.items = new ArrayList<>(state.items());
+            this.removed = new ArrayList<>(state.removed());
+        }
+
+        /**
+         * Adds to the product's line; a line removed since the last flush comes back under its
+         * id, and only a product the cart never had gets a new line.
+         */
+        private void add(ProductType productType, int quantity) {
+            for (int i = 0; i < items.size(); i++) {
+                CartItem item = items.get(i);
+                if (item.getProductType() == productType) {
+                    items.set(i, copy(item, item.getQuantity() + quantity));
+                    return;
+                }
+            }
+            for (int i = 0; i < removed.size(); i++) {
+                CartItem item = removed.get(i);
+                if (item.getProductType() == productType) {
+                    removed.remove(i);
+                    items.add(copy(item, quantity));
+                    return;
+                }
+            }
+            items.add(new CartItem(productType, quantity));
+        }
+
+        private void setQuantity(Long itemId, int quantity) {
+            int index = indexOf(itemId);
+            items.set(index, copy(items.get(index), quantity));
+        }
+
+        private void remove(Long itemId) {
+            removed.add(items.remove(indexOf(itemId)));
+        }
+
+        private int indexOf(Long itemId) {
+            for (int i = 0; i < items.size(); i++) {
+                if (itemId.equals(items.get(i).getId())) {
+                    return i;
+                }
+            }
+            log.warn("Item with id {} not found in cart {}", itemId, cartId);
+            throw new NotFoundException("Item with id " + itemId + " not found in cart " + cartId);
+        }
+
+        private static CartItem copy(CartItem item, int quantity) {
+            CartItem copy = new CartItem(item.getProductType(), quantity);
+            copy.setId(item.getId());
+            copy.setUnitPrice(item.getUnitPrice());
+            copy.setLineTotal(item.getLineTotal());
+            return copy;
+        }
+    }
+}
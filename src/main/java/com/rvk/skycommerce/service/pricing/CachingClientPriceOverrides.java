@@ -0,0 +1,47 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.repository.ClientPriceOverrideJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves client price books from a bounded Caffeine cache in front of
+ * {@code client_price_overrides}.
+ * <p>
+ * A miss costs one primary-key query for the client. Clients without overrides cache the shared
+ * {@link ClientPriceBook#EMPTY}, so they do not query again until the entry expires. Override
+ * changes become visible within {@code skycommerce.cache.client-price-overrides.ttl}.
+ */
+@Service
+@Slf4j
+public class CachingClientPriceOverrides implements ClientPriceOverrides {
+
+    private final LoadingCache<String, ClientPriceBook> priceBooks;
+
+    public CachingClientPriceOverrides(ClientPriceOverrideJdbcRepository repository,
+                                       CacheProperties cacheProperties,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        CacheProperties.CacheSpec spec = cacheProperties.getClientPriceOverrides();
+        this.priceBooks = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getTtl())
+                .maximumSize(spec.getMaxSize())
+                .recordStats()
+                .build(clientId -> {
+                    log.debug("Loading price overrides for clientId={}", clientId);
+                    return ClientPriceBook.of(repository.findClientOverrides(clientId));
+                });
+        meterRegistry.ifAvailable(registry ->
+                CaffeineCacheMetrics.monitor(registry, priceBooks, "clientPriceOverrides"));
+    }
+
+    @Override
+    public ClientPriceBook priceBookFor(String clientId) {
+        return priceBooks.get(clientId);
+    }
+}
@@ -0,0 +1,75 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.repository.entity.CartItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Result of pricing a whole cart in one call. Lines are aligned by index with the items that were
+ * priced.
+ * <p>
+ * Amounts are kept in {@link Money} minor units; the {@code BigDecimal} accessors convert on
+ * demand for storage and responses.
+ */
+public final class CartPricing {
+
+    private final long[] unitPrices;
+    private final long[] lineTotals;
+    private final long total;
+
+    public CartPricing(long[] unitPrices, long[] lineTotals, long total) {
+        this.unitPrices = unitPrices;
+        this.lineTotals = lineTotals;
+        this.total = total;
+    }
+
+    public int size() {
+        return unitPrices.length;
+    }
+
+    public long getUnitPriceMinor(int line) {
+        return unitPrices[line];
+    }
+
+    public long getLineTotalMinor(int line) {
+        return lineTotals[line];
+    }
+
+    public long getTotalMinor() {
+        return total;
+    }
+
+    public BigDecimal getUnitPrice(int line) {
+        return Money.toBigDecimal(unitPrices[line]);
+    }
+
+    public BigDecimal getLineTotal(int line) {
+        return Money.toBigDecimal(lineTotals[line]);
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toBigDecimal(total);
+    }
+
+    /**
+     * Sums the stored line totals of priced items in minor units.
+     */
+    public static BigDecimal sumLineTotals(List<CartItem> items) {
+        long total = 0;
+        for (CartItem item : items) {
+            total = Money.plus(total, Money.toMinor(item.getLineTotal()));
+        }
+        return Money.toBigDecimal(total);
+    }
+
+    /**
+     * Stores the line prices on the items they were computed for, as their price snapshots.
+     */
+    public void applyTo(List<CartItem> items) {
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setUnitPrice(getUnitPrice(i));
+            items.get(i).setLineTotal(getLineTotal(i));
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.config.RepricingProperties;
+import com.rvk.skycommerce.exception.ConflictException;
+import com.rvk.skycommerce.repository.RepricingCheckpointJdbcRepository;
+import com.rvk.skycommerce.repository.RepricingCheckpointJdbcRepository.Checkpoint;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository.CartSnapshot;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recomputes stored cart totals with the current {@link PriceCalculator}, e.g. after the price
+ * list changed.
+ * <p>
+ * One coordinator thread streams carts in id order through a JDBC cursor and cuts them into
+ * chunks. A fixed pool of workers prices each chunk and writes the changed totals and line price
+ * snapshots back as JDBC batches, guarded by the version each total was computed from. Carts a
+ * concurrent mutation changed in between are re-read and repriced; those still changing after a
+ * few attempts are reported as conflicts. The scan pauses while too many chunks are in flight.
+ * <p>
+ * Chunks finish out of order, so progress is reported as a checkpoint: the highest cart id below
+ * which every chunk is done. A run that failed or was stopped by shutdown resumes from it.
+ * <p>
+ * The checkpoint and the run's state are kept in {@code repricing_checkpoint}, so they survive a
+ * restart. The checkpoint is written after the chunks it covers have committed; a crash in between
+ * only means some chunks are repriced again, which finds them unchanged.
+ */
+@Service
+@Slf4j
+public class CartRepricingJob {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    private final StoredCartPricer storedCartPricer;
+    private final CacheManager cacheManager;
+    private final RepricingProperties properties;
+    private final RepricingCheckpointJdbcRepository checkpoints;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate scanTransaction;
+
+    private volatile Run current;
+
+    public CartRepricingJob(ShoppingCartJdbcRepository shoppingCartJdbcRepository,
+                            StoredCartPricer storedCartPricer,
+                            CacheManager cacheManager,
+                            RepricingProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            RepricingCheckpointJdbcRepository checkpoints) {
+        this.shoppingCartJdbcRepository = shoppingCartJdbcRepository;
+        this.storedCartPricer = storedCartPricer;
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+        this.checkpoints = checkpoints;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.scanTransaction = new TransactionTemplate(transactionManager);
+        this.scanTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Starts a run in the background over carts with an id above {@code afterCartId}.
+     *
+     * @throws ConflictException if a run is already in progress
+     */
+    public synchronized RepricingStatus start(long afterCartId) {
+        Run running = current;
+        if (running != null && running.state == RepricingStatus.State.RUNNING) {
+            throw new ConflictException("Repricing is already running since " + running.startedAt);
+        }
+
+        Run run = new Run(afterCartId);
+        checkpoints.startRun(afterCartId, run.state.name());
+        current = run;
+        Thread.ofPlatform()
+                .name("cart-repricing")
+                .daemon()
+                .start(() -> execute(run));
+        log.info("Started cart repricing afterCartId={}", afterCartId);
+        return run.status();
+    }
+
+    /**
+     * Progress of the run in this process, or else the last run recorded in the database. A run
+     * recorded as running whose process has gone is reported as failed.
+     */
+    public RepricingStatus status() {
+        Run run = current;
+        if (run != null) {
+            return run.status();
+        }
+        return checkpoints.find()
+                .map(CartRepricingJob::recordedStatus)
+                .orElseGet(() -> RepricingStatus.builder().state(RepricingStatus.State.IDLE).build());
+    }
+
+    private static RepricingStatus recordedStatus(Checkpoint checkpoint) {
+        RepricingStatus.State state = RepricingStatus.State.valueOf(checkpoint.state());
+        boolean interrupted = state == RepricingStatus.State.RUNNING;
+        return RepricingStatus.builder()
+                .state(interrupted ? RepricingStatus.State.FAILED : state)
+                .startAfterCartId(checkpoint.startAfterCartId())
+                .checkpointCartId(checkpoint.checkpointCartId())
+                .finishedAt(checkpoint.updatedAt())
+                .error(interrupted ? "Interrupted by a restart" : null)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Run run = current;
+        if (run != null && run.state == RepricingStatus.State.RUNNING) {
+            run.fail(new IllegalStateException("Stopped by shutdown"));
+        }
+    }
+
+    private void execute(Run run) {
+        int workers = properties.getWorkers();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> Thread.ofPlatform()
+                .name("cart-repricing-worker-" + threadNumber.incrementAndGet())
+                .daemon()
+                .unstarted(runnable));
+        Semaphore inFlight = new Semaphore(workers * 2);
+
+        try {
+            List<CartSnapshot> chunk = new ArrayList<>(properties.getChunkSize());
+            long[] sequence = {0};
+            scanTransaction.executeWithoutResult(status -> shoppingCartJdbcRepository.scanCarts(run.startAfterCartId, cart -> {
+                if (run.error != null) {
+                    throw new ScanAborted();
+                }
+                chunk.add(cart);
+                if (chunk.size() == properties.getChunkSize()) {
+                    submit(pool, inFlight, run, sequence[0]++, List.copyOf(chunk));
+                    chunk.clear();
+                }
+            }));
+            if (!chunk.isEmpty()) {
+                submit(pool, inFlight, run, sequence[0], List.copyOf(chunk));
+            }
+        } catch (ScanAborted e) {
+            log.warn("Cart repricing scan aborted after a failure");
+        } catch (RuntimeException e) {
+            run.fail(e);
+        } finally {
+            pool.shutdown();
+            awaitTermination(pool);
+            run.finish();
+            recordState(run);
+            log.info("Finished cart repricing {}", run.status());
+        }
+    }
+
+    private void submit(ExecutorService pool, Semaphore inFlight, Run run, long sequence, List<CartSnapshot> chunk) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for repricing workers", e);
+        }
+        pool.execute(() -> {
+            try {
+                if (run.error == null) {
+                    repriceChunk(run, chunk);
+                    if (run.chunkDone(sequence, chunk.getLast().id())) {
+                        checkpoints.advance(run.checkpointCartId);
+                    }
+                }
+            } catch (RuntimeException e) {
+                run.fail(e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Reprices the chunk and writes the carts that changed. Carts modified since they were read
+     * are re-read and repriced, up to {@link #MAX_ATTEMPTS} writes in all: a write-behind
+     * mutation only reprices the lines it touches, so a cart left to it would keep old prices on
+     * the others.
+     */
+    private void repriceChunk(Run run, List<CartSnapshot> chunk) {
+        long fromCartId = chunk.getFirst().id();
+        long toCartId = chunk.getLast().id();
+        Map<Long, List<CartItem>> items = shoppingCartJdbcRepository.findItemsInRange(fromCartId, toCartId);
+
+        List<CartSnapshot> changed = storedCartPricer.reprice(chunk, items);
+
+        run.scanned.addAndGet(chunk.size());
+        run.unchanged.addAndGet(chunk.size() - changed.size());
+
+        Cache cache = cacheManager.getCache("shoppingCarts");
+        for (int attempt = 1; !changed.isEmpty(); attempt++) {
+            List<CartSnapshot> written = storedCartPricer.write(changed, items, writeTransaction);
+            written.forEach(cart -> cache.evict(cart.id()));
+            run.repriced.addAndGet(written.size());
+            if (written.size() == changed.size()) {
+                return;
+            }
+
+            Set<Long> conflicted = new HashSet<>();
+            changed.forEach(cart -> conflicted.add(cart.id()));
+            written.forEach(cart -> conflicted.remove(cart.id()));
+            if (attempt == MAX_ATTEMPTS) {
+                run.conflicts.addAndGet(conflicted.size());
+                log.warn("Cart repricing gave up on {} carts between {} and {} after {} concurrent updates",
+                        conflicted.size(), fromCartId, toCartId, MAX_ATTEMPTS);
+                return;
+            }
+
+            List<CartSnapshot> reread = shoppingCartJdbcRepository.findCartsInRange(fromCartId, toCartId).stream()
+                    .filter(cart -> conflicted.contains(cart.id()))
+                    .toList();
+            items = shoppingCartJdbcRepository.findItemsInRange(fromCartId, toCartId);
+            changed = storedCartPricer.reprice(reread, items);
+            run.unchanged.addAndGet(reread.size() - changed.size());
+        }
+    }
+
+    private void recordState(Run run) {
+        try {
+            checkpoints.setState(run.state.name());
+        } catch (RuntimeException e) {
+            log.error("Cannot record cart repricing state {}", run.state, e);
+        }
+    }
+
+    private static void awaitTermination(ExecutorService pool) {
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.HOURS)) {
+                log.warn("Cart repricing workers did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class ScanAborted extends RuntimeException {
+        ScanAborted() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Run {
+
+        private final long startAfterCartId;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong repriced = new AtomicLong();
+        private final AtomicLong unchanged = new AtomicLong();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final Map<Long, Long> doneAhead = new HashMap<>();
+
+        private volatile RepricingStatus.State state = RepricingStatus.State.RUNNING;
+        private volatile long checkpointCartId;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private long nextSequence;
+
+        Run(long startAfterCartId) {
+            this.startAfterCartId = startAfterCartId;
+            this.checkpointCartId = startAfterCartId;
+        }
+
+        /**
+         * Returns whether the checkpoint moved.
+         */
+        synchronized boolean chunkDone(long sequence, long lastCartId) {
+            doneAhead.put(sequence, lastCartId);
+            boolean advanced = false;
+            Long last;
+            while ((last = doneAhead.remove(nextSequence)) != null) {
+                checkpointCartId = last;
+                nextSequence++;
+                advanced = true;
+            }
+            return advanced;
+        }
+
+        synchronized void fail(Exception e) {
+            if (error == null) {
+                log.error("Cart repricing failed at checkpoint {}: {}", checkpointCartId, e.getMessage(), e);
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+        }
+
+        void finish() {
+            finishedAt = Instant.now();
+            state = error == null ? RepricingStatus.State.COMPLETED : RepricingStatus.State.FAILED;
+        }
+
+        RepricingStatus status() {
+            return RepricingStatus.builder()
+                    .state(state)
+                    .startAfterCartId(startAfterCartId)
+                    .checkpointCartId(checkpointCartId)
+                    .scanned(scanned.get())
+                    .repriced(repriced.get())
+                    .unchanged(unchanged.get())
+                    .conflicts(conflicts.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository.CartSnapshot;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.service.ClientRevenueChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recomputes the stored totals of one client's carts after its revenue changed, instead of
+ * leaving them (and their cached responses) at the old tier's prices.
+ * <p>
+ * Runs after the client update has committed, so the new revenue is visible. Totals and line
+ * prices are written as version-guarded batches; carts changed concurrently are re-read and retried. Only carts
+ * whose prices actually moved are written, so a revenue change within the same tier costs two
+ * indexed reads.
+ * <p>
+ * The client update has committed by the time this runs, so a failure is logged and counted in
+ * {@code skycommerce.cart.client-repricing.failures} rather than failing the request; the carts
+ * keep their old prices until the next repricing run.
+ */
+@Component
+@Slf4j
+public class ClientCartRepricer {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    private final StoredCartPricer storedCartPricer;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter failures;
+
+    public ClientCartRepricer(ShoppingCartJdbcRepository shoppingCartJdbcRepository,
+                              StoredCartPricer storedCartPricer,
+                              CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.shoppingCartJdbcRepository = shoppingCartJdbcRepository;
+        this.storedCartPricer = storedCartPricer;
+        this.cacheManager = cacheManager;
+        // The publishing transaction has already committed; writes need a transaction of their own.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.failures = Counter.builder("skycommerce.cart.client-repricing.failures")
+                .description("Revenue changes whose carts could not be repriced")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRevenueChanged(ClientRevenueChangedEvent event) {
+        log.info("Repricing carts of client={} after revenue change {} -> {}",
+                event.clientId(), event.previousRevenue(), event.annualRevenue());
+        try {
+            repriceClientCarts(event.clientId());
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.error("Repricing carts of client={} failed, they keep their old prices: {}",
+                    event.clientId(), ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Returns the number of carts whose prices were changed. Carts still changing concurrently
+     * after {@link #MAX_ATTEMPTS} attempts are left at their old prices and evicted from the cache.
+     */
+    public int repriceClientCarts(String clientId) {
+        Cache cache = cacheManager.getCache("shoppingCarts");
+        int repriced = 0;
+        Set<Long> conflicted = new HashSet<>();
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            List<CartSnapshot> carts = shoppingCartJdbcRepository.findClientCarts(clientId);
+            Map<Long, List<CartItem>> items = shoppingCartJdbcRepository.findClientItems(clientId);
+
+            List<CartSnapshot> changed = storedCartPricer.reprice(carts, items);
+            conflicted.clear();
+            if (changed.isEmpty()) {
+                break;
+            }
+
+            List<CartSnapshot> written = storedCartPricer.write(changed, items, transactionTemplate);
+            written.forEach(cart -> cache.evict(cart.id()));
+            repriced += written.size();
+            changed.forEach(cart -> conflicted.add(cart.id()));
+            written.forEach(cart -> conflicted.remove(cart.id()));
+            if (conflicted.isEmpty()) {
+                break;
+            }
+            log.debug("Repricing carts of client={} hit {} concurrent updates, attempt {}", clientId, conflicted.size(), attempt);
+        }
+
+        if (!conflicted.isEmpty()) {
+            log.warn("Repricing carts of client={} gave up on {} carts after {} concurrent updates",
+                    clientId, conflicted.size(), MAX_ATTEMPTS);
+            conflicted.forEach(cache::evict);
+        }
+
+        log.debug("Repriced {} carts of client={}", repriced, clientId);
+        return repriced;
+    }
+}
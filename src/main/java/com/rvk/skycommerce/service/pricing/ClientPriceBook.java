@@ -0,0 +1,74 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.model.ProductType;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * One client's negotiated prices in {@link Money} minor units, indexed by
+ * {@link ProductType#ordinal()}. Products without an override are {@link PriceTable#NO_PRICE}.
+ */
+public final class ClientPriceBook {
+
+    /**
+     * Shared by every client without overrides, which is most of them.
+     */
+    public static final ClientPriceBook EMPTY = new ClientPriceBook(null);
+
+    // null for EMPTY, so the common case skips the per-product checks
+    private final long[] minorPrices;
+
+    private ClientPriceBook(long[] minorPrices) {
+        this.minorPrices = minorPrices;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a price is negative or has more than {@link Money#SCALE} decimals
+     */
+    public static ClientPriceBook of(Map<ProductType, BigDecimal> prices) {
+        if (prices.isEmpty()) {
+            return EMPTY;
+        }
+        long[] minorPrices = new long[ProductType.values().length];
+        Arrays.fill(minorPrices, PriceTable.NO_PRICE);
+        prices.forEach((productType, price) -> {
+            if (price.signum() < 0) {
+                throw new IllegalArgumentException("Negative override price " + price + " for " + productType);
+            }
+            try {
+                minorPrices[productType.ordinal()] = Money.toMinor(price);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Override price for " + productType
+                        + " must have at most " + Money.SCALE + " decimal places: " + price);
+            }
+        });
+        return new ClientPriceBook(minorPrices);
+    }
+
+    public boolean isEmpty() {
+        return minorPrices == null;
+    }
+
+    /**
+     * Returns the negotiated price in minor units, or {@link PriceTable#NO_PRICE}.
+     */
+    public long minorPrice(ProductType productType) {
+        return minorPrices != null ? minorPrices[productType.ordinal()] : PriceTable.NO_PRICE;
+    }
+
+    /**
+     * Replaces the entries of a {@link PriceTable#minorPricesFor} array that this book overrides.
+     */
+    public void applyTo(long[] prices) {
+        if (minorPrices == null) {
+            return;
+        }
+        for (int i = 0; i < prices.length; i++) {
+            if (minorPrices[i] != PriceTable.NO_PRICE) {
+                prices[i] = minorPrices[i];
+            }
+        }
+    }
+}
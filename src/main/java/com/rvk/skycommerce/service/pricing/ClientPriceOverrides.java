@@ -0,0 +1,18 @@
+package com.rvk.skycommerce.service.pricing;
+
+/**
+ * Source of per-client negotiated prices, consulted by {@link TablePriceCalculator} before the
+ * revenue tiers.
+ */
+public interface ClientPriceOverrides {
+
+    /**
+     * No client has overrides; used where no database is available, e.g. benchmarks.
+     */
+    ClientPriceOverrides NONE = clientId -> ClientPriceBook.EMPTY;
+
+    /**
+     * Returns the client's price book, {@link ClientPriceBook#EMPTY} when it has no overrides.
+     */
+    ClientPriceBook priceBookFor(String clientId);
+}
@@ -3,106 +3,89 @@ package com.rvk.skycommerce.service.pricing;
 import com.rvk.skycommerce.exception.NotFoundException;
 import com.rvk.skycommerce.model.ClientType;
 import com.rvk.skycommerce.model.ProductType;
-import com.rvk.skycommerce.repository.entity.Client;
-import com.rvk.skycommerce.repository.entity.IndividualClient;
 import com.rvk.skycommerce.repository.entity.PriceRule;
-import com.rvk.skycommerce.repository.entity.ProfessionalClient;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "skycommerce.pricing.mode", havingValue = "db")
 @Slf4j
-public class DatabasePriceCalculator implements PriceCalculator {
+public class DatabasePriceCalculator extends TablePriceCalculator {
 
     private final PriceRuleCacheService priceRuleCacheService;
 
-    @Override
-    public BigDecimal getUnitPrice(Client client, ProductType productType) {
-        log.debug("getUnitPrice - clientId={} clientType={} productType={}", client.getId(), client.getClass().getSimpleName(), productType);
-
-        ClientType category = resolveCategory(client);
-        BigDecimal revenue = resolveRevenue(client);
-
-        PriceRule rule = findRule(category, productType, revenue);
-        BigDecimal price = rule.getPrice();
+    private final AtomicReference<CompiledRules> compiledRules = new AtomicReference<>();
 
-        log.debug("getUnitPrice - found priceRuleId={} price={}", rule.getId(), price);
-
-        return price;
+    public DatabasePriceCalculator(PriceRuleCacheService priceRuleCacheService,
+                                   ClientPriceOverrides clientPriceOverrides) {
+        super(clientPriceOverrides);
+        this.priceRuleCacheService = priceRuleCacheService;
     }
 
-    private PriceRule findRule(ClientType clientType, ProductType productType, BigDecimal annualRevenue) {
-        List<PriceRule> allRules = priceRuleCacheService.getAllPriceRules();
-
-        log.debug("findRule - totalRules={} clientType={} productType={} annualRevenue={}",
-                allRules.size(), clientType, productType, annualRevenue);
-
-        return allRules.stream()
-                .filter(rule -> rule.getClientType() == clientType)
-                .filter(rule -> rule.getProductType() == productType)
-                .filter(rule -> matchesRevenue(rule, annualRevenue))
-                .findFirst()
-                .orElseThrow(() -> {
-                    String msg = "No price rule for clientType " + clientType +
-                            ", product " + productType +
-                            ", revenue " + annualRevenue;
-                    log.warn("findRule - {}", msg);
-                    return new NotFoundException(msg);
-                });
+    @Override
+    protected RuntimeException missingPrice(ClientType clientType, ProductType productType, BigDecimal revenue) {
+        String msg = "No price rule for clientType " + clientType +
+                ", product " + productType +
+                ", revenue " + revenue;
+        log.warn("missingPrice - {}", msg);
+        return new NotFoundException(msg);
     }
 
-    private boolean matchesRevenue(PriceRule rule, BigDecimal annualRevenue) {
-        BigDecimal from = rule.getMinRevenueExclusive();
-        BigDecimal to = rule.getMaxRevenueInclusive();
-
-        log.trace("matchesRevenue - ruleId={} from={} to={} annualRevenue={}",
-                rule.getId(), from, to, annualRevenue);
-
-        if (annualRevenue == null) {
-            boolean match = from == null && to == null;
-            log.trace("matchesRevenue - annualRevenue is null -> match={}", match);
+    /**
+     * Loads and compiles the rules before traffic arrives; afterwards the priceRules cache
+     * refreshes in the background, so the request path does not wait on the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        currentTable();
+    }
 
-            return match;
+    /**
+     * Returns the table compiled from the currently cached rule list. The cache hands out the
+     * same list instance until it is reloaded, so recompiling only happens after a reload.
+     * A reloaded rule set with overlapping or gapped revenue intervals is logged and ignored,
+     * so the previous table stays in service; without a previous table the error propagates.
+     */
+    @Override
+    protected PriceTable currentTable() {
+        List<PriceRule> rules = priceRuleCacheService.getAllPriceRules();
+        CompiledRules current = compiledRules.get();
+        if (current != null && current.source() == rules) {
+            return current.table();
         }
 
-        boolean geFrom = from == null || annualRevenue.compareTo(from) >= 0;
-        boolean leTo = to == null || annualRevenue.compareTo(to) <= 0;
-
-        boolean result = geFrom && leTo;
-
-        log.trace("matchesRevenue - geFrom={} leTo={} result={}", geFrom, leTo, result);
-
-        return result;
+        PriceTable table;
+        try {
+            table = compile(rules);
+        } catch (IllegalStateException | IllegalArgumentException ex) {
+            if (current == null) {
+                throw ex;
+            }
+            log.error("currentTable - rejected reloaded price rules, keeping previous table: {}", ex.getMessage());
+            table = current.table();
+        }
+        compiledRules.set(new CompiledRules(rules, table));
+        return table;
     }
 
-    private ClientType resolveCategory(Client client) {
-        if (client instanceof IndividualClient) {
-            log.debug("resolveCategory - resolved INDIVIDUAL for clientId={}", client.getId());
-            return ClientType.INDIVIDUAL;
+    private static PriceTable compile(List<PriceRule> rules) {
+        PriceTable.Builder builder = PriceTable.builder();
+        for (PriceRule rule : rules) {
+            builder.add(rule.getClientType(), rule.getProductType(),
+                    rule.getMinRevenueExclusive(), rule.getMaxRevenueInclusive(), rule.getPrice());
         }
-        if (client instanceof ProfessionalClient) {
-            log.debug("resolveCategory - resolved PROFESSIONAL for clientId={}", client.getId());
-            return ClientType.PROFESSIONAL;
-        }
-        String typeName = client != null ? client.getClass().getName() : "null";
-        log.warn("resolveCategory - unsupported client type: {}", typeName);
-        throw new IllegalArgumentException("Unsupported client type: " + typeName);
+        PriceTable table = builder.build();
+        log.info("Compiled price table from {} price rules", rules.size());
+        return table;
     }
 
-    private BigDecimal resolveRevenue(Client client) {
-        if (client instanceof ProfessionalClient professionalClient) {
-            BigDecimal revenue = professionalClient.getAnnualRevenue();
-            log.debug("resolveRevenue - professional clientId={} revenue={}", professionalClient.getId(), revenue);
-            return revenue;
-        }
-        log.debug("resolveRevenue - no revenue for clientId={}", client != null ? client.getId() : "null");
-        return null;
+    private record CompiledRules(List<PriceRule> source, PriceTable table) {
     }
 }
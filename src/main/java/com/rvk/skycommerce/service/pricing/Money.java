@@ -0,0 +1,46 @@
+package com.rvk.skycommerce.service.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts as a primitive {@code long} of minor units (cents), matching the {@code DECIMAL(19, 2)}
+ * columns prices and totals are stored in.
+ * <p>
+ * Pricing and total calculation run on these, so a cart line costs a multiply and an add instead
+ * of several {@link BigDecimal} allocations. Conversion happens at the edges: when a price table
+ * is compiled, and when results are stored or returned. Arithmetic fails with
+ * {@link ArithmeticException} on overflow instead of wrapping.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to minor units.
+     *
+     * @throws ArithmeticException if the amount has more than two decimal places or does not
+     *                             fit in a {@code long}
+     */
+    public static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long times(long minor, int quantity) {
+        return Math.multiplyExact(minor, quantity);
+    }
+
+    public static long plus(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long minus(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+}
@@ -2,11 +2,31 @@ package com.rvk.skycommerce.service.pricing;
 
 
 import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.CartItem;
 import com.rvk.skycommerce.repository.entity.Client;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface PriceCalculator {
 
     BigDecimal getUnitPrice(Client client, ProductType productType);
+
+    /**
+     * Prices all cart lines for one client and returns unit prices, line totals and the cart total.
+     * The default implementation prices line by line; table-backed calculators resolve the
+     * client's tier once per call.
+     */
+    default CartPricing priceCart(Client client, List<CartItem> items) {
+        long[] unitPrices = new long[items.size()];
+        long[] lineTotals = new long[items.size()];
+        long total = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            unitPrices[i] = Money.toMinor(getUnitPrice(client, item.getProductType()));
+            lineTotals[i] = Money.times(unitPrices[i], item.getQuantity());
+            total = Money.plus(total, lineTotals[i]);
+        }
+        return new CartPricing(unitPrices, lineTotals, total);
+    }
 }
@@ -0,0 +1,223 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.model.ProductType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable price snapshot indexed by {@link ClientType} x {@link ProductType}.
+ * <p>
+ * Each cell holds any number of revenue intervals {@code (minRevenueExclusive, maxRevenueInclusive]}.
+ * They are checked to be contiguous when the table is built and stored as one sorted array of lower
+ * bounds plus the upper bound of the last interval, so a lookup is an array index plus a binary
+ * search and does not allocate. Instances are built once by the calculators and replaced as a whole
+ * when the underlying pricing source changes.
+ */
+public final class PriceTable {
+
+    /**
+     * Marks unpriced products in {@link #minorPricesFor}.
+     */
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    private static final int PRODUCT_TYPES = ProductType.values().length;
+    private static final int CELLS = ClientType.values().length * PRODUCT_TYPES;
+
+    private final Brackets[] cells;
+
+    private PriceTable(Brackets[] cells) {
+        this.cells = cells;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the unit price for the given client category, product and annual revenue,
+     * or {@code null} when no bracket covers the request. A {@code null} revenue selects
+     * the lowest bracket, provided it is unbounded below.
+     */
+    public BigDecimal findUnitPrice(ClientType clientType, ProductType productType, BigDecimal revenue) {
+        Brackets brackets = cells[index(clientType, productType)];
+        return brackets != null ? brackets.find(revenue) : null;
+    }
+
+    /**
+     * Resolves the revenue bracket once per product for the given client category and returns
+     * the unit prices in {@link Money} minor units, indexed by {@link ProductType#ordinal()}.
+     * Unpriced products are {@link #NO_PRICE}.
+     */
+    public long[] minorPricesFor(ClientType clientType, BigDecimal revenue) {
+        long[] prices = new long[PRODUCT_TYPES];
+        int offset = clientType.ordinal() * PRODUCT_TYPES;
+        for (int i = 0; i < PRODUCT_TYPES; i++) {
+            Brackets brackets = cells[offset + i];
+            int bracket = brackets != null ? brackets.indexOf(revenue) : -1;
+            prices[i] = bracket >= 0 ? brackets.minorPrices[bracket] : NO_PRICE;
+        }
+        return prices;
+    }
+
+    private static int index(ClientType clientType, ProductType productType) {
+        return clientType.ordinal() * PRODUCT_TYPES + productType.ordinal();
+    }
+
+    private static final class Brackets {
+
+        // lowerBounds[0] may be null, meaning the first bracket is unbounded below; intervals are
+        // contiguous, so each one ends where the next begins and only the last has its own end
+        private final BigDecimal[] lowerBounds;
+        private final BigDecimal upperBound;
+        private final BigDecimal[] prices;
+        private final long[] minorPrices;
+
+        private Brackets(BigDecimal[] lowerBounds, BigDecimal upperBound, BigDecimal[] prices, long[] minorPrices) {
+            this.lowerBounds = lowerBounds;
+            this.upperBound = upperBound;
+            this.prices = prices;
+            this.minorPrices = minorPrices;
+        }
+
+        private BigDecimal find(BigDecimal revenue) {
+            int bracket = indexOf(revenue);
+            return bracket >= 0 ? prices[bracket] : null;
+        }
+
+        private int indexOf(BigDecimal revenue) {
+            if (revenue == null) {
+                return lowerBounds[0] == null ? 0 : -1;
+            }
+            if (upperBound != null && revenue.compareTo(upperBound) > 0) {
+                return -1;
+            }
+            int lo = 0;
+            int hi = lowerBounds.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                BigDecimal bound = lowerBounds[mid];
+                if (bound == null || revenue.compareTo(bound) > 0) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<List<Entry>> entries = new ArrayList<>(CELLS);
+
+        private Builder() {
+            for (int i = 0; i < CELLS; i++) {
+                entries.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Registers a price for revenues unbounded above from {@code minRevenueExclusive}.
+         */
+        public Builder add(ClientType clientType,
+                           ProductType productType,
+                           BigDecimal minRevenueExclusive,
+                           BigDecimal price) {
+            return add(clientType, productType, minRevenueExclusive, null, price);
+        }
+
+        /**
+         * Registers a price for revenues in {@code (minRevenueExclusive, maxRevenueInclusive]}.
+         * A {@code null} bound means the interval is unbounded on that side.
+         */
+        public Builder add(ClientType clientType,
+                           ProductType productType,
+                           BigDecimal minRevenueExclusive,
+                           BigDecimal maxRevenueInclusive,
+                           BigDecimal price) {
+            if (clientType == null || productType == null) {
+                throw new IllegalArgumentException("Client type and product type are required");
+            }
+            if (price == null) {
+                throw new IllegalArgumentException("Price is required for " + clientType + "/" + productType);
+            }
+            try {
+                Money.toMinor(price);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Price for " + clientType + "/" + productType
+                        + " must have at most " + Money.SCALE + " decimal places: " + price);
+            }
+            if (minRevenueExclusive != null && maxRevenueInclusive != null
+                    && minRevenueExclusive.compareTo(maxRevenueInclusive) >= 0) {
+                throw new IllegalArgumentException("Empty revenue interval for " + clientType + "/" + productType
+                        + ": (" + minRevenueExclusive + ", " + maxRevenueInclusive + "]");
+            }
+            entries.get(index(clientType, productType)).add(new Entry(minRevenueExclusive, maxRevenueInclusive, price));
+            return this;
+        }
+
+        /**
+         * Compiles the table.
+         *
+         * @throws IllegalStateException if the intervals of a cell overlap or leave a gap
+         */
+        public PriceTable build() {
+            Brackets[] cells = new Brackets[CELLS];
+            for (int i = 0; i < CELLS; i++) {
+                List<Entry> cell = entries.get(i);
+                if (cell.isEmpty()) {
+                    continue;
+                }
+                List<Entry> sorted = new ArrayList<>(cell);
+                sorted.sort(Comparator.comparing(Entry::minRevenueExclusive,
+                        Comparator.nullsFirst(Comparator.naturalOrder())));
+
+                BigDecimal[] lowerBounds = new BigDecimal[sorted.size()];
+                BigDecimal[] prices = new BigDecimal[sorted.size()];
+                long[] minorPrices = new long[sorted.size()];
+                for (int j = 0; j < sorted.size(); j++) {
+                    Entry entry = sorted.get(j);
+                    if (j > 0) {
+                        checkAdjacent(i, sorted.get(j - 1), entry);
+                    }
+                    lowerBounds[j] = entry.minRevenueExclusive();
+                    prices[j] = entry.price();
+                    minorPrices[j] = Money.toMinor(entry.price());
+                }
+                cells[i] = new Brackets(lowerBounds, sorted.getLast().maxRevenueInclusive(), prices, minorPrices);
+            }
+            return new PriceTable(cells);
+        }
+
+        private static void checkAdjacent(int cell, Entry previous, Entry next) {
+            BigDecimal end = previous.maxRevenueInclusive();
+            BigDecimal start = next.minRevenueExclusive();
+            if (end == null || start == null || end.compareTo(start) > 0) {
+                throw new IllegalStateException("Overlapping revenue intervals for " + describe(cell)
+                        + ": " + previous.describe() + " and " + next.describe());
+            }
+            if (end.compareTo(start) < 0) {
+                throw new IllegalStateException("Gap between revenue intervals for " + describe(cell)
+                        + ": " + previous.describe() + " and " + next.describe());
+            }
+        }
+
+        private static String describe(int index) {
+            return ClientType.values()[index / PRODUCT_TYPES] + "/" + ProductType.values()[index % PRODUCT_TYPES];
+        }
+    }
+
+    private record Entry(BigDecimal minRevenueExclusive, BigDecimal maxRevenueInclusive, BigDecimal price) {
+
+        String describe() {
+            return "(" + (minRevenueExclusive != null ? minRevenueExclusive : "-inf") + ", "
+                    + (maxRevenueInclusive != null ? maxRevenueInclusive : "+inf") + "]";
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.rvk.skycommerce.service.pricing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/pricing}: GET reports the last reload, POST reloads the YAML price list.
+ */
+@Component
+@ConditionalOnProperty(name = "skycommerce.pricing.mode", havingValue = "yaml", matchIfMissing = true)
+@Endpoint(id = "pricing")
+@RequiredArgsConstructor
+public class PricingEndpoint {
+
+    private final PricingReloader reloader;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("location", reloader.getLocation());
+        status.put("lastReloadedAt", reloader.getLastReloadedAt());
+        status.put("lastError", reloader.getLastError());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            reloader.reload();
+            result.put("status", "reloaded");
+        } catch (IllegalStateException ex) {
+            result.put("status", "rejected");
+            result.put("error", ex.getMessage());
+        }
+        result.putAll(status());
+        return result;
+    }
+}
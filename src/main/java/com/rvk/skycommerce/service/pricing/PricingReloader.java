@@ -0,0 +1,218 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.config.PricingProperties;
+import com.rvk.skycommerce.config.PricingSourceProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the YAML price list at runtime and publishes it to {@link YamlPriceCalculator}.
+ * <p>
+ * A reload parses, validates and compiles the whole file into a new {@link PriceTable} before
+ * publishing it with a single reference swap, so a request prices against either the old or
+ * the new table, never a mix. An invalid file is rejected and the current table stays live.
+ * <p>
+ * A published table clears the {@code shoppingCarts} cache. Stored carts keep their line price
+ * snapshots until they are next written or repriced by {@link CartRepricingJob}.
+ */
+@Component
+@ConditionalOnProperty(name = "skycommerce.pricing.mode", havingValue = "yaml", matchIfMissing = true)
+@Slf4j
+public class PricingReloader {
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final YamlPriceCalculator calculator;
+    private final PricingSourceProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final CacheManager cacheManager;
+
+    private volatile Instant lastReloadedAt;
+    private volatile String lastError;
+    private volatile WatchService watchService;
+
+    public PricingReloader(YamlPriceCalculator calculator,
+                           PricingSourceProperties properties,
+                           ResourceLoader resourceLoader,
+                           CacheManager cacheManager) {
+        this.calculator = calculator;
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Loads the configured price list and publishes it. Reloads are serialized so the watcher
+     * and the actuator endpoint cannot publish out of order.
+     *
+     * @throws IllegalStateException if the file cannot be read or fails validation
+     */
+    public synchronized void reload() {
+        String location = properties.getLocation();
+        log.info("reload - loading price list from {}", location);
+        try {
+            PriceTable table = YamlPriceCalculator.compile(load(location));
+            calculator.publish(table);
+            clearCachedCarts();
+            lastReloadedAt = Instant.now();
+            lastError = null;
+            log.info("reload - published price list from {}", location);
+        } catch (RuntimeException ex) {
+            lastError = ex.getMessage();
+            log.error("reload - rejected price list from {}, keeping current prices: {}", location, ex.getMessage());
+            throw ex instanceof IllegalStateException ? ex : new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    private void clearCachedCarts() {
+        Cache cache = cacheManager.getCache("shoppingCarts");
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    public String getLocation() {
+        return properties.getLocation();
+    }
+
+    public Instant getLastReloadedAt() {
+        return lastReloadedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String location = properties.getLocation();
+        if (!location.startsWith(CLASSPATH_PREFIX)) {
+            // the startup table was bound from the classpath; switch to the external file
+            try {
+                reload();
+            } catch (IllegalStateException ex) {
+                log.warn("start - external price list not applied, using startup prices");
+            }
+        }
+
+        if (properties.isWatch()) {
+            startWatching();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        WatchService current = watchService;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private PricingProperties load(String location) {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            throw new IllegalStateException("Price list " + location + " does not exist");
+        }
+
+        List<PropertySource<?>> sources;
+        try {
+            sources = new YamlPropertySourceLoader().load(location, resource);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read price list " + location, ex);
+        }
+
+        return new Binder(ConfigurationPropertySources.from(sources))
+                .bind("pricing", PricingProperties.class)
+                .orElseThrow(() -> new IllegalStateException("No pricing section in " + location));
+    }
+
+    private void startWatching() {
+        Path file;
+        try {
+            file = resourceLoader.getResource(properties.getLocation()).getFile().toPath().toAbsolutePath();
+        } catch (IOException ex) {
+            log.warn("startWatching - {} is not a file, watching disabled", properties.getLocation());
+            return;
+        }
+
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException ex) {
+            log.error("startWatching - cannot watch {}", file, ex);
+            return;
+        }
+
+        Thread watcher = new Thread(() -> watch(file), "pricing-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("startWatching - watching {} for price changes", file);
+    }
+
+    private void watch(Path file) {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = touches(key, file);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                // let multi-step writes settle, then coalesce the burst into one reload
+                WatchKey next;
+                while ((next = service.poll(properties.getWatchDebounce().toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+
+                try {
+                    reload();
+                } catch (IllegalStateException ex) {
+                    // already logged; keep watching for a corrected file
+                }
+            }
+        } catch (ClosedWatchServiceException ex) {
+            log.info("watch - pricing watcher stopped");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean touches(WatchKey key, Path file) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path changed && changed.equals(file.getFileName())) {
+                touched = true;
+            }
+        }
+        return touched;
+    }
+}
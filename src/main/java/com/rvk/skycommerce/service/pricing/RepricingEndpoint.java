@@ -0,0 +1,49 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.exception.ConflictException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/repricing}: GET reports progress of the current or last run, POST starts a run,
+ * optionally resuming after {@code afterCartId}. A start while a run is active is answered with
+ * {@code 409 Conflict}.
+ */
+@Component
+@Endpoint(id = "repricing")
+@RequiredArgsConstructor
+public class RepricingEndpoint {
+
+    private final CartRepricingJob job;
+
+    @ReadOperation
+    public RepricingStatus status() {
+        return job.status();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable Long afterCartId) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        int status;
+        try {
+            job.start(afterCartId != null ? afterCartId : 0L);
+            result.put("status", "started");
+            status = WebEndpointResponse.STATUS_OK;
+        } catch (ConflictException ex) {
+            result.put("status", "rejected");
+            result.put("error", ex.getMessage());
+            status = HttpStatus.CONFLICT.value();
+        }
+        result.put("progress", job.status());
+        return new WebEndpointResponse<>(result, status);
+    }
+}
@@ -0,0 +1,37 @@
+package com.rvk.skycommerce.service.pricing;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+@Builder
+public class RepricingStatus {
+
+    public enum State {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    State state;
+    long startAfterCartId;
+    /**
+     * Every cart with an id up to and including this one has been processed; pass it as
+     * {@code afterCartId} to resume an interrupted run.
+     */
+    long checkpointCartId;
+    long scanned;
+    long repriced;
+    long unchanged;
+    /**
+     * Carts modified concurrently between read and write; they keep their new state and can be
+     * picked up by a later run.
+     */
+    long conflicts;
+    Instant startedAt;
+    Instant finishedAt;
+    String error;
+}
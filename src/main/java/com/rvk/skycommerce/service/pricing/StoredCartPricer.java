@@ -0,0 +1,97 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository.CartSnapshot;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.service.writebehind.WriteBehindCartStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Brings stored carts, their totals and their lines' price snapshots, in line with current
+ * prices. Shared by the bulk repricing job and per-client repricing.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoredCartPricer {
+
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    private final PriceCalculator priceCalculator;
+    private final ObjectProvider<WriteBehindCartStore> writeBehindCartStore;
+
+    /**
+     * Prices each cart's lines at current prices and returns the carts whose total or any line
+     * price moved, carrying the new total. New snapshots are set on those carts' lines in place.
+     */
+    public List<CartSnapshot> reprice(List<CartSnapshot> carts, Map<Long, List<CartItem>> items) {
+        List<CartSnapshot> changed = new ArrayList<>();
+        for (CartSnapshot cart : carts) {
+            List<CartItem> lines = items.getOrDefault(cart.id(), List.of());
+            CartPricing pricing = priceCalculator.priceCart(cart.client(), lines);
+            if (differs(cart.totalAmount(), pricing.getTotal()) || linesDiffer(lines, pricing)) {
+                pricing.applyTo(lines);
+                changed.add(new CartSnapshot(cart.id(), cart.version(), pricing.getTotal(), cart.client()));
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Writes totals and line snapshots of carts returned by {@link #reprice} in the caller's
+     * transaction. Carts modified since they were read are skipped; the written ones are returned.
+     */
+    public List<CartSnapshot> write(List<CartSnapshot> changed, Map<Long, List<CartItem>> items) {
+        int[] counts = shoppingCartJdbcRepository.updateTotals(changed);
+
+        List<CartSnapshot> written = new ArrayList<>(changed.size());
+        List<CartItem> lines = new ArrayList<>();
+        for (int i = 0; i < changed.size(); i++) {
+            if (counts[i] != 0) {
+                CartSnapshot cart = changed.get(i);
+                written.add(cart);
+                lines.addAll(items.getOrDefault(cart.id(), List.of()));
+            }
+        }
+        if (!lines.isEmpty()) {
+            shoppingCartJdbcRepository.updateItemPrices(lines);
+        }
+        return written;
+    }
+
+    /**
+     * Like {@link #write(List, Map)}, in a transaction of {@code transaction}. With the
+     * {@code write-behind} cart mode the write runs through {@link WriteBehindCartStore#writeThrough},
+     * so the store neither overwrites the new prices nor keeps serving the old ones.
+     */
+    public List<CartSnapshot> write(List<CartSnapshot> changed, Map<Long, List<CartItem>> items,
+                                    TransactionTemplate transaction) {
+        Supplier<List<CartSnapshot>> write = () -> transaction.execute(status -> write(changed, items));
+        WriteBehindCartStore cartStore = writeBehindCartStore.getIfAvailable();
+        if (cartStore == null) {
+            return write.get();
+        }
+        return cartStore.writeThrough(changed.stream().map(CartSnapshot::id).toList(), write);
+    }
+
+    private static boolean linesDiffer(List<CartItem> lines, CartPricing pricing) {
+        for (int i = 0; i < lines.size(); i++) {
+            CartItem line = lines.get(i);
+            if (differs(line.getUnitPrice(), pricing.getUnitPrice(i)) || differs(line.getLineTotal(), pricing.getLineTotal(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean differs(BigDecimal stored, BigDecimal current) {
+        return stored == null || stored.compareTo(current) != 0;
+    }
+}
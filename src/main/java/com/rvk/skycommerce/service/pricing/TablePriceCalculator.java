@@ -0,0 +1,108 @@
+package com.rvk.skycommerce.service.pricing;
+
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.IndividualClient;
+import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Base class for calculators that price from a compiled {@link PriceTable}.
+ * <p>
+ * A client's negotiated prices from {@link ClientPriceOverrides} win over the table; products
+ * without an override fall back to the client's revenue tier.
+ * <p>
+ * Timers are tagged with the concrete calculator class, which identifies the pricing mode.
+ */
+@Slf4j
+public abstract class TablePriceCalculator implements PriceCalculator {
+
+    private final ClientPriceOverrides clientPriceOverrides;
+
+    protected TablePriceCalculator(ClientPriceOverrides clientPriceOverrides) {
+        this.clientPriceOverrides = clientPriceOverrides;
+    }
+
+    /**
+     * Returns the price snapshot to use for the current call.
+     */
+    protected abstract PriceTable currentTable();
+
+    /**
+     * Builds the exception thrown when the table has no price for a request.
+     */
+    protected abstract RuntimeException missingPrice(ClientType clientType, ProductType productType, BigDecimal revenue);
+
+    /**
+     * Not timed: this is the innermost per-line call. Carts are timed once in {@link #priceCart}.
+     */
+    @Override
+    public BigDecimal getUnitPrice(Client client, ProductType productType) {
+        ClientType category = resolveCategory(client);
+        long override = priceBookFor(client).minorPrice(productType);
+        if (override != PriceTable.NO_PRICE) {
+            return Money.toBigDecimal(override);
+        }
+
+        BigDecimal revenue = resolveRevenue(client);
+        BigDecimal price = currentTable().findUnitPrice(category, productType, revenue);
+        if (price == null) {
+            throw missingPrice(category, productType, revenue);
+        }
+        return price;
+    }
+
+    @Override
+    @Timed(value = "skycommerce.pricing.price-cart", histogram = true)
+    public CartPricing priceCart(Client client, List<CartItem> items) {
+        ClientType category = resolveCategory(client);
+        BigDecimal revenue = resolveRevenue(client);
+        long[] prices = currentTable().minorPricesFor(category, revenue);
+        priceBookFor(client).applyTo(prices);
+
+        long[] unitPrices = new long[items.size()];
+        long[] lineTotals = new long[items.size()];
+        long total = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            long unitPrice = prices[item.getProductType().ordinal()];
+            if (unitPrice == PriceTable.NO_PRICE) {
+                throw missingPrice(category, item.getProductType(), revenue);
+            }
+            unitPrices[i] = unitPrice;
+            lineTotals[i] = Money.times(unitPrice, item.getQuantity());
+            total = Money.plus(total, lineTotals[i]);
+        }
+        return new CartPricing(unitPrices, lineTotals, total);
+    }
+
+    private ClientPriceBook priceBookFor(Client client) {
+        // clients that were never persisted cannot have overrides
+        return client.getId() != null ? clientPriceOverrides.priceBookFor(client.getId()) : ClientPriceBook.EMPTY;
+    }
+
+    protected ClientType resolveCategory(Client client) {
+        if (client instanceof IndividualClient) {
+            return ClientType.INDIVIDUAL;
+        }
+        if (client instanceof ProfessionalClient) {
+            return ClientType.PROFESSIONAL;
+        }
+        String typeName = client != null ? client.getClass().getName() : "null";
+        log.warn("resolveCategory - unsupported client type: {}", typeName);
+        throw new IllegalArgumentException("Unsupported client type: " + typeName);
+    }
+
+    protected BigDecimal resolveRevenue(Client client) {
+        if (client instanceof ProfessionalClient professionalClient) {
+            return professionalClient.getAnnualRevenue();
+        }
+        return null;
+    }
+}
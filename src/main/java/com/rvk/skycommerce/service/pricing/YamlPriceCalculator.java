@@ -1,116 +1,129 @@
 package com.rvk.skycommerce.service.pricing;
 
 import com.rvk.skycommerce.config.PricingProperties;
+import com.rvk.skycommerce.model.ClientType;
 import com.rvk.skycommerce.model.ProductType;
-import com.rvk.skycommerce.repository.entity.Client;
-import com.rvk.skycommerce.repository.entity.IndividualClient;
-import com.rvk.skycommerce.repository.entity.ProfessionalClient;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @ConditionalOnProperty(name = "skycommerce.pricing.mode", havingValue = "yaml", matchIfMissing = true)
-@RequiredArgsConstructor
 @Slf4j
-public class YamlPriceCalculator implements PriceCalculator {
+public class YamlPriceCalculator extends TablePriceCalculator {
 
-    private final PricingProperties pricingProperties;
+    private final AtomicReference<PriceTable> priceTable = new AtomicReference<>();
+
+    public YamlPriceCalculator(PricingProperties pricingProperties, ClientPriceOverrides clientPriceOverrides) {
+        super(clientPriceOverrides);
+        this.priceTable.set(compile(pricingProperties));
+    }
 
     @Override
-    public BigDecimal getUnitPrice(Client client, ProductType productType) {
-        log.debug("getUnitPrice - clientId={} clientType={} productType={}", client.getId(), client.getClass().getSimpleName(), productType);
+    protected PriceTable currentTable() {
+        return priceTable.get();
+    }
 
-        if (client instanceof IndividualClient) {
-            BigDecimal price = getIndividualPrice(productType);
-            log.debug("getUnitPrice - individual price for productType={} = {}", productType, price);
-            return price;
-        }
-        if (client instanceof ProfessionalClient professionalClient) {
-            BigDecimal price = getProfessionalPrice(professionalClient.getAnnualRevenue(), productType);
-            log.debug("getUnitPrice - professional price for revenue={} productType={} = {}",
-                    professionalClient.getAnnualRevenue(), productType, price);
-            return price;
+    @Override
+    protected RuntimeException missingPrice(ClientType clientType, ProductType productType, BigDecimal revenue) {
+        if (clientType == ClientType.INDIVIDUAL) {
+            log.warn("missingPrice - no individual price configured for product {}", productType);
+            return new IllegalStateException("No individual price configured for product " + productType);
         }
-
-        log.error("getUnitPrice - unsupported client type: {}", client.getClass().getName());
-        throw new IllegalArgumentException("Unsupported client type: " + client.getClass().getName());
+        log.warn("missingPrice - no professional price configured for product {} and revenue {}", productType, revenue);
+        return new IllegalStateException("No professional price configured for product " + productType + " and revenue " + revenue);
     }
 
-    private BigDecimal getIndividualPrice(ProductType productType) {
-        log.debug("getIndividualPrice - productType={}", productType);
+    /**
+     * Atomically replaces the price snapshot used by subsequent lookups.
+     */
+    public void publish(PriceTable table) {
+        priceTable.set(table);
+    }
 
-        Map<ProductType, BigDecimal> map = pricingProperties.getIndividual();
+    static PriceTable compile(PricingProperties properties) {
+        validate(properties);
 
-        if (map == null || !map.containsKey(productType)) {
-            log.warn("getIndividualPrice - no individual price configured for product {}", productType);
+        PriceTable.Builder builder = PriceTable.builder();
 
-            throw new IllegalStateException("No individual price configured for product " + productType);
+        Map<ProductType, BigDecimal> individual = properties.getIndividual();
+        if (individual != null) {
+            individual.forEach((product, price) -> builder.add(ClientType.INDIVIDUAL, product, null, price));
         }
-        BigDecimal price = map.get(productType);
 
-        log.trace("getIndividualPrice - resolved price={}", price);
+        List<PricingProperties.Tier> tiers = professionalTiers(properties.getProfessional());
+        for (PricingProperties.Tier tier : tiers) {
+            if (tier.getProducts() != null) {
+                tier.getProducts().forEach((product, price) -> builder.add(ClientType.PROFESSIONAL, product,
+                        tier.getMinRevenueExclusive(), tier.getMaxRevenueInclusive(), price));
+            }
+        }
 
-        return price;
+        PriceTable table = builder.build();
+        log.info("Compiled YAML price table with {} professional revenue tiers", tiers.size());
+        return table;
     }
 
-    private BigDecimal getProfessionalPrice(BigDecimal revenue, ProductType productType) {
-        log.debug("getProfessionalPrice - revenue={} productType={}", revenue, productType);
+    /**
+     * Rejects negative or missing prices. Interval overlaps and gaps are rejected when the table
+     * is built.
+     */
+    static void validate(PricingProperties properties) {
+        validatePrices("individual", properties.getIndividual());
+
+        List<PricingProperties.Tier> tiers = professionalTiers(properties.getProfessional());
+        for (int i = 0; i < tiers.size(); i++) {
+            validatePrices("professional.tiers[" + i + "]", tiers.get(i).getProducts());
+        }
+    }
 
-        PricingProperties.Professional professional = pricingProperties.getProfessional();
+    /**
+     * Returns the configured tiers, with the legacy {@code lowRevenue}/{@code highRevenue} pair
+     * appended as two tiers meeting at {@code highRevenue.minRevenueExclusive}.
+     */
+    @SuppressWarnings("deprecation")
+    private static List<PricingProperties.Tier> professionalTiers(PricingProperties.Professional professional) {
         if (professional == null) {
-            log.warn("getProfessionalPrice - no professional pricing configured");
-            throw new IllegalStateException("No professional pricing configured");
+            return List.of();
+        }
+        List<PricingProperties.Tier> tiers = new ArrayList<>();
+        if (professional.getTiers() != null) {
+            tiers.addAll(professional.getTiers());
         }
 
         PricingProperties.Tier lowTier = professional.getLowRevenue();
         PricingProperties.Tier highTier = professional.getHighRevenue();
-
-        PricingProperties.Tier tier = selectTier(revenue, lowTier, highTier);
-        String tierName = tier == lowTier ? "lowRevenue" : tier == highTier ? "highRevenue" : "unknown";
-        if (tier == null || tier.getProducts() == null || !tier.getProducts().containsKey(productType)) {
-            log.warn("getProfessionalPrice - no professional price configured for product {} and revenue {} (selectedTier={})",
-                    productType, revenue, tierName);
-            throw new IllegalStateException("No professional price configured for product " + productType + " and revenue " + revenue);
+        if (highTier != null && highTier.getMinRevenueExclusive() == null) {
+            throw new IllegalStateException("Professional highRevenue tier requires minRevenueExclusive");
         }
-        BigDecimal price = tier.getProducts().get(productType);
-
-        log.debug("getProfessionalPrice - selectedTier={} price={}", tierName, price);
-
-        return price;
-    }
-
-    private PricingProperties.Tier selectTier(BigDecimal revenue,
-                                              PricingProperties.Tier lowTier,
-                                              PricingProperties.Tier highTier) {
-        log.debug("selectTier - revenue={} lowTierMinMax={} highTierMinExclusive={}",
-                revenue,
-                lowTier != null ? lowTier.getMinRevenueExclusive() + "/" + lowTier.getMaxRevenueInclusive() : "null",
-                highTier != null ? highTier.getMinRevenueExclusive() : "null");
-
-        if (revenue == null) {
-            log.debug("selectTier - revenue is null, choosing lowTier");
-            return lowTier;
+        if (lowTier != null) {
+            PricingProperties.Tier low = new PricingProperties.Tier();
+            low.setMaxRevenueInclusive(lowTier.getMaxRevenueInclusive() != null || highTier == null
+                    ? lowTier.getMaxRevenueInclusive()
+                    : highTier.getMinRevenueExclusive());
+            low.setProducts(lowTier.getProducts());
+            tiers.add(low);
         }
-
-        BigDecimal highMinExclusive = highTier != null ? highTier.getMinRevenueExclusive() : null;
-        BigDecimal lowMaxInclusive = lowTier != null ? lowTier.getMaxRevenueInclusive() : null;
-
-        if (highMinExclusive != null && revenue.compareTo(highMinExclusive) > 0) {
-            log.debug("selectTier - revenue {} > highMinExclusive {}, choosing highTier", revenue, highMinExclusive);
-            return highTier;
+        if (highTier != null) {
+            tiers.add(highTier);
         }
+        return tiers;
+    }
 
-        if (lowMaxInclusive != null && revenue.compareTo(lowMaxInclusive) <= 0) {
-            log.debug("selectTier - revenue {} <= lowMaxInclusive {}, choosing lowTier", revenue, lowMaxInclusive);
-            return lowTier;
+    private static void validatePrices(String section, Map<ProductType, BigDecimal> prices) {
+        if (prices == null) {
+            return;
         }
-
-        log.debug("selectTier - defaulting to lowTier");
-        return lowTier;
+        prices.forEach((product, price) -> {
+            if (price == null || price.signum() < 0) {
+                throw new IllegalStateException("Invalid price " + price + " for " + section + "." + product);
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+package com.rvk.skycommerce.service.serialized;
+
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serializes cart mutations per cart id. Each cart with queued commands has its own mailbox, drained
+ * by one virtual thread that starts when the first command arrives and ends once the queue is empty,
+ * so two commands for the same cart never run concurrently while a busy cart never holds up another.
+ * <p>
+ * The drainer takes everything queued, up to {@code maxBatchSize} commands, and hands them to the
+ * {@link BatchHandler} as one batch, in arrival order. The handler completes each command's
+ * future; commands it leaves incomplete fail with the exception it threw.
+ */
+@Slf4j
+public class CartMailboxes {
+
+    // a mailbox is present exactly while its drainer runs; adding to it and retiring it both happen
+    // inside the map's per-key compute, so a command is never left in a retired mailbox
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final int maxBatchSize;
+    private final BatchHandler handler;
+    private final ExecutorService drainers = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public CartMailboxes(int maxBatchSize, BatchHandler handler) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.handler = handler;
+    }
+
+    /**
+     * Queues {@code command} behind the cart's earlier commands. The future completes with the cart
+     * as saved by the batch the command ran in.
+     */
+    public CompletableFuture<ShoppingCartModel> submit(long cartId, Long expectedVersion, CartCommand command) {
+        Submission submission = new Submission(cartId, expectedVersion, command, new CompletableFuture<>());
+        queued.incrementAndGet();
+        boolean[] created = {false};
+        Mailbox mailbox = mailboxes.compute(cartId, (id, existing) -> {
+            Mailbox target = existing;
+            if (target == null) {
+                target = new Mailbox(id);
+                created[0] = true;
+            }
+            target.queue.add(submission);
+            return target;
+        });
+        if (created[0]) {
+            drainers.execute(mailbox::drain);
+        }
+        return submission.result();
+    }
+
+    /**
+     * Commands accepted but not yet handed to a batch.
+     */
+    public int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Stops accepting drain runs and waits for the running ones to finish.
+     */
+    public void close() {
+        drainers.close();
+    }
+
+    /**
+     * Applies the commands of one cart. Runs on the cart's mailbox thread, so it is never called
+     * concurrently for the same cart.
+     */
+    @FunctionalInterface
+    public interface BatchHandler {
+
+        void handle(long cartId, List<Submission> batch);
+    }
+
+    /**
+     * A queued command. {@code expectedVersion} is the caller's If-Match version, or null.
+     */
+    public record Submission(long cartId, Long expectedVersion, CartCommand command,
+                             CompletableFuture<ShoppingCartModel> result) {
+    }
+
+    /**
+     * A change to a loaded cart. It must validate before it modifies anything, so that a command
+     * that throws leaves the cart as it found it for the rest of its batch.
+     */
+    @FunctionalInterface
+    public interface CartCommand {
+
+        void apply(ShoppingCart cart);
+    }
+
+    private final class Mailbox {
+
+        private final long cartId;
+        private final Queue<Submission> queue = new ConcurrentLinkedQueue<>();
+
+        private Mailbox(long cartId) {
+            this.cartId = cartId;
+        }
+
+        private void drain() {
+            try {
+                drainQueued();
+            } catch (Error err) {
+                // retire the mailbox so the next submit starts a new drainer, and fail what is left
+                mailboxes.remove(cartId, this);
+                Submission left;
+                while ((left = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    left.result().completeExceptionally(err);
+                }
+                throw err;
+            }
+        }
+
+        private void drainQueued() {
+            while (true) {
+                List<Submission> batch = new ArrayList<>();
+                Submission next;
+                while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                    batch.add(next);
+                }
+                queued.addAndGet(-batch.size());
+
+                if (batch.isEmpty()) {
+                    // a command queued after the last poll keeps the mailbox, and this drainer, alive
+                    if (mailboxes.computeIfPresent(cartId, (id, mailbox) -> mailbox.queue.isEmpty() ? null : mailbox) == null) {
+                        return;
+                    }
+                    continue;
+                }
+                handle(batch);
+            }
+        }
+
+        private void handle(List<Submission> batch) {
+            try {
+                handler.handle(cartId, batch);
+            } catch (RuntimeException ex) {
+                log.debug("Batch of {} commands for cart {} failed: {}", batch.size(), cartId, ex.toString());
+                batch.forEach(submission -> submission.result().completeExceptionally(ex));
+            } catch (Error err) {
+                batch.forEach(submission -> submission.result().completeExceptionally(err));
+                throw err;
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.rvk.skycommerce.service.writebehind;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.service.pricing.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local log of cart states, split into numbered segment files.
+ * <p>
+ * Each record is the complete state of one cart after a mutation, so replaying a segment is
+ * idempotent and only the last record per cart matters. A record is framed as length, payload and
+ * CRC32; a torn or corrupt tail, as left by a crash mid-write, ends the segment on read.
+ * <p>
+ * With {@code sync} on, {@link #append} returns once the record is on disk. Concurrent appends
+ * share one {@code force}: whoever syncs first covers every record written before it.
+ */
+@Slf4j
+public class CartMutationLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "cart-mutations-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final boolean sync;
+
+    // lock order: syncLock before writeLock
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private long segment;
+    // byte positions across all segments written by this instance
+    private long written;
+    private long synced;
+
+    /**
+     * Opens a new segment after any left by a previous run; those stay in place for recovery.
+     */
+    public CartMutationLog(Path directory, boolean sync) throws IOException {
+        this.directory = directory;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        List<Path> existing = segments();
+        this.segment = existing.isEmpty() ? 1 : segmentNumber(existing.getLast()) + 1;
+        this.channel = open(segment);
+    }
+
+    public long currentSegment() {
+        synchronized (writeLock) {
+            return segment;
+        }
+    }
+
+    /**
+     * Appends one record and, with {@code sync} on, waits until it is durable.
+     */
+    public void append(CartState state) {
+        ByteBuffer frame = frame(encode(state));
+        long end;
+        try {
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+                written += frame.limit();
+                end = written;
+            }
+            if (sync) {
+                sync(end);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot append to cart mutation log", ex);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one. Returns the new segment number; every
+     * record appended before the call is in a lower-numbered segment.
+     */
+    public long rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                channel.force(false);
+                channel.close();
+                synced = written;
+                segment++;
+                channel = open(segment);
+                return segment;
+            }
+        }
+    }
+
+    /**
+     * Returns the segment files numbered below {@code segment}, oldest first.
+     */
+    public List<Path> segmentsBefore(long segment) throws IOException {
+        return segments().stream()
+                .filter(path -> segmentNumber(path) < segment)
+                .toList();
+    }
+
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        for (Path path : segmentsBefore(segment)) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Reads the records of one segment in order, stopping at the first incomplete or corrupt one.
+     * The states carry no client.
+     */
+    public static List<CartState> read(Path segment) throws IOException {
+        List<CartState> states = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException end) {
+                    return states;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    log.warn("read - invalid record length {} in {} after {} records, ignoring the rest",
+                            length, segment, states.size());
+                    return states;
+                }
+                byte[] payload = new byte[length];
+                long checksum;
+                try {
+                    in.readFully(payload);
+                    checksum = in.readLong();
+                } catch (EOFException torn) {
+                    log.warn("read - incomplete record in {} after {} records, ignoring it", segment, states.size());
+                    return states;
+                }
+                if (checksum != crc(payload)) {
+                    log.warn("read - checksum mismatch in {} after {} records, ignoring the rest", segment, states.size());
+                    return states;
+                }
+                states.add(decode(payload));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private void sync(long end) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= end) {
+                return;
+            }
+            FileChannel target;
+            long position;
+            synchronized (writeLock) {
+                target = channel;
+                position = written;
+            }
+            target.force(false);
+            synced = position;
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(directory.resolve(SEGMENT_PREFIX + "%020d".formatted(number) + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(CartMutationLog::segmentNumber))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + payload.length + Long.BYTES);
+        frame.putInt(payload.length).put(payload).putLong(crc(payload));
+        return frame.flip();
+    }
+
+    private static long crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private static byte[] encode(CartState state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(state.cartId());
+            out.writeLong(state.version());
+            out.writeLong(toMinor(state.totalAmount()));
+            out.writeInt(state.items().size());
+            for (CartItem item : state.items()) {
+                out.writeLong(item.getId() != null ? item.getId() : NO_VALUE);
+                out.writeUTF(item.getProductType().name());
+                out.writeInt(item.getQuantity());
+                out.writeLong(toMinor(item.getUnitPrice()));
+                out.writeLong(toMinor(item.getLineTotal()));
+            }
+            out.writeInt(state.removed().size());
+            for (CartItem item : state.removed()) {
+                out.writeLong(item.getId());
+                out.writeUTF(item.getProductType().name());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CartState decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long cartId = in.readLong();
+        long version = in.readLong();
+        BigDecimal total = toBigDecimal(in.readLong());
+
+        int itemCount = in.readInt();
+        List<CartItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            long id = in.readLong();
+            CartItem item = new CartItem(ProductType.valueOf(in.readUTF()), in.readInt());
+            item.setId(id != NO_VALUE ? id : null);
+            item.setUnitPrice(toBigDecimal(in.readLong()));
+            item.setLineTotal(toBigDecimal(in.readLong()));
+            items.add(item);
+        }
+
+        int removedCount = in.readInt();
+        List<CartItem> removed = new ArrayList<>(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            long id = in.readLong();
+            CartItem item = new CartItem(ProductType.valueOf(in.readUTF()), 0);
+            item.setId(id);
+            removed.add(item);
+        }
+        return new CartState(cartId, null, version, total, items, removed);
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount != null ? Money.toMinor(amount) : NO_VALUE;
+    }
+
+    private static BigDecimal toBigDecimal(long minor) {
+        return minor != NO_VALUE ? Money.toBigDecimal(minor) : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.rvk.skycommerce.service.writebehind;
+
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable state of one cart in the {@link WriteBehindCartStore}. Published lines are never
+ * modified; a mutation builds a new state with copies of the lines it changes.
+ * <p>
+ * {@code removed} holds lines deleted in memory whose rows may still exist. They are kept until a
+ * flush has deleted the rows, so that re-adding the product in the meantime revives the same line
+ * instead of inserting a second row for it.
+ *
+ * @param client the owner with the attributes pricing needs; {@code null} for states read back
+ *               from the log, which are only written to the database
+ */
+public record CartState(long cartId,
+                        Client client,
+                        long version,
+                        BigDecimal totalAmount,
+                        List<CartItem> items,
+                        List<CartItem> removed) {
+
+    public CartState {
+        items = List.copyOf(items);
+        removed = List.copyOf(removed);
+    }
+
+    public static CartState of(ShoppingCart cart) {
+        return new CartState(cart.getId(), cart.getClient(), cart.getVersion(), cart.getTotalAmount(),
+                cart.getItems(), List.of());
+    }
+
+    public CartState withRemoved(List<CartItem> removed) {
+        return new CartState(cartId, client, version, totalAmount, items, removed);
+    }
+
+    /**
+     * Returns an unmanaged cart for model mapping, with its own line list.
+     */
+    public ShoppingCart toCart() {
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setId(cartId);
+        cart.setVersion(version);
+        cart.setTotalAmount(totalAmount);
+        cart.setItems(new ArrayList<>(items));
+        return cart;
+    }
+}
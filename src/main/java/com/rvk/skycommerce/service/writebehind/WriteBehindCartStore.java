@@ -0,0 +1,460 @@
+package com.rvk.skycommerce.service.writebehind;
+
+import com.rvk.skycommerce.config.CartProperties;
+import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository.CartLine;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository.CartSnapshot;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository.CartWrite;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Authoritative in-memory cart state for the {@code write-behind} cart mode.
+ * <p>
+ * A mutation builds the next {@link CartState} under the cart's lock, appends it to the
+ * {@link CartMutationLog}, publishes it and marks the cart dirty; the database is not written.
+ * A background flusher rotates the log, writes the latest state of every dirty cart as JDBC
+ * batches, and then deletes the log segments that state covers. However many mutations a cart saw
+ * between flushes, it costs one total update and one write per line.
+ * <p>
+ * Lines that did not exist before are the exception: they are inserted at once, after their
+ * record is logged, because the response has to carry the line id.
+ * <p>
+ * A flush only writes a cart whose row is still at the version the store last read or wrote.
+ * Writers that bypass the store go through {@link #writeThrough}; should a row change anyway, the
+ * cart is dropped with its pending changes and reloaded on next use.
+ * <p>
+ * On startup, segments left by a previous run are replayed: the last state per cart is written
+ * to the database, unless the row is already at that version or later, before the store accepts
+ * mutations.
+ */
+@Component
+@ConditionalOnProperty(name = "skycommerce.cart.write-mode", havingValue = "write-behind")
+@Slf4j
+public class WriteBehindCartStore {
+
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    private final TransactionTemplate flushTransaction;
+    private final CartProperties.WriteBehind properties;
+    private final CartMutationLog mutationLog;
+    private final CacheManager cacheManager;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // mutations hold the read lock from log append to marking the cart dirty; rotation takes the
+    // write lock, so every record in a rotated segment is already marked dirty
+    private final ReentrantReadWriteLock rotation = new ReentrantReadWriteLock();
+    // mutations hold the read lock while they run; writeThrough takes the write lock, so none of
+    // its carts changes between their flush and the direct write
+    private final ReentrantReadWriteLock directWrites = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+
+    public WriteBehindCartStore(ShoppingCartJdbcRepository shoppingCartJdbcRepository,
+                                PlatformTransactionManager transactionManager,
+                                CartProperties cartProperties,
+                                CacheManager cacheManager,
+                                MeterRegistry meterRegistry) throws IOException {
+        this.shoppingCartJdbcRepository = shoppingCartJdbcRepository;
+        // writeThrough may be called after the caller's transaction has committed, e.g. from a
+        // transactional event listener; a flush needs a transaction of its own
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = cartProperties.getWriteBehind();
+        this.mutationLog = new CartMutationLog(properties.getLogDirectory(), properties.isSyncLog());
+        this.cacheManager = cacheManager;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("skycommerce.cart.write-behind.pending", dirty, Set::size)
+                .description("Carts with changes not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replays what a previous run left in the log, then starts the flusher.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        long segment = mutationLog.currentSegment();
+        List<Path> leftover = mutationLog.segmentsBefore(segment);
+        if (!leftover.isEmpty()) {
+            Map<Long, CartState> latest = new LinkedHashMap<>();
+            for (Path path : leftover) {
+                for (CartState state : CartMutationLog.read(path)) {
+                    latest.put(state.cartId(), state);
+                }
+            }
+            log.info("Replaying {} carts from {} write-behind log segments", latest.size(), leftover.size());
+            replay(List.copyOf(latest.values()));
+            mutationLog.deleteSegmentsBefore(segment);
+        }
+
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the cart's state if it is held in memory. Carts that are not have nothing pending,
+     * so the database is current for them.
+     */
+    public Optional<CartState> find(long cartId) {
+        Entry entry = entries.get(cartId);
+        return entry != null ? Optional.of(entry.state) : Optional.empty();
+    }
+
+    /**
+     * Applies {@code change} to the cart's current state, loading it from the database on first
+     * use. Exceptions thrown by {@code change} leave the cart untouched.
+     *
+     * @throws NotFoundException if the cart does not exist
+     */
+    public CartState mutate(long cartId, UnaryOperator<CartState> change) {
+        directWrites.readLock().lock();
+        try {
+            while (true) {
+                Entry entry = entry(cartId);
+                entry.lock.lock();
+                try {
+                    if (entry.retired) {
+                        continue;
+                    }
+                    CartState current = entry.state;
+                    CartState next = change.apply(current);
+
+                    rotation.readLock().lock();
+                    try {
+                        mutationLog.append(next);
+                        insertNewLines(current, next);
+                        entry.state = next;
+                        entry.touchedAt = System.nanoTime();
+                        dirty.add(cartId);
+                    } finally {
+                        rotation.readLock().unlock();
+                    }
+                    return next;
+                } finally {
+                    entry.lock.unlock();
+                }
+            }
+        } finally {
+            directWrites.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code write}, a database write of the given carts that bypasses the store, such as
+     * repricing. Mutations wait until it returns. Pending changes of those carts are flushed
+     * first, so a version-guarded write loses to them; afterwards the carts are dropped, so their
+     * next use reloads what the write left instead of overwriting it.
+     */
+    public <T> T writeThrough(Collection<Long> cartIds, Supplier<T> write) {
+        directWrites.writeLock().lock();
+        try {
+            synchronized (flushLock) {
+                writeDirty(cartIds);
+            }
+            T result = write.get();
+            cartIds.forEach(this::drop);
+            return result;
+        } finally {
+            directWrites.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every dirty cart to the database and drops the log segments that are then covered.
+     * Runs on the flusher thread; callable directly, e.g. to drain before maintenance.
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) {
+                evictIdle();
+                return;
+            }
+            long segment;
+            rotation.writeLock().lock();
+            try {
+                segment = mutationLog.rotate();
+            } finally {
+                rotation.writeLock().unlock();
+            }
+
+            int flushed = writeDirty(List.copyOf(dirty));
+            mutationLog.deleteSegmentsBefore(segment);
+            evictIdle();
+
+            if (flushed > 0) {
+                log.debug("Flushed {} carts", flushed);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flusher.shutdownNow();
+        try {
+            flush();
+        } finally {
+            mutationLog.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Write-behind flush failed, {} carts stay pending: {}", dirty.size(), ex.getMessage(), ex);
+        }
+    }
+
+    private Entry entry(long cartId) {
+        Entry entry = entries.get(cartId);
+        if (entry != null) {
+            return entry;
+        }
+        CartState loaded = shoppingCartJdbcRepository.findCart(cartId)
+                .map(CartState::of)
+                .orElseThrow(() -> {
+                    log.warn("Cart with id {} not found", cartId);
+                    return new NotFoundException("Cart with id " + cartId + " not found");
+                });
+        Entry created = new Entry(loaded);
+        Entry existing = entries.putIfAbsent(cartId, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Inserts the lines {@code next} adds, assigning their ids. The record already logged lets
+     * recovery recreate them if the process dies before this completes; if an insert fails, the
+     * previous state is logged again and the rows inserted so far are deleted.
+     */
+    private void insertNewLines(CartState current, CartState next) {
+        List<CartLine> inserted = new ArrayList<>();
+        try {
+            for (CartItem item : next.items()) {
+                if (item.getId() == null) {
+                    item.setId(shoppingCartJdbcRepository.insertItem(next.cartId(), item));
+                    inserted.add(new CartLine(next.cartId(), item));
+                }
+            }
+        } catch (RuntimeException ex) {
+            mutationLog.append(current);
+            if (!inserted.isEmpty()) {
+                shoppingCartJdbcRepository.deleteItems(inserted);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes the current state of those of the given carts that are dirty, in transactions of at
+     * most {@code flushBatchSize} carts. Returns the number of carts written. Must hold
+     * {@code flushLock}.
+     */
+    private int writeDirty(Collection<Long> cartIds) {
+        List<Pending> pending = new ArrayList<>();
+        for (Long cartId : cartIds) {
+            if (!dirty.remove(cartId)) {
+                continue;
+            }
+            Entry entry = entries.get(cartId);
+            if (entry != null) {
+                pending.add(new Pending(entry, entry.state, entry.baseVersion));
+            }
+        }
+
+        int written = 0;
+        int batchSize = properties.getFlushBatchSize();
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<Pending> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            int[] updated;
+            try {
+                updated = flushTransaction.execute(status -> writeBatch(batch));
+            } catch (RuntimeException ex) {
+                pending.subList(from, pending.size()).forEach(unwritten -> dirty.add(unwritten.state().cartId()));
+                throw ex;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Pending flushed = batch.get(i);
+                if (updated[i] != 0) {
+                    flushed.entry().baseVersion = flushed.state().version();
+                    written++;
+                } else {
+                    log.warn("Cart {} was changed or deleted outside the store, dropping its pending changes",
+                            flushed.state().cartId());
+                    drop(flushed.state().cartId());
+                }
+            }
+        }
+        forgetDeletedLines(pending.stream().map(Pending::state).toList());
+        return written;
+    }
+
+    private int[] writeBatch(List<Pending> batch) {
+        List<CartWrite> totals = batch.stream()
+                .map(pending -> new CartWrite(pending.state().cartId(), pending.baseVersion(),
+                        pending.state().version(), pending.state().totalAmount()))
+                .toList();
+        int[] updated = shoppingCartJdbcRepository.writeTotals(totals);
+        writeLines(batch.stream().map(Pending::state).toList(), updated);
+        return updated;
+    }
+
+    /**
+     * Writes states left in the log by a previous run, in transactions of at most
+     * {@code flushBatchSize} carts. Carts that no longer exist, or whose row is already at the
+     * state's version or later, are skipped.
+     */
+    private void replay(List<CartState> states) {
+        int batchSize = properties.getFlushBatchSize();
+        for (int from = 0; from < states.size(); from += batchSize) {
+            List<CartState> batch = states.subList(from, Math.min(from + batchSize, states.size()));
+            flushTransaction.executeWithoutResult(status -> {
+                List<CartSnapshot> totals = batch.stream()
+                        .map(state -> new CartSnapshot(state.cartId(), state.version(), state.totalAmount(), null))
+                        .toList();
+                writeLines(batch, shoppingCartJdbcRepository.replayTotals(totals));
+            });
+        }
+    }
+
+    /**
+     * Deletes the removed lines and writes the remaining ones of each state whose total was
+     * written, i.e. whose count in {@code updated} is not {@code 0}.
+     */
+    private void writeLines(List<CartState> states, int[] updated) {
+        List<CartLine> deleted = new ArrayList<>();
+        List<CartLine> written = new ArrayList<>();
+        for (int i = 0; i < states.size(); i++) {
+            CartState state = states.get(i);
+            if (updated[i] == 0) {
+                continue;
+            }
+            state.removed().forEach(item -> deleted.add(new CartLine(state.cartId(), item)));
+            state.items().forEach(item -> written.add(new CartLine(state.cartId(), item)));
+        }
+        if (!deleted.isEmpty()) {
+            shoppingCartJdbcRepository.deleteItems(deleted);
+        }
+        shoppingCartJdbcRepository.writeItems(written);
+    }
+
+    /**
+     * Drops removed lines whose rows the flush deleted, unless a later mutation revived them.
+     */
+    private void forgetDeletedLines(List<CartState> flushed) {
+        for (CartState state : flushed) {
+            if (state.removed().isEmpty()) {
+                continue;
+            }
+            Entry entry = entries.get(state.cartId());
+            if (entry == null) {
+                continue;
+            }
+            entry.lock.lock();
+            try {
+                CartState current = entry.state;
+                List<CartItem> remaining = current.removed().stream()
+                        .filter(item -> state.removed().stream().noneMatch(deleted -> deleted.getId().equals(item.getId())))
+                        .toList();
+                if (remaining.size() != current.removed().size()) {
+                    entry.state = current.withRemoved(remaining);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drops the cart from memory, discarding anything not yet written; its next use reloads it.
+     */
+    private void drop(long cartId) {
+        Entry entry = entries.get(cartId);
+        if (entry != null) {
+            entry.lock.lock();
+            try {
+                entry.retired = true;
+                entries.remove(cartId, entry);
+                dirty.remove(cartId);
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        Cache cache = cacheManager.getCache("shoppingCarts");
+        if (cache != null) {
+            cache.evict(cartId);
+        }
+    }
+
+    private void evictIdle() {
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        long now = System.nanoTime();
+        entries.forEach((cartId, entry) -> {
+            if (now - entry.touchedAt < idleNanos || dirty.contains(cartId) || !entry.lock.tryLock()) {
+                return;
+            }
+            try {
+                if (!dirty.contains(cartId) && entry.state.removed().isEmpty()) {
+                    entry.retired = true;
+                    entries.remove(cartId, entry);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        });
+    }
+
+    private static final class Entry {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile CartState state;
+        private volatile long touchedAt = System.nanoTime();
+        // version of the row the store last read or wrote; a flush expects the row to be at it
+        private volatile long baseVersion;
+        // set when evicted or dropped; a mutation that raced it reloads the cart
+        private boolean retired;
+
+        private Entry(CartState state) {
+            this.state = state;
+            this.baseVersion = state.version();
+        }
+    }
+
+    private record Pending(Entry entry, CartState state, long baseVersion) {
+    }
+}
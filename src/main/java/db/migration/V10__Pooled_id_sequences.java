@@ -0,0 +1,49 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Replaces the identity columns of the JPA-managed tables with sequences that step by the
+ * entities' allocation size. Hibernate then assigns ids from a pooled-lo block in memory instead of
+ * learning each one from its insert, which is what lets inserts be batched.
+ * <p>
+ * Java rather than SQL because each sequence has to start above the ids already in its table. The
+ * sequence also becomes the column default, so JDBC inserts without an id keep working; each one
+ * takes a whole block's first value, which Hibernate never hands out.
+ */
+public class V10__Pooled_id_sequences extends BaseJavaMigration {
+
+    /**
+     * Must match {@code allocationSize} of the entities' {@code @SequenceGenerator}s.
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<String> TABLES = List.of("shopping_carts", "cart_items", "price_rules");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                String sequence = table + "_seq";
+                long start = maxId(statement, table) + 1;
+                statement.execute("CREATE SEQUENCE " + sequence
+                        + " START WITH " + start + " INCREMENT BY " + ALLOCATION_SIZE);
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY");
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT NEXT VALUE FOR " + sequence);
+            }
+        }
+    }
+
+    private static long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Progress of the last cart repricing run, one row, so a run can be resumed after a restart
+CREATE TABLE repricing_checkpoint
+(
+    id                  INT         NOT NULL PRIMARY KEY,
+    start_after_cart_id BIGINT      NOT NULL,
+    checkpoint_cart_id  BIGINT      NOT NULL,
+    state               VARCHAR(20) NOT NULL,
+    updated_at          TIMESTAMP   NOT NULL
+);
@@ -0,0 +1,20 @@
+-- one line per product in a cart: fold existing duplicates into the oldest line first
+UPDATE cart_items ci
+SET quantity = (SELECT SUM(d.quantity)
+                FROM cart_items d
+                WHERE d.cart_id = ci.cart_id
+                  AND d.product_type = ci.product_type)
+WHERE ci.id = (SELECT MIN(d.id)
+               FROM cart_items d
+               WHERE d.cart_id = ci.cart_id
+                 AND d.product_type = ci.product_type);
+
+DELETE
+FROM cart_items ci
+WHERE ci.id > (SELECT MIN(d.id)
+               FROM cart_items d
+               WHERE d.cart_id = ci.cart_id
+                 AND d.product_type = ci.product_type);
+
+ALTER TABLE cart_items
+    ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_type);
@@ -0,0 +1,2 @@
+ALTER TABLE shopping_carts
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Serves keyset listings: WHERE client_type = ? AND id > ? ORDER BY id
+CREATE INDEX idx_clients_type_id ON clients (client_type, id);
@@ -0,0 +1,2 @@
+-- Serves per-client cart lookups, e.g. repricing after a revenue change: WHERE client_id = ?
+CREATE INDEX idx_shopping_carts_client_id ON shopping_carts (client_id);
@@ -0,0 +1,6 @@
+-- Prices as of the last write of each line. Left empty for existing lines: the price list is
+-- application configuration, so they are priced on read until the next write or repricing run.
+ALTER TABLE cart_items
+    ADD COLUMN unit_price DECIMAL(19, 2);
+ALTER TABLE cart_items
+    ADD COLUMN line_total DECIMAL(19, 2);
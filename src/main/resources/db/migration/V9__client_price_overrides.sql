@@ -0,0 +1,13 @@
+-- Negotiated contract prices; they take precedence over price_rules for the client.
+-- The primary key doubles as the per-client lookup index: WHERE client_id = ?
+CREATE TABLE client_price_overrides
+(
+    client_id    VARCHAR(50)    NOT NULL,
+    product_type VARCHAR(30)    NOT NULL,
+    price        DECIMAL(19, 2) NOT NULL,
+
+    CONSTRAINT pk_client_price_overrides
+        PRIMARY KEY (client_id, product_type),
+    CONSTRAINT fk_price_override_client
+        FOREIGN KEY (client_id) REFERENCES clients (id)
+);
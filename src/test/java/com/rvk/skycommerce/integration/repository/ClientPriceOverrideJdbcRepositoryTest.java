@@ -0,0 +1,48 @@
+package com.rvk.skycommerce.integration.repository;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.ClientPriceOverrideJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ClientPriceOverrideJdbcRepository.class)
+class ClientPriceOverrideJdbcRepositoryTest {
+
+    @Autowired
+    private ClientPriceOverrideJdbcRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findClientOverrides_shouldReturnOnlyThatClientsPrices() {
+        insertOverride("C_PRO_HIGH_001", ProductType.LAPTOP, "850.00");
+        insertOverride("C_PRO_HIGH_001", ProductType.HIGH_END_PHONE, "950.00");
+        insertOverride("C_PRO_LOW_001", ProductType.LAPTOP, "990.00");
+
+        Map<ProductType, BigDecimal> overrides = repository.findClientOverrides("C_PRO_HIGH_001");
+
+        assertThat(overrides).containsOnlyKeys(ProductType.LAPTOP, ProductType.HIGH_END_PHONE);
+        assertThat(overrides.get(ProductType.LAPTOP)).isEqualByComparingTo("850.00");
+        assertThat(overrides.get(ProductType.HIGH_END_PHONE)).isEqualByComparingTo("950.00");
+    }
+
+    @Test
+    void findClientOverrides_shouldReturnEmptyMapForClientWithoutOverrides() {
+        assertThat(repository.findClientOverrides("C_IND_001")).isEmpty();
+    }
+
+    private void insertOverride(String clientId, ProductType productType, String price) {
+        jdbcTemplate.update("INSERT INTO client_price_overrides (client_id, product_type, price) VALUES (?, ?, ?)",
+                clientId, productType.name(), new BigDecimal(price));
+    }
+}
@@ -6,6 +6,8 @@ import com.rvk.skycommerce.repository.entity.ProfessionalClient;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -60,4 +62,24 @@ class ClientRepositoryTest {
         assertThat(pc.getCompanyName()).isEqualTo("Test Company");
         assertThat(pc.getAnnualRevenue()).isEqualByComparingTo("12000000.00");
     }
+
+    @Test
+    void shouldWalkIndividualsByKeysetInIdOrder() {
+        clientRepository.save(new IndividualClient("C_IND_003", "Third", "User"));
+        clientRepository.save(new ProfessionalClient("C_IND_0025", "NotAnIndividual", "REG", BigDecimal.ONE, "VAT"));
+        clientRepository.flush();
+
+        Slice<IndividualClient> first = clientRepository.findIndividualsAfter("", PageRequest.of(0, 2));
+        assertThat(first.getContent())
+                .extracting(IndividualClient::getId)
+                .containsExactly("C_IND_001", "C_IND_002");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<IndividualClient> second = clientRepository.findIndividualsAfter(
+                first.getContent().getLast().getId(), PageRequest.of(0, 2));
+        assertThat(second.getContent())
+                .extracting(IndividualClient::getId)
+                .containsExactly("C_IND_003");
+        assertThat(second.hasNext()).isFalse();
+    }
 }
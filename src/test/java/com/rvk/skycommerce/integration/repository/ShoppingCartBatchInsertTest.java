@@ -0,0 +1,208 @@
+package com.rvk.skycommerce.integration.repository;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs in a context of its own, so the id generators start on a fresh pooled-lo block and the
+ * number of sequence calls is exact.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ShoppingCartBatchInsertTest.StatementRecording.class)
+class ShoppingCartBatchInsertTest {
+
+    @Autowired
+    private ShoppingCartRepository cartRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StatementRecorder statements;
+
+    /**
+     * A cart holds at most one line per product, so the 100 lines are spread over 50 carts.
+     * With identity columns every row was its own insert statement.
+     */
+    @Test
+    void shouldInsertHundredCartLinesInBatches() {
+        Client client = clientRepository.findById("C_IND_001").orElseThrow();
+        List<ShoppingCart> carts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ShoppingCart cart = new ShoppingCart(client);
+            cart.getItems().add(new CartItem(ProductType.LAPTOP, 1));
+            cart.getItems().add(new CartItem(ProductType.MID_RANGE_PHONE, 2));
+            cart.setTotalAmount(BigDecimal.ZERO);
+            carts.add(cart);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statements.clear();
+
+        cartRepository.saveAll(carts);
+        cartRepository.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(150);
+        // one sequence call per 50 ids
+        assertThat(statements.prepared("shopping_carts_seq")).isEqualTo(1);
+        assertThat(statements.prepared("cart_items_seq")).isEqualTo(2);
+        // one insert statement per batch of 50, each executed once as a JDBC batch
+        assertThat(statements.prepared("insert into shopping_carts")).isEqualTo(1);
+        assertThat(statements.prepared("insert into cart_items")).isEqualTo(2);
+        assertThat(statements.executions("insert into shopping_carts")).containsExactly(new Execution(true, 50));
+        assertThat(statements.executions("insert into cart_items"))
+                .containsExactly(new Execution(true, 50), new Execution(true, 50));
+        assertThat(carts).extracting(ShoppingCart::getId).doesNotHaveDuplicates();
+        assertThat(carts).flatExtracting(ShoppingCart::getItems)
+                .extracting(CartItem::getId)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates();
+    }
+
+    /**
+     * How a statement was run: as a JDBC batch of {@code rows}, or on its own.
+     */
+    record Execution(boolean batch, int rows) {
+    }
+
+    @TestConfiguration
+    static class StatementRecording {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSource(ObjectProvider<StatementRecorder> recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? recorder.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Wraps the data source so that every prepared statement records its SQL and how it is run.
+     */
+    static class StatementRecorder {
+
+        private final List<String> prepared = new CopyOnWriteArrayList<>();
+        private final List<Recorded> executed = new CopyOnWriteArrayList<>();
+
+        int prepared(String fragment) {
+            return (int) prepared.stream().filter(sql -> matches(sql, fragment)).count();
+        }
+
+        List<Execution> executions(String fragment) {
+            return executed.stream()
+                    .filter(recorded -> matches(recorded.sql(), fragment))
+                    .map(Recorded::execution)
+                    .toList();
+        }
+
+        void clear() {
+            prepared.clear();
+            executed.clear();
+        }
+
+        DataSource wrap(DataSource dataSource) {
+            return proxy(DataSource.class, (method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? wrap(connection) : result;
+            });
+        }
+
+        private Connection wrap(Connection connection) {
+            return proxy(Connection.class, (method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                    String sql = (String) args[0];
+                    prepared.add(sql);
+                    return wrap(statement, sql);
+                }
+                return result;
+            });
+        }
+
+        private PreparedStatement wrap(PreparedStatement statement, String sql) {
+            int[] batched = {0};
+            return proxy(PreparedStatement.class, (method, args) -> {
+                switch (method.getName()) {
+                    case "addBatch" -> batched[0]++;
+                    case "clearBatch" -> batched[0] = 0;
+                    case "executeBatch" -> {
+                        executed.add(new Recorded(sql, new Execution(true, batched[0])));
+                        batched[0] = 0;
+                    }
+                    case "execute", "executeUpdate", "executeQuery" ->
+                            executed.add(new Recorded(sql, new Execution(false, 1)));
+                    default -> {
+                    }
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static boolean matches(String sql, String fragment) {
+            return sql.toLowerCase(Locale.ROOT).contains(fragment);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> handler.handle(method, args));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        @FunctionalInterface
+        private interface Handler {
+
+            Object handle(Method method, Object[] args) throws Throwable;
+        }
+
+        private record Recorded(String sql, Execution execution) {
+        }
+    }
+}
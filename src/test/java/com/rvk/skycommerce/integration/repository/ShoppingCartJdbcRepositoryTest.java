@@ -0,0 +1,80 @@
+package com.rvk.skycommerce.integration.repository;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import(ShoppingCartJdbcRepository.class)
+class ShoppingCartJdbcRepositoryTest {
+
+    @Autowired
+    private ShoppingCartJdbcRepository jdbcRepository;
+
+    @Autowired
+    private ShoppingCartRepository cartRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Test
+    void findCart_shouldReadCartClientAndItemsInOneQuery() {
+        Client client = clientRepository.findById("C_IND_001").orElseThrow();
+        ShoppingCart cart = new ShoppingCart(client);
+        CartItem phone = new CartItem(ProductType.HIGH_END_PHONE, 2);
+        phone.setUnitPrice(new BigDecimal("1500.00"));
+        phone.setLineTotal(new BigDecimal("3000.00"));
+        cart.getItems().add(phone);
+        cart.getItems().add(new CartItem(ProductType.LAPTOP, 1));
+        cart.setTotalAmount(new BigDecimal("4200.00"));
+        ShoppingCart saved = cartRepository.saveAndFlush(cart);
+
+        ShoppingCart loaded = jdbcRepository.findCart(saved.getId()).orElseThrow();
+
+        assertThat(loaded).isNotSameAs(saved);
+        assertThat(loaded.getId()).isEqualTo(saved.getId());
+        assertThat(loaded.getVersion()).isEqualTo(saved.getVersion());
+        assertThat(loaded.getTotalAmount()).isEqualByComparingTo("4200.00");
+        assertThat(loaded.getClient().getId()).isEqualTo("C_IND_001");
+        assertThat(loaded.getItems())
+                .extracting("productType", "quantity")
+                .containsExactly(
+                        tuple(ProductType.HIGH_END_PHONE, 2),
+                        tuple(ProductType.LAPTOP, 1)
+                );
+        assertThat(loaded.getItems().get(0).getLineTotal()).isEqualByComparingTo("3000.00");
+        assertThat(loaded.getItems().get(1).isPriced()).isFalse();
+    }
+
+    @Test
+    void findCart_shouldReturnCartWithoutItems() {
+        Client client = clientRepository.findById("C_IND_001").orElseThrow();
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setTotalAmount(BigDecimal.ZERO);
+        ShoppingCart saved = cartRepository.saveAndFlush(cart);
+
+        ShoppingCart loaded = jdbcRepository.findCart(saved.getId()).orElseThrow();
+
+        assertThat(loaded.getItems()).isEmpty();
+    }
+
+    @Test
+    void findCart_shouldReturnEmptyWhenCartDoesNotExist() {
+        Optional<ShoppingCart> loaded = jdbcRepository.findCart(999_999L);
+        assertThat(loaded).isEmpty();
+    }
+}
@@ -0,0 +1,95 @@
+package com.rvk.skycommerce.integration.service;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cache-miss read of a cart through JPA ({@code findByIdWithItems}, one persistence
+ * context per read, as the service used to do) with the single-query JDBC path.
+ * <p>
+ * Opt-in: {@code ./gradlew test --tests '*CartReadPathBenchmarkTest' -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CartReadPathBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CartReadPathBenchmarkTest.class);
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareMissPathLatency() {
+        Long cartId = transactionTemplate.execute(status -> {
+            Client client = clientRepository.findById("C_PRO_LOW_001").orElseThrow();
+            ShoppingCart cart = new ShoppingCart(client);
+            for (ProductType productType : ProductType.values()) {
+                cart.getItems().add(new CartItem(productType, 2));
+            }
+            cart.setTotalAmount(BigDecimal.ZERO);
+            return shoppingCartRepository.save(cart).getId();
+        });
+
+        LongSupplier jpa = () -> transactionTemplate.execute(status ->
+                (long) shoppingCartRepository.findByIdWithItems(cartId).orElseThrow().getItems().size());
+        LongSupplier jdbc = () ->
+                shoppingCartJdbcRepository.findCart(cartId).orElseThrow().getItems().size();
+
+        try {
+            assertThat(jdbc.getAsLong()).isEqualTo(jpa.getAsLong());
+
+            double jpaMicros = measure(jpa);
+            double jdbcMicros = measure(jdbc);
+
+            log.info("Cart read miss path: JPA {} us/op, JDBC {} us/op ({}x)",
+                    String.format("%.1f", jpaMicros),
+                    String.format("%.1f", jdbcMicros),
+                    String.format("%.2f", jpaMicros / jdbcMicros));
+        } finally {
+            shoppingCartRepository.deleteById(cartId);
+        }
+    }
+
+    private static double measure(LongSupplier read) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += read.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += read.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return elapsed / 1_000.0 / ITERATIONS;
+    }
+}
@@ -0,0 +1,80 @@
+package com.rvk.skycommerce.integration.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.service.ClientExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ClientExportServiceTest {
+
+    @Autowired
+    private ClientExportService clientExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportClients_writesOneJsonObjectPerLineInIdOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = clientExportService.exportClients(null, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        List<JsonNode> lines = parse(body);
+        assertThat(lines).hasSize((int) count);
+        assertThat(lines)
+                .extracting(node -> node.get("id").asText())
+                .contains("C_IND_001", "C_PRO_HIGH_001")
+                .isSorted();
+
+        JsonNode individual = find(lines, "C_IND_001");
+        assertThat(individual.get("clientType").asText()).isEqualTo("INDIVIDUAL");
+        assertThat(individual.get("firstName").asText()).isEqualTo("John");
+        assertThat(individual.has("companyName")).isFalse();
+    }
+
+    @Test
+    void exportClients_filtersByClientType() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        clientExportService.exportClients(ClientType.PROFESSIONAL, out);
+
+        List<JsonNode> lines = parse(out.toString(StandardCharsets.UTF_8));
+        assertThat(lines)
+                .extracting(node -> node.get("clientType").asText())
+                .containsOnly("PROFESSIONAL");
+
+        JsonNode professional = find(lines, "C_PRO_LOW_001");
+        assertThat(professional.get("companyName").asText()).isEqualTo("Acme Solutions");
+        assertThat(professional.get("annualRevenue").decimalValue()).isEqualByComparingTo("5000000.00");
+    }
+
+    private List<JsonNode> parse(String body) throws Exception {
+        List<JsonNode> nodes = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                nodes.add(objectMapper.readTree(line));
+            }
+        }
+        return nodes;
+    }
+
+    private static JsonNode find(List<JsonNode> nodes, String id) {
+        return nodes.stream()
+                .filter(node -> id.equals(node.get("id").asText()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
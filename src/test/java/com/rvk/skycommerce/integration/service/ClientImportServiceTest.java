@@ -0,0 +1,102 @@
+package com.rvk.skycommerce.integration.service;
+
+import com.rvk.skycommerce.model.ClientImportFormat;
+import com.rvk.skycommerce.model.ClientImportReport;
+import com.rvk.skycommerce.service.ClientImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "skycommerce.client-import.chunk-size=2",
+        "skycommerce.client-import.max-reported-errors=2"
+})
+class ClientImportServiceTest {
+
+    @Autowired
+    private ClientImportService clientImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importClients_ndjson_insertsValidRecordsAcrossChunksAndReportsInvalidOnes() throws Exception {
+        String body = """
+                {"clientType":"INDIVIDUAL","firstName":"Ada","lastName":"NdjsonImport"}
+                {"clientType":"PROFESSIONAL","companyName":"NdjsonImport Ltd","registrationNumber":"REG-NI","annualRevenue":12000000.50,"vatNumber":"EU1"}
+
+                {"clientType":"INDIVIDUAL","firstName":"","lastName":"NdjsonImport"}
+                {"clientType":"INDIVIDUAL","firstName":"Grace","lastName":"NdjsonImport"}
+                not json
+                """;
+
+        ClientImportReport report = clientImportService.importClients(ClientImportFormat.NDJSON, stream(body));
+
+        assertThat(report.getReceived()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting("record").containsExactly(3L, 5L);
+        assertThat(report.getErrors().get(0).getMessage()).isEqualTo("firstName: must not be blank");
+        assertThat(report.getErrors().get(1).getMessage()).startsWith("Malformed JSON");
+
+        assertThat(count("SELECT COUNT(*) FROM clients WHERE last_name = 'NdjsonImport'")).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT annual_revenue FROM clients WHERE company_name = 'NdjsonImport Ltd'", BigDecimal.class))
+                .isEqualByComparingTo("12000000.50");
+    }
+
+    @Test
+    void importClients_csv_mapsColumnsByHeaderAndHandlesQuotedValues() throws Exception {
+        String body = """
+                clientType,firstName,lastName,companyName,registrationNumber,annualRevenue,vatNumber
+                INDIVIDUAL,Alan,CsvImport,,,,
+                PROFESSIONAL,,,"CsvImport, ""Quoted"" Inc",REG-CI,5000000,
+                PROFESSIONAL,,,CsvImport Negative,REG-CN,-1,
+                INDIVIDUAL,Too,Few
+                """;
+
+        ClientImportReport report = clientImportService.importClients(ClientImportFormat.CSV, stream(body));
+
+        assertThat(report.getReceived()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors())
+                .extracting("record", "message")
+                .containsExactly(
+                        tuple(3L, "annualRevenue: must be greater than or equal to 0"),
+                        tuple(4L, "Expected 7 columns, found 3"));
+
+        assertThat(count("SELECT COUNT(*) FROM clients WHERE company_name = 'CsvImport, \"Quoted\" Inc'")).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM clients WHERE last_name = 'CsvImport' AND client_type = 'INDIVIDUAL'")).isEqualTo(1);
+    }
+
+    @Test
+    void importClients_truncatesErrorListButCountsAllFailures() throws Exception {
+        String body = """
+                {"clientType":"UNKNOWN"}
+                {"clientType":"UNKNOWN"}
+                {"clientType":"UNKNOWN"}
+                """;
+
+        ClientImportReport report = clientImportService.importClients(ClientImportFormat.NDJSON, stream(body));
+
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).hasSize(2);
+        assertThat(report.isErrorsTruncated()).isTrue();
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,11 +1,14 @@
 package com.rvk.skycommerce.integration.service;
 
 import com.rvk.skycommerce.model.IndividualClientModel;
+import com.rvk.skycommerce.model.ProductType;
 import com.rvk.skycommerce.model.ProfessionalClientModel;
+import com.rvk.skycommerce.model.ShoppingCartModel;
 import com.rvk.skycommerce.repository.ClientRepository;
 import com.rvk.skycommerce.repository.entity.IndividualClient;
 import com.rvk.skycommerce.repository.entity.ProfessionalClient;
 import com.rvk.skycommerce.service.ClientService;
+import com.rvk.skycommerce.service.ShoppingCartService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -26,6 +29,9 @@ public class ClientServiceTest {
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
     @Test
     void createIndividualClient_persistsEntityAndReturnsModel() {
         IndividualClientModel model = clientService.createIndividualClient("John", "Doe");
@@ -213,10 +219,29 @@ public class ClientServiceTest {
                 .extracting(ProfessionalClientModel::getId)
                 .contains(pro1.getId(), pro2.getId());
     }
-}
-
-
-
-
 
+    @Test
+    void updateProfessionalClient_repricesCartsWhenRevenueChangesTier() {
+        ProfessionalClientModel client = clientService.createProfessionalClient(
+                "Growing Co",
+                "REG-GROW",
+                new BigDecimal("5000000.00"),
+                "VAT-GROW"
+        );
+        ShoppingCartModel cart = shoppingCartService.createCartForClient(client.getId());
+        shoppingCartService.addItem(cart.getId(), ProductType.LAPTOP, 2, null);
+        assertThat(shoppingCartService.getCart(cart.getId()).getTotalAmount()).isEqualByComparingTo("2000.00");
+
+        clientService.updateProfessionalClient(
+                client.getId(),
+                "Growing Co",
+                "REG-GROW",
+                new BigDecimal("20000000.00"),
+                "VAT-GROW"
+        );
 
+        ShoppingCartModel repriced = shoppingCartService.getCart(cart.getId());
+        assertThat(repriced.getTotalAmount()).isEqualByComparingTo("1800.00");
+        assertThat(repriced.getItems().getFirst().getUnitPrice()).isEqualByComparingTo("900.00");
+    }
+}
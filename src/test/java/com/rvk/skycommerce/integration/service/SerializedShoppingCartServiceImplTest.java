@@ -0,0 +1,146 @@
+package com.rvk.skycommerce.integration.service;
+
+import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.service.SerializedShoppingCartServiceImpl;
+import com.rvk.skycommerce.service.ShoppingCartService;
+import com.rvk.skycommerce.service.pricing.PriceCalculator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = "skycommerce.cart.write-mode=serialized")
+class SerializedShoppingCartServiceImplTest {
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private PriceCalculator priceCalculator;
+
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        cartId = shoppingCartService.createCartForClient("C_IND_001").getId();
+    }
+
+    @Test
+    void usesSerializedImplementation() {
+        assertThat(shoppingCartService).isInstanceOf(SerializedShoppingCartServiceImpl.class);
+    }
+
+    @Test
+    void concurrentAdds_queuedBehindARunningBatchApplyAsOneBatch() throws Exception {
+        AtomicBoolean hold = new AtomicBoolean(true);
+        CountDownLatch pricing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (hold.compareAndSet(true, false)) {
+                pricing.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(priceCalculator).priceCart(any(), anyList());
+
+        List<CompletableFuture<ShoppingCartModel>> adds = new ArrayList<>();
+        try {
+            adds.add(addLaptopAsync());
+            assertThat(pricing.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < 20; i++) {
+                adds.add(addLaptopAsync());
+            }
+            awaitQueued(19);
+        } finally {
+            release.countDown();
+        }
+        CompletableFuture.allOf(adds.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertThat(adds.getFirst().get().getVersion()).isEqualTo(1L);
+        assertThat(adds.subList(1, adds.size())).allSatisfy(add -> assertThat(add.get().getVersion()).isEqualTo(2L));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE cart_id = ?", Integer.class, cartId))
+                .isEqualTo(20);
+        assertThat(jdbcTemplate.queryForObject("SELECT total_amount FROM shopping_carts WHERE id = ?", BigDecimal.class, cartId))
+                .isEqualByComparingTo("24000.00");
+        // the held batch and one batch for everything queued behind it
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM shopping_carts WHERE id = ?", Long.class, cartId))
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void mutations_returnSavedCart() {
+        ShoppingCartModel added = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 2, null);
+        Long itemId = added.getItems().getFirst().getId();
+
+        ShoppingCartModel updated = shoppingCartService.updateItemQuantity(cartId, itemId, 3, added.getVersion());
+        assertThat(updated.getTotalAmount()).isEqualByComparingTo("3600.00");
+        assertThat(updated.getVersion()).isEqualTo(added.getVersion() + 1);
+
+        ShoppingCartModel removed = shoppingCartService.removeItem(cartId, itemId, null);
+        assertThat(removed.getItems()).isEmpty();
+        assertThat(removed.getTotalAmount()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void addItem_rejectsStaleVersion() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, 0L));
+    }
+
+    @Test
+    void updateItemQuantity_unknownItemThrowsNotFound() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+
+        assertThrows(NotFoundException.class,
+                () -> shoppingCartService.updateItemQuantity(cartId, -1L, 2, null));
+        assertThrows(NotFoundException.class,
+                () -> shoppingCartService.addItem(-1L, ProductType.LAPTOP, 1, null));
+    }
+
+    private CompletableFuture<ShoppingCartModel> addLaptopAsync() {
+        return CompletableFuture.supplyAsync(() -> shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null));
+    }
+
+    private void awaitQueued(int commands) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        while (queued() < commands && Instant.now().isBefore(deadline)) {
+            Thread.sleep(10);
+        }
+        assertThat(queued()).isEqualTo(commands);
+    }
+
+    private double queued() {
+        return meterRegistry.get("skycommerce.cart.serialized.queued").gauge().value();
+    }
+}
@@ -1,6 +1,8 @@
 package com.rvk.skycommerce.integration.service;
 
 import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
 import com.rvk.skycommerce.model.ProductType;
 import com.rvk.skycommerce.model.ShoppingCartModel;
 import com.rvk.skycommerce.repository.ClientRepository;
@@ -12,6 +14,7 @@ import com.rvk.skycommerce.repository.entity.ShoppingCart;
 import com.rvk.skycommerce.service.ShoppingCartService;
 import com.rvk.skycommerce.service.pricing.PriceCalculator;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -40,7 +43,7 @@ class ShoppingCartServiceImplTest {
     @Autowired
     private ShoppingCartRepository shoppingCartRepository;
 
-    @MockBean
+    @MockBean(answer = Answers.CALLS_REAL_METHODS)
     private PriceCalculator priceCalculator;
 
     @Test
@@ -108,7 +111,7 @@ class ShoppingCartServiceImplTest {
         given(priceCalculator.getUnitPrice(any(), eq(ProductType.HIGH_END_PHONE)))
                 .willReturn(new BigDecimal("1500.00"));
 
-        ShoppingCartModel model = shoppingCartService.addItem(cart.getId(), ProductType.HIGH_END_PHONE, 2);
+        ShoppingCartModel model = shoppingCartService.addItem(cart.getId(), ProductType.HIGH_END_PHONE, 2, null);
 
         assertThat(model.getId()).isEqualTo(cart.getId());
         assertThat(model.getItems()).hasSize(1);
@@ -124,6 +127,61 @@ class ShoppingCartServiceImplTest {
         assertThat(reloaded.getTotalAmount()).isEqualByComparingTo("3000.00");
     }
 
+    @Test
+    void addItems_mergesLinesAndPersistsTotal() {
+        IndividualClient client = new IndividualClient("IND-5", "Eva", "Green");
+        clientRepository.save(client);
+
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setTotalAmount(BigDecimal.ZERO);
+        cart.setItems(new ArrayList<>(List.of(new CartItem(ProductType.LAPTOP, 1))));
+        shoppingCartRepository.save(cart);
+
+        given(priceCalculator.getUnitPrice(any(), eq(ProductType.LAPTOP)))
+                .willReturn(new BigDecimal("1200.00"));
+        given(priceCalculator.getUnitPrice(any(), eq(ProductType.HIGH_END_PHONE)))
+                .willReturn(new BigDecimal("1500.00"));
+
+        ShoppingCartModel model = shoppingCartService.addItems(cart.getId(), List.of(
+                AddCartItemModel.builder().productType(ProductType.LAPTOP).quantity(1).build(),
+                AddCartItemModel.builder().productType(ProductType.HIGH_END_PHONE).quantity(2).build()
+        ), null);
+
+        assertThat(model.getItems()).hasSize(2);
+        assertThat(model.getTotalAmount()).isEqualByComparingTo("5400.00");
+
+        ShoppingCart reloaded = shoppingCartRepository.findByIdWithItems(cart.getId())
+                .orElseThrow();
+        assertThat(reloaded.getItems()).hasSize(2);
+        assertThat(reloaded.getItems())
+                .filteredOn(i -> i.getProductType() == ProductType.LAPTOP)
+                .singleElement()
+                .extracting(CartItem::getQuantity)
+                .isEqualTo(2);
+        assertThat(reloaded.getTotalAmount()).isEqualByComparingTo("5400.00");
+    }
+
+    @Test
+    void addItem_incrementsVersionAndRejectsStaleExpectedVersion() {
+        IndividualClient client = new IndividualClient("IND-6", "Tom", "Brown");
+        clientRepository.save(client);
+
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setTotalAmount(BigDecimal.ZERO);
+        shoppingCartRepository.save(cart);
+
+        given(priceCalculator.getUnitPrice(any(), eq(ProductType.LAPTOP)))
+                .willReturn(new BigDecimal("1200.00"));
+
+        ShoppingCartModel first = shoppingCartService.addItem(cart.getId(), ProductType.LAPTOP, 1, 0L);
+        assertThat(first.getVersion()).isEqualTo(1L);
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> shoppingCartService.addItem(cart.getId(), ProductType.LAPTOP, 1, 0L)
+        );
+    }
+
     @Test
     void updateItemQuantity_recalculatesTotal_forProfessional() {
         ProfessionalClient client = new ProfessionalClient(
@@ -146,7 +204,7 @@ class ShoppingCartServiceImplTest {
         given(priceCalculator.getUnitPrice(any(), eq(ProductType.LAPTOP)))
                 .willReturn(new BigDecimal("900.00"));
 
-        ShoppingCartModel model = shoppingCartService.updateItemQuantity(cart.getId(), item.getId(), 3);
+        ShoppingCartModel model = shoppingCartService.updateItemQuantity(cart.getId(), item.getId(), 3, null);
 
         assertThat(model.getItems()).hasSize(1);
         assertThat(model.getItems().getFirst().getQuantity()).isEqualTo(3);
@@ -179,7 +237,7 @@ class ShoppingCartServiceImplTest {
         items.add(item2);
         cart.setItems(items);
         cart.setTotalAmount(BigDecimal.valueOf(2600.00));
-        shoppingCartRepository.save(cart);
+        shoppingCartRepository.saveAndFlush(cart);
 
         given(priceCalculator.getUnitPrice(any(), eq(ProductType.MID_RANGE_PHONE)))
                 .willReturn(new BigDecimal("600.00"));
@@ -189,7 +247,7 @@ class ShoppingCartServiceImplTest {
         ShoppingCartModel before = shoppingCartService.getCart(cart.getId());
         assertThat(before.getTotalAmount()).isEqualByComparingTo("2600.00");
 
-        ShoppingCartModel after = shoppingCartService.removeItem(cart.getId(), item1.getId());
+        ShoppingCartModel after = shoppingCartService.removeItem(cart.getId(), item1.getId(), null);
 
         assertThat(after.getItems()).hasSize(1);
         assertThat(after.getItems().getFirst().getProductType()).isEqualTo(ProductType.LAPTOP);
@@ -210,7 +268,7 @@ class ShoppingCartServiceImplTest {
         CartItem item = new CartItem(ProductType.HIGH_END_PHONE, 1);
         cart.setItems(new ArrayList<>(List.of(item)));
         cart.setTotalAmount(new BigDecimal("9999.00"));
-        shoppingCartRepository.save(cart);
+        shoppingCartRepository.saveAndFlush(cart);
 
         given(priceCalculator.getUnitPrice(any(), any()))
                 .willReturn(BigDecimal.ZERO);
@@ -224,7 +282,7 @@ class ShoppingCartServiceImplTest {
     void addItem_throwsWhenCartNotFound() {
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.addItem(999L, ProductType.LAPTOP, 1)
+                () -> shoppingCartService.addItem(999L, ProductType.LAPTOP, 1, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Cart with id 999 not found");
@@ -242,7 +300,7 @@ class ShoppingCartServiceImplTest {
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.updateItemQuantity(cart.getId(), 123L, 1)
+                () -> shoppingCartService.updateItemQuantity(cart.getId(), 123L, 1, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Item with id 123 not found in cart " + cart.getId());
@@ -260,7 +318,7 @@ class ShoppingCartServiceImplTest {
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.removeItem(cart.getId(), 123L)
+                () -> shoppingCartService.removeItem(cart.getId(), 123L, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Item with id 123 not found in cart " + cart.getId());
@@ -0,0 +1,186 @@
+package com.rvk.skycommerce.integration.service;
+
+import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.IndividualClient;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import com.rvk.skycommerce.service.ShoppingCartService;
+import com.rvk.skycommerce.service.UpsertShoppingCartServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "skycommerce.cart.write-mode=upsert")
+@Transactional
+class UpsertShoppingCartServiceImplTest {
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        IndividualClient client = clientRepository.saveAndFlush(new IndividualClient("IND-UPSERT", "Ada", "Lovelace"));
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setTotalAmount(BigDecimal.ZERO);
+        cartId = shoppingCartRepository.saveAndFlush(cart).getId();
+    }
+
+    @Test
+    void usesUpsertImplementation() {
+        assertThat(shoppingCartService).isInstanceOf(UpsertShoppingCartServiceImpl.class);
+    }
+
+    @Test
+    void addItem_mergesRepeatedProductIntoOneLine() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+        ShoppingCartModel model = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 2, null);
+
+        assertThat(model.getItems()).hasSize(1);
+        assertThat(model.getItems().getFirst().getQuantity()).isEqualTo(3);
+        assertThat(model.getItems().getFirst().getLineTotal()).isEqualByComparingTo("3600.00");
+        assertThat(model.getTotalAmount()).isEqualByComparingTo("3600.00");
+        assertThat(storedTotal()).isEqualByComparingTo("3600.00");
+        assertThat(lineCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT unit_price FROM cart_items WHERE cart_id = ?", BigDecimal.class, cartId))
+                .isEqualByComparingTo("1200.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT line_total FROM cart_items WHERE cart_id = ?", BigDecimal.class, cartId))
+                .isEqualByComparingTo("3600.00");
+    }
+
+    @Test
+    void addItems_upsertsAllLinesAndAppliesOneDelta() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+
+        ShoppingCartModel model = shoppingCartService.addItems(cartId, List.of(
+                AddCartItemModel.builder().productType(ProductType.LAPTOP).quantity(1).build(),
+                AddCartItemModel.builder().productType(ProductType.HIGH_END_PHONE).quantity(2).build()
+        ), null);
+
+        assertThat(model.getItems()).hasSize(2);
+        assertThat(model.getTotalAmount()).isEqualByComparingTo("5400.00");
+        assertThat(storedTotal()).isEqualByComparingTo("5400.00");
+    }
+
+    @Test
+    void updateItemQuantity_appliesQuantityDeltaToTotal() {
+        Long itemId = shoppingCartService.addItem(cartId, ProductType.MID_RANGE_PHONE, 5, null).getItems().getFirst().getId();
+
+        ShoppingCartModel model = shoppingCartService.updateItemQuantity(cartId, itemId, 2, null);
+
+        assertThat(model.getItems().getFirst().getQuantity()).isEqualTo(2);
+        assertThat(model.getTotalAmount()).isEqualByComparingTo("1600.00");
+        assertThat(storedTotal()).isEqualByComparingTo("1600.00");
+    }
+
+    @Test
+    void updateItemQuantity_movesTotalByTheChangedLineOnly() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+        Long phoneId = shoppingCartService.addItem(cartId, ProductType.MID_RANGE_PHONE, 1, null).getItems().stream()
+                .filter(i -> i.getProductType() == ProductType.MID_RANGE_PHONE)
+                .findFirst()
+                .orElseThrow()
+                .getId();
+        // the laptop was written at an older price and keeps it
+        jdbcTemplate.update("UPDATE cart_items SET unit_price = 1000.00, line_total = 1000.00 "
+                + "WHERE cart_id = ? AND product_type = 'LAPTOP'", cartId);
+        jdbcTemplate.update("UPDATE shopping_carts SET total_amount = 1800.00 WHERE id = ?", cartId);
+
+        ShoppingCartModel model = shoppingCartService.updateItemQuantity(cartId, phoneId, 3, null);
+
+        assertThat(model.getTotalAmount()).isEqualByComparingTo("3400.00");
+        assertThat(storedTotal()).isEqualByComparingTo("3400.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT line_total FROM cart_items WHERE id = ?", BigDecimal.class, phoneId))
+                .isEqualByComparingTo("2400.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT line_total FROM cart_items WHERE cart_id = ? AND product_type = 'LAPTOP'",
+                BigDecimal.class, cartId)).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void removeItem_subtractsLineFromTotal() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+        Long phoneId = shoppingCartService.addItem(cartId, ProductType.HIGH_END_PHONE, 1, null).getItems().stream()
+                .filter(i -> i.getProductType() == ProductType.HIGH_END_PHONE)
+                .findFirst()
+                .orElseThrow()
+                .getId();
+
+        ShoppingCartModel model = shoppingCartService.removeItem(cartId, phoneId, null);
+
+        assertThat(model.getItems()).hasSize(1);
+        assertThat(model.getTotalAmount()).isEqualByComparingTo("1200.00");
+        assertThat(lineCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateItemQuantity_throwsWhenItemNotInCart() {
+        NotFoundException ex = assertThrows(
+                NotFoundException.class,
+                () -> shoppingCartService.updateItemQuantity(cartId, 999L, 1, null)
+        );
+
+        assertThat(ex.getMessage()).isEqualTo("Item with id 999 not found in cart " + cartId);
+    }
+
+    @Test
+    void addItem_throwsWhenCartNotFound() {
+        NotFoundException ex = assertThrows(
+                NotFoundException.class,
+                () -> shoppingCartService.addItem(999L, ProductType.LAPTOP, 1, null)
+        );
+
+        assertThat(ex.getMessage()).isEqualTo("Cart with id 999 not found");
+    }
+
+    @Test
+    void addItem_bumpsVersionAndRejectsStaleExpectedVersion() {
+        ShoppingCartModel first = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, 0L);
+        assertThat(first.getVersion()).isEqualTo(1L);
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, 0L)
+        );
+    }
+
+    @Test
+    void schema_rejectsDuplicateProductLines() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO cart_items (cart_id, product_type, quantity) VALUES (?, 'LAPTOP', 1)", cartId));
+    }
+
+    private BigDecimal storedTotal() {
+        return jdbcTemplate.queryForObject("SELECT total_amount FROM shopping_carts WHERE id = ?", BigDecimal.class, cartId);
+    }
+
+    private int lineCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE cart_id = ?", Integer.class, cartId);
+    }
+}
@@ -0,0 +1,209 @@
+package com.rvk.skycommerce.integration.service;
+
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.service.ShoppingCartService;
+import com.rvk.skycommerce.service.WriteBehindShoppingCartServiceImpl;
+import com.rvk.skycommerce.service.pricing.ClientCartRepricer;
+import com.rvk.skycommerce.service.writebehind.WriteBehindCartStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "skycommerce.cart.write-mode=write-behind",
+        "skycommerce.cart.write-behind.flush-interval=1h"
+})
+class WriteBehindShoppingCartServiceImplTest {
+
+    @TempDir
+    static Path logDirectory;
+
+    @DynamicPropertySource
+    static void logDirectory(DynamicPropertyRegistry registry) {
+        registry.add("skycommerce.cart.write-behind.log-directory", () -> logDirectory.toString());
+    }
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private WriteBehindCartStore cartStore;
+
+    @Autowired
+    private ClientCartRepricer clientCartRepricer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        cartId = shoppingCartService.createCartForClient("C_IND_001").getId();
+    }
+
+    @Test
+    void usesWriteBehindImplementation() {
+        assertThat(shoppingCartService).isInstanceOf(WriteBehindShoppingCartServiceImpl.class);
+    }
+
+    @Test
+    void mutations_areServedFromMemoryUntilFlushed() throws IOException {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+        ShoppingCartModel model = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 2, null);
+
+        assertThat(model.getTotalAmount()).isEqualByComparingTo("3600.00");
+        assertThat(model.getVersion()).isEqualTo(2L);
+        assertThat(shoppingCartService.getCart(cartId).getTotalAmount()).isEqualByComparingTo("3600.00");
+        assertThat(storedTotal()).isEqualByComparingTo("0.00");
+
+        cartStore.flush();
+
+        assertThat(storedTotal()).isEqualByComparingTo("3600.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM shopping_carts WHERE id = ?", Long.class, cartId))
+                .isEqualTo(2L);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE cart_id = ?", Integer.class, cartId))
+                .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT line_total FROM cart_items WHERE cart_id = ?", BigDecimal.class, cartId))
+                .isEqualByComparingTo("3600.00");
+    }
+
+    @Test
+    void removeItem_deletesLineOnFlush() throws IOException {
+        ShoppingCartModel added = shoppingCartService.addItem(cartId, ProductType.HIGH_END_PHONE, 1, null);
+        Long itemId = added.getItems().getFirst().getId();
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+
+        ShoppingCartModel model = shoppingCartService.removeItem(cartId, itemId, null);
+        cartStore.flush();
+
+        assertThat(model.getItems()).extracting("productType").containsExactly(ProductType.LAPTOP);
+        assertThat(lineCount()).isEqualTo(1);
+        assertThat(storedTotal()).isEqualByComparingTo("1200.00");
+    }
+
+    @Test
+    void addItem_revivesLineRemovedBeforeFlushUnderSameId() throws IOException {
+        Long itemId = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null).getItems().getFirst().getId();
+        shoppingCartService.removeItem(cartId, itemId, null);
+
+        ShoppingCartModel model = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 4, null);
+        cartStore.flush();
+
+        assertThat(model.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getId()).isEqualTo(itemId);
+            assertThat(item.getQuantity()).isEqualTo(4);
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM cart_items WHERE cart_id = ?", Long.class, cartId))
+                .isEqualTo(itemId);
+        assertThat(storedTotal()).isEqualByComparingTo("4800.00");
+    }
+
+    @Test
+    void addItem_insertsNewLineOutsideAnyTransaction() {
+        List<Boolean> inTransaction = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(shoppingCartJdbcRepository).insertItem(anyLong(), any());
+
+        Long itemId = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null).getItems().getFirst().getId();
+
+        // committed before the state carrying its id was published
+        assertThat(inTransaction).containsExactly(false);
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM cart_items WHERE cart_id = ?", Long.class, cartId))
+                .isEqualTo(itemId);
+    }
+
+    @Test
+    void addItem_rejectsStaleVersion() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, 0L));
+    }
+
+    @Test
+    void flush_dropsCartChangedOutsideTheStore() throws IOException {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+        jdbcTemplate.update("UPDATE shopping_carts SET version = 5 WHERE id = ?", cartId);
+
+        cartStore.flush();
+
+        assertThat(storedVersion()).isEqualTo(5L);
+        assertThat(storedTotal()).isEqualByComparingTo("0.00");
+        assertThat(cartStore.find(cartId)).isEmpty();
+        assertThat(shoppingCartService.getCart(cartId).getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void repricing_flushesHeldCartFirstAndLosesToIt() {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+
+        clientCartRepricer.repriceClientCarts("C_IND_001");
+
+        assertThat(storedVersion()).isEqualTo(1L);
+        assertThat(storedTotal()).isEqualByComparingTo("1200.00");
+        assertThat(cartStore.find(cartId)).isEmpty();
+    }
+
+    @Test
+    void repricing_dropsHeldCartSoItsNextUseReloadsTheRepricedRow() throws IOException {
+        shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, null);
+        cartStore.flush();
+        jdbcTemplate.update("UPDATE shopping_carts SET total_amount = 1.00 WHERE id = ?", cartId);
+        jdbcTemplate.update("UPDATE cart_items SET unit_price = 1.00, line_total = 1.00 WHERE cart_id = ?", cartId);
+
+        clientCartRepricer.repriceClientCarts("C_IND_001");
+
+        assertThat(storedVersion()).isEqualTo(2L);
+        assertThat(cartStore.find(cartId)).isEmpty();
+        ShoppingCartModel reloaded = shoppingCartService.getCart(cartId);
+        assertThat(reloaded.getVersion()).isEqualTo(2L);
+        assertThat(reloaded.getTotalAmount()).isEqualByComparingTo("1200.00");
+
+        ShoppingCartModel model = shoppingCartService.addItem(cartId, ProductType.LAPTOP, 1, 2L);
+        cartStore.flush();
+
+        assertThat(model.getVersion()).isEqualTo(3L);
+        assertThat(storedVersion()).isEqualTo(3L);
+        assertThat(storedTotal()).isEqualByComparingTo("2400.00");
+    }
+
+    private Long storedVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM shopping_carts WHERE id = ?", Long.class, cartId);
+    }
+
+    private BigDecimal storedTotal() {
+        return jdbcTemplate.queryForObject("SELECT total_amount FROM shopping_carts WHERE id = ?", BigDecimal.class, cartId);
+    }
+
+    private Integer lineCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE cart_id = ?", Integer.class, cartId);
+    }
+}
@@ -0,0 +1,239 @@
+package com.rvk.skycommerce.integration.service.pricing;
+
+import com.rvk.skycommerce.config.RepricingProperties;
+import com.rvk.skycommerce.exception.ConflictException;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.RepricingCheckpointJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
+import com.rvk.skycommerce.repository.ShoppingCartRepository;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.repository.entity.Client;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import com.rvk.skycommerce.service.pricing.CartRepricingJob;
+import com.rvk.skycommerce.service.pricing.RepricingStatus;
+import com.rvk.skycommerce.service.pricing.StoredCartPricer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "skycommerce.repricing.chunk-size=2",
+        "skycommerce.repricing.workers=2"
+})
+class CartRepricingJobTest {
+
+    @Autowired
+    private CartRepricingJob job;
+
+    @Autowired
+    private ShoppingCartRepository cartRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+
+    @Autowired
+    private RepricingCheckpointJdbcRepository checkpoints;
+
+    @Autowired
+    private RepricingProperties repricingProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private StoredCartPricer storedCartPricer;
+
+    private long lastExistingCartId;
+
+    @BeforeEach
+    void setUp() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM shopping_carts", Long.class);
+        lastExistingCartId = maxId != null ? maxId : 0L;
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id > ?", lastExistingCartId);
+        jdbcTemplate.update("DELETE FROM shopping_carts WHERE id > ?", lastExistingCartId);
+    }
+
+    @Test
+    void start_recomputesStaleTotalsAndLeavesCurrentOnesAlone() throws Exception {
+        ShoppingCart stale = saveCart("C_IND_001", "1.00", ProductType.LAPTOP, 2);
+        ShoppingCart current = saveCart("C_IND_001", "1200.00", ProductType.LAPTOP, 1);
+        ShoppingCart staleProfessional = saveCart("C_PRO_HIGH_001", "0.00", ProductType.HIGH_END_PHONE, 3);
+        cacheManager.getCache("shoppingCarts").put(stale.getId(), "stale");
+
+        job.start(lastExistingCartId);
+        RepricingStatus status = awaitFinished();
+
+        assertThat(status.getState()).isEqualTo(RepricingStatus.State.COMPLETED);
+        assertThat(status.getScanned()).isEqualTo(3);
+        assertThat(status.getRepriced()).isEqualTo(2);
+        assertThat(status.getUnchanged()).isEqualTo(1);
+        assertThat(status.getConflicts()).isZero();
+        assertThat(status.getCheckpointCartId()).isEqualTo(staleProfessional.getId());
+
+        assertThat(totalOf(stale)).isEqualByComparingTo("2400.00");
+        assertThat(totalOf(current)).isEqualByComparingTo("1200.00");
+        assertThat(totalOf(staleProfessional)).isEqualByComparingTo("3000.00");
+        assertThat(versionOf(stale)).isEqualTo(stale.getVersion() + 1);
+        assertThat(versionOf(current)).isEqualTo(current.getVersion());
+        assertThat(cacheManager.getCache("shoppingCarts").get(stale.getId())).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT unit_price FROM cart_items WHERE cart_id = ?",
+                BigDecimal.class, stale.getId())).isEqualByComparingTo("1200.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT line_total FROM cart_items WHERE cart_id = ?",
+                BigDecimal.class, stale.getId())).isEqualByComparingTo("2400.00");
+    }
+
+    @Test
+    void start_repricesACartChangedBetweenItsReadAndWriteAgain() throws Exception {
+        ShoppingCart stale = saveCart("C_IND_001", "1.00", ProductType.LAPTOP, 2);
+        AtomicBoolean changed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (changed.compareAndSet(false, true)) {
+                // a mutation that only touched the total commits before the job writes
+                jdbcTemplate.update("UPDATE shopping_carts SET total_amount = 5.00, version = version + 1 WHERE id = ?",
+                        stale.getId());
+            }
+            return invocation.callRealMethod();
+        }).when(storedCartPricer).write(anyList(), anyMap(), any(TransactionTemplate.class));
+
+        job.start(lastExistingCartId);
+        RepricingStatus status = awaitFinished();
+
+        assertThat(status.getState()).isEqualTo(RepricingStatus.State.COMPLETED);
+        assertThat(status.getRepriced()).isEqualTo(1);
+        assertThat(status.getConflicts()).isZero();
+        assertThat(totalOf(stale)).isEqualByComparingTo("2400.00");
+        assertThat(versionOf(stale)).isEqualTo(stale.getVersion() + 2);
+        assertThat(jdbcTemplate.queryForObject("SELECT unit_price FROM cart_items WHERE cart_id = ?",
+                BigDecimal.class, stale.getId())).isEqualByComparingTo("1200.00");
+    }
+
+    @Test
+    void start_resumesAfterTheGivenCartId() throws Exception {
+        ShoppingCart processed = saveCart("C_IND_001", "1.00", ProductType.LAPTOP, 1);
+        ShoppingCart remaining = saveCart("C_IND_001", "1.00", ProductType.MID_RANGE_PHONE, 1);
+
+        job.start(processed.getId());
+        RepricingStatus status = awaitFinished();
+
+        assertThat(status.getState()).isEqualTo(RepricingStatus.State.COMPLETED);
+        assertThat(status.getStartAfterCartId()).isEqualTo(processed.getId());
+        assertThat(status.getScanned()).isEqualTo(1);
+        assertThat(totalOf(processed)).isEqualByComparingTo("1.00");
+        assertThat(totalOf(remaining)).isEqualByComparingTo("800.00");
+    }
+
+    @Test
+    void status_shouldReportTheRecordedCheckpointAfterARestart() throws Exception {
+        saveCart("C_IND_001", "1.00", ProductType.LAPTOP, 1);
+        ShoppingCart last = saveCart("C_IND_001", "1.00", ProductType.MID_RANGE_PHONE, 1);
+
+        job.start(lastExistingCartId);
+        assertThat(awaitFinished().getState()).isEqualTo(RepricingStatus.State.COMPLETED);
+
+        RepricingStatus recorded = restartedJob().status();
+        assertThat(recorded.getState()).isEqualTo(RepricingStatus.State.COMPLETED);
+        assertThat(recorded.getStartAfterCartId()).isEqualTo(lastExistingCartId);
+        assertThat(recorded.getCheckpointCartId()).isEqualTo(last.getId());
+
+        checkpoints.startRun(last.getId(), RepricingStatus.State.RUNNING.name());
+        RepricingStatus interrupted = restartedJob().status();
+        assertThat(interrupted.getState()).isEqualTo(RepricingStatus.State.FAILED);
+        assertThat(interrupted.getCheckpointCartId()).isEqualTo(last.getId());
+        assertThat(interrupted.getError()).isEqualTo("Interrupted by a restart");
+    }
+
+    @Test
+    void start_rejectsASecondConcurrentRun() throws Exception {
+        saveCart("C_IND_002", "1.00", ProductType.LAPTOP, 1);
+        CountDownLatch pricing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            pricing.countDown();
+            release.await();
+            return invocation.callRealMethod();
+        }).when(storedCartPricer).reprice(anyList(), anyMap());
+
+        job.start(lastExistingCartId);
+        try {
+            assertThat(pricing.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(job.status().getState()).isEqualTo(RepricingStatus.State.RUNNING);
+            assertThatThrownBy(() -> job.start(lastExistingCartId))
+                    .isInstanceOf(ConflictException.class);
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(awaitFinished().getState()).isEqualTo(RepricingStatus.State.COMPLETED);
+    }
+
+    private CartRepricingJob restartedJob() {
+        return new CartRepricingJob(shoppingCartJdbcRepository, storedCartPricer, cacheManager,
+                repricingProperties, transactionManager, checkpoints);
+    }
+
+    private ShoppingCart saveCart(String clientId, String total, ProductType productType, int quantity) {
+        Client client = clientRepository.findById(clientId).orElseThrow();
+        ShoppingCart cart = new ShoppingCart(client);
+        CartItem item = new CartItem(productType, quantity);
+        item.setUnitPrice(new BigDecimal(total).divide(BigDecimal.valueOf(quantity)));
+        item.setLineTotal(new BigDecimal(total));
+        cart.getItems().add(item);
+        cart.setTotalAmount(new BigDecimal(total));
+        return cartRepository.saveAndFlush(cart);
+    }
+
+    private BigDecimal totalOf(ShoppingCart cart) {
+        return jdbcTemplate.queryForObject("SELECT total_amount FROM shopping_carts WHERE id = ?",
+                BigDecimal.class, cart.getId());
+    }
+
+    private long versionOf(ShoppingCart cart) {
+        return jdbcTemplate.queryForObject("SELECT version FROM shopping_carts WHERE id = ?",
+                Long.class, cart.getId());
+    }
+
+    private RepricingStatus awaitFinished() throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        RepricingStatus status = job.status();
+        while (status.getState() == RepricingStatus.State.RUNNING && Instant.now().isBefore(deadline)) {
+            Thread.sleep(20);
+            status = job.status();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,99 @@
+package com.rvk.skycommerce.integration.service.pricing;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ProfessionalClientModel;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.service.ClientService;
+import com.rvk.skycommerce.service.ShoppingCartService;
+import com.rvk.skycommerce.service.pricing.ClientCartRepricer;
+import com.rvk.skycommerce.service.pricing.StoredCartPricer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class ClientCartRepricerTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private ClientCartRepricer clientCartRepricer;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private StoredCartPricer storedCartPricer;
+
+    @Test
+    void onRevenueChanged_shouldNotFailTheCommittedClientUpdate() {
+        ProfessionalClientModel client = createClient("Failing Co", "REG-FAIL");
+        ShoppingCartModel cart = shoppingCartService.createCartForClient(client.getId());
+        shoppingCartService.addItem(cart.getId(), ProductType.LAPTOP, 2, null);
+        double failuresBefore = failures();
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(storedCartPricer).reprice(anyList(), anyMap());
+
+        ProfessionalClientModel updated = clientService.updateProfessionalClient(
+                client.getId(), "Failing Co", "REG-FAIL", new BigDecimal("20000000.00"), "VAT-FAIL");
+
+        assertThat(updated.getAnnualRevenue()).isEqualByComparingTo("20000000.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT annual_revenue FROM clients WHERE id = ?",
+                BigDecimal.class, client.getId())).isEqualByComparingTo("20000000.00");
+        assertThat(failures()).isEqualTo(failuresBefore + 1);
+        assertThat(shoppingCartService.getCart(cart.getId()).getTotalAmount()).isEqualByComparingTo("2000.00");
+    }
+
+    @Test
+    void repriceClientCarts_shouldEvictCartsStillConflictingAfterTheLastAttempt() {
+        ProfessionalClientModel client = createClient("Busy Co", "REG-BUSY");
+        ShoppingCartModel cart = shoppingCartService.createCartForClient(client.getId());
+        shoppingCartService.addItem(cart.getId(), ProductType.LAPTOP, 2, null);
+        jdbcTemplate.update("UPDATE clients SET annual_revenue = 20000000.00 WHERE id = ?", client.getId());
+        assertThat(cacheManager.getCache("shoppingCarts").get(cart.getId())).isNotNull();
+        // every write loses to a concurrent update
+        doReturn(List.of()).when(storedCartPricer).write(anyList(), anyMap(), any(TransactionTemplate.class));
+
+        int repriced = clientCartRepricer.repriceClientCarts(client.getId());
+
+        assertThat(repriced).isZero();
+        verify(storedCartPricer, times(3)).write(anyList(), anyMap(), any(TransactionTemplate.class));
+        assertThat(cacheManager.getCache("shoppingCarts").get(cart.getId())).isNull();
+    }
+
+    private ProfessionalClientModel createClient(String companyName, String registrationNumber) {
+        return clientService.createProfessionalClient(companyName, registrationNumber,
+                new BigDecimal("5000000.00"), "VAT-" + registrationNumber);
+    }
+
+    private double failures() {
+        return meterRegistry.get("skycommerce.cart.client-repricing.failures").counter().count();
+    }
+}
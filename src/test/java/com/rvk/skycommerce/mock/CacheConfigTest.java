@@ -0,0 +1,87 @@
+package com.rvk.skycommerce.mock;
+
+import com.rvk.skycommerce.config.CacheConfig;
+import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.repository.PriceRuleRepository;
+import com.rvk.skycommerce.repository.entity.PriceRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheConfigTest {
+
+    private final CacheConfig cacheConfig = new CacheConfig();
+    private PriceRuleRepository priceRuleRepository;
+
+    @BeforeEach
+    void setUp() {
+        priceRuleRepository = mock(PriceRuleRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheConfig.shutdown();
+    }
+
+    @Test
+    void priceRules_shouldUseItsOwnSpecAndServeStaleValueWhileRefreshing() throws InterruptedException {
+        List<PriceRule> first = List.of(mock(PriceRule.class));
+        List<PriceRule> second = List.of(mock(PriceRule.class), mock(PriceRule.class));
+        when(priceRuleRepository.findAll()).thenReturn(first, second);
+
+        CacheManager manager = cacheConfig.cacheManager(
+                properties(spec(Duration.ofMinutes(30), null), spec(Duration.ofMinutes(10), Duration.ofMillis(50))),
+                priceRuleRepository);
+        ((SimpleCacheManager) manager).afterPropertiesSet();
+        Cache priceRules = manager.getCache("priceRules");
+
+        assertThat(priceRules.get(SimpleKey.EMPTY).get()).isSameAs(first);
+
+        Thread.sleep(100);
+
+        // past the refresh interval the stale list is returned immediately and reloaded behind it
+        assertThat(priceRules.get(SimpleKey.EMPTY).get()).isSameAs(first);
+        verify(priceRuleRepository, timeout(1000).times(2)).findAll();
+    }
+
+    @Test
+    void priceRules_shouldRejectRefreshNotShorterThanTtl() {
+        CacheProperties properties = properties(
+                spec(Duration.ofMinutes(30), null),
+                spec(Duration.ofMinutes(10), Duration.ofMinutes(10)));
+
+        assertThrows(IllegalStateException.class,
+                () -> cacheConfig.cacheManager(properties, priceRuleRepository));
+    }
+
+    private static CacheProperties properties(CacheProperties.CacheSpec shoppingCarts,
+                                              CacheProperties.CacheSpec priceRules) {
+        CacheProperties properties = new CacheProperties();
+        properties.setShoppingCarts(shoppingCarts);
+        properties.setPriceRules(priceRules);
+        properties.setClients(shoppingCarts);
+        return properties;
+    }
+
+    private static CacheProperties.CacheSpec spec(Duration ttl, Duration refresh) {
+        CacheProperties.CacheSpec spec = new CacheProperties.CacheSpec();
+        spec.setTtl(ttl);
+        spec.setRefresh(refresh);
+        spec.setMaxSize(100);
+        return spec;
+    }
+}
@@ -0,0 +1,91 @@
+package com.rvk.skycommerce.mock;
+
+import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.config.CachingAuthenticationProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingAuthenticationProviderTest {
+
+    private PasswordEncoder encoder;
+    private SimpleMeterRegistry registry;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        encoder = spy(new BCryptPasswordEncoder(4));
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+                User.withUsername("user")
+                        .password(encoder.encode("secret"))
+                        .roles("USER")
+                        .build());
+
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(users);
+        dao.setPasswordEncoder(encoder);
+
+        CacheProperties.CacheSpec spec = new CacheProperties.CacheSpec();
+        spec.setTtl(Duration.ofMinutes(5));
+        spec.setMaxSize(100);
+
+        provider = new CachingAuthenticationProvider(dao, spec);
+        registry = new SimpleMeterRegistry();
+        provider.bindMetrics(registry);
+    }
+
+    @Test
+    void authenticate_shouldVerifyPasswordOnlyOnceForRepeatedCredentials() {
+        Authentication first = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("user", "secret"));
+        Authentication second = provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("user", "secret"));
+
+        assertThat(first.isAuthenticated()).isTrue();
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("user");
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        assertThat(second).isNotSameAs(first);
+
+        verify(encoder, times(1)).matches(any(), any());
+        assertThat(registry.get("cache.gets").tag("cache", "authentications").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void authenticate_shouldNotCacheFailedAttempts() {
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("user", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("user", "wrong")));
+
+        verify(encoder, times(2)).matches(any(), any());
+    }
+
+    @Test
+    void authenticate_shouldVerifyAgainWhenPasswordDiffers() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user", "secret"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("user", "secret2")));
+
+        verify(encoder, times(2)).matches(any(), any());
+    }
+}
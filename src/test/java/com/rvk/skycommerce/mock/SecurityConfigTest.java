@@ -24,6 +24,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -113,4 +114,38 @@ class SecurityConfigTest {
                         .with(httpBasic("admin", "temp123")))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void userCannotAccessPricingEndpoint() throws Exception {
+        mockMvc.perform(get("/actuator/pricing")
+                        .with(httpBasic("user", "temp123")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminCanAccessPricingEndpoint() throws Exception {
+        mockMvc.perform(get("/actuator/pricing")
+                        .with(httpBasic("admin", "temp123")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousCannotAccessPrometheusEndpoint() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void userCannotAccessPrometheusEndpoint() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")
+                        .with(httpBasic("user", "temp123")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void userCannotStartRepricing() throws Exception {
+        mockMvc.perform(post("/actuator/repricing")
+                        .with(httpBasic("user", "temp123")))
+                .andExpect(status().isForbidden());
+    }
 }
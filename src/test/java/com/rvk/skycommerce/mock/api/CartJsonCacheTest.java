@@ -0,0 +1,81 @@
+package com.rvk.skycommerce.mock.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rvk.skycommerce.api.CartJsonCache;
+import com.rvk.skycommerce.api.mapper.CartItemResponseMapper;
+import com.rvk.skycommerce.config.CacheProperties;
+import com.rvk.skycommerce.model.CartItemModel;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CartJsonCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private CartJsonCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        CacheProperties.CacheSpec spec = new CacheProperties.CacheSpec();
+        spec.setTtl(Duration.ofMinutes(30));
+        spec.setMaxSize(100);
+        CacheProperties properties = new CacheProperties();
+        properties.setCartJson(spec);
+        cache = new CartJsonCache(objectMapper, properties, mock(ObjectProvider.class));
+    }
+
+    @Test
+    void json_shouldMatchJacksonOutputForTheResponse() throws Exception {
+        ShoppingCartModel model = cart(7L, 3L, 2);
+
+        assertThat(cache.json(model)).isEqualTo(objectMapper.writeValueAsBytes(CartItemResponseMapper.fromModel(model)));
+    }
+
+    @Test
+    void json_shouldReuseEncodingUntilVersionChanges() {
+        byte[] first = cache.json(cart(7L, 3L, 2));
+
+        assertThat(cache.json(cart(7L, 3L, 2))).isSameAs(first);
+
+        byte[] next = cache.json(cart(7L, 4L, 5));
+        assertThat(next).isNotSameAs(first);
+        assertThat(new String(next)).contains("\"quantity\":5");
+        assertThat(cache.json(cart(7L, 4L, 5))).isSameAs(next);
+    }
+
+    @Test
+    void json_shouldNotLetAnOlderVersionReplaceANewerEntry() {
+        byte[] newer = cache.json(cart(7L, 4L, 5));
+
+        cache.json(cart(7L, 3L, 2));
+
+        assertThat(cache.json(cart(7L, 4L, 5))).isSameAs(newer);
+    }
+
+    private static ShoppingCartModel cart(Long id, Long version, int quantity) {
+        return ShoppingCartModel.builder()
+                .id(id)
+                .clientId("CLIENT-1")
+                .items(List.of(CartItemModel.builder()
+                        .id(11L)
+                        .productType(ProductType.LAPTOP)
+                        .quantity(quantity)
+                        .unitPrice(new BigDecimal("1200.00"))
+                        .lineTotal(new BigDecimal("1200.00").multiply(BigDecimal.valueOf(quantity)))
+                        .build()))
+                .totalAmount(new BigDecimal("1200.00").multiply(BigDecimal.valueOf(quantity)))
+                .version(version)
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.rvk.skycommerce.mock.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rvk.skycommerce.api.ClientController;
+import com.rvk.skycommerce.api.ClientCursor;
 import com.rvk.skycommerce.api.dto.client.CreateIndividualClientRequest;
 import com.rvk.skycommerce.api.dto.client.CreateProfessionalClientRequest;
 import com.rvk.skycommerce.api.dto.client.UpdateIndividualClientRequest;
@@ -9,6 +10,7 @@ import com.rvk.skycommerce.api.dto.client.UpdateProfessionalClientRequest;
 import com.rvk.skycommerce.config.SecurityConfig;
 import com.rvk.skycommerce.model.IndividualClientModel;
 import com.rvk.skycommerce.model.ProfessionalClientModel;
+import com.rvk.skycommerce.model.TaggedModel;
 import com.rvk.skycommerce.service.ClientService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -26,9 +31,14 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -172,11 +182,12 @@ class ClientControllerTest {
                 .lastName("Doe")
                 .build();
 
-        given(clientService.getIndividualById("IND-1"))
-                .willReturn(model);
+        given(clientService.getTaggedIndividual("IND-1"))
+                .willReturn(new TaggedModel<>(model, "a1b2"));
 
         mockMvc.perform(get("/api/clients/individual/{id}", "IND-1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"a1b2\""))
                 .andExpect(jsonPath("$.id", is("IND-1")))
                 .andExpect(jsonPath("$.firstName", is("John")))
                 .andExpect(jsonPath("$.lastName", is("Doe")));
@@ -192,8 +203,8 @@ class ClientControllerTest {
                 .vatNumber("EU123")
                 .build();
 
-        given(clientService.getProfessionalById("PRO-1"))
-                .willReturn(model);
+        given(clientService.getTaggedProfessional("PRO-1"))
+                .willReturn(new TaggedModel<>(model, "c3d4"));
 
         mockMvc.perform(get("/api/clients/professional/{id}", "PRO-1"))
                 .andExpect(status().isOk())
@@ -204,6 +215,23 @@ class ClientControllerTest {
                 .andExpect(jsonPath("$.vatNumber", is("EU123")));
     }
 
+    @Test
+    void getProfessional_shouldReturn304WhenIfNoneMatchHasCurrentETag() throws Exception {
+        ProfessionalClientModel model = ProfessionalClientModel.builder()
+                .id("PRO-1")
+                .companyName("Acme")
+                .build();
+
+        given(clientService.getTaggedProfessional("PRO-1"))
+                .willReturn(new TaggedModel<>(model, "c3d4"));
+
+        mockMvc.perform(get("/api/clients/professional/{id}", "PRO-1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0000\", \"c3d4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"c3d4\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getIndividuals_shouldReturnPagedIndividuals() throws Exception {
         IndividualClientModel m1 = IndividualClientModel.builder()
@@ -261,4 +289,59 @@ class ClientControllerTest {
                 .andExpect(jsonPath("$.content[0].id", is("P1")))
                 .andExpect(jsonPath("$.content[1].id", is("P2")));
     }
+
+    @Test
+    void scrollIndividuals_shouldReturnFirstSliceWithNextCursor() throws Exception {
+        IndividualClientModel m1 = IndividualClientModel.builder()
+                .id("I1")
+                .firstName("A")
+                .lastName("One")
+                .build();
+        IndividualClientModel m2 = IndividualClientModel.builder()
+                .id("I2")
+                .firstName("B")
+                .lastName("Two")
+                .build();
+
+        given(clientService.scrollIndividuals(isNull(), eq(2)))
+                .willReturn(new SliceImpl<>(List.of(m1, m2), PageRequest.of(0, 2), true));
+
+        mockMvc.perform(get("/api/clients/individual")
+                        .param("cursor", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[1].id", is("I2")))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is(ClientCursor.encode("I2"))));
+    }
+
+    @Test
+    void scrollProfessionals_shouldContinueAfterDecodedCursorAndEndWithoutNextCursor() throws Exception {
+        ProfessionalClientModel p3 = ProfessionalClientModel.builder()
+                .id("P3")
+                .companyName("Co3")
+                .registrationNumber("REG3")
+                .annualRevenue(new BigDecimal("3000000.00"))
+                .vatNumber("VAT3")
+                .build();
+
+        given(clientService.scrollProfessionals("P2", 20))
+                .willReturn(new SliceImpl<>(List.of(p3), PageRequest.of(0, 20), false));
+
+        mockMvc.perform(get("/api/clients/professional")
+                        .param("cursor", ClientCursor.encode("P2")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is("P3")))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void scrollIndividuals_shouldReturnBadRequestForMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/clients/individual")
+                        .param("cursor", "not*base64"))
+                .andExpect(status().isBadRequest());
+    }
 }
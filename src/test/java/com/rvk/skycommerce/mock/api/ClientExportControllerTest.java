@@ -0,0 +1,86 @@
+package com.rvk.skycommerce.mock.api;
+
+import com.rvk.skycommerce.api.ClientExportController;
+import com.rvk.skycommerce.config.SecurityConfig;
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.service.ClientExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ClientExportController.class)
+@WithMockUser(roles = "ADMIN")
+@Import(SecurityConfig.class)
+class ClientExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ClientExportService clientExportService;
+
+    @Test
+    void exportClients_shouldStreamNdjsonForRequestedType() throws Exception {
+        given(clientExportService.exportClients(eq(ClientType.PROFESSIONAL), any(OutputStream.class)))
+                .willAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(1);
+                    out.write("{\"id\":\"P1\"}\n{\"id\":\"P2\"}\n".getBytes(StandardCharsets.UTF_8));
+                    return 2L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/admin/clients/export")
+                        .param("type", "PROFESSIONAL"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":\"P1\"}\n{\"id\":\"P2\"}\n"));
+    }
+
+    @Test
+    void exportClients_shouldExportAllTypesWhenTypeIsOmitted() throws Exception {
+        given(clientExportService.exportClients(isNull(), any(OutputStream.class))).willReturn(0L);
+
+        MvcResult result = mockMvc.perform(get("/api/admin/clients/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void exportClients_shouldBeForbiddenForUsers() throws Exception {
+        mockMvc.perform(get("/api/admin/clients/export"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(clientExportService);
+    }
+}
@@ -0,0 +1,73 @@
+package com.rvk.skycommerce.mock.api;
+
+import com.rvk.skycommerce.api.ClientImportController;
+import com.rvk.skycommerce.config.SecurityConfig;
+import com.rvk.skycommerce.model.ClientImportFormat;
+import com.rvk.skycommerce.model.ClientImportReport;
+import com.rvk.skycommerce.service.ClientImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ClientImportController.class)
+@WithMockUser(roles = "ADMIN")
+@Import(SecurityConfig.class)
+class ClientImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ClientImportService clientImportService;
+
+    @Test
+    void importNdjson_shouldReturnReport() throws Exception {
+        ClientImportReport report = ClientImportReport.builder()
+                .received(2)
+                .imported(1)
+                .failed(1)
+                .errors(List.of(new ClientImportReport.RecordError(2, "firstName: must not be blank")))
+                .build();
+        given(clientImportService.importClients(eq(ClientImportFormat.NDJSON), any(InputStream.class)))
+                .willReturn(report);
+
+        mockMvc.perform(post("/api/admin/clients/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(2)))
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].record", is(2)))
+                .andExpect(jsonPath("$.errors[0].message", is("firstName: must not be blank")));
+    }
+
+    @Test
+    void importCsv_shouldSelectCsvFormat() throws Exception {
+        given(clientImportService.importClients(eq(ClientImportFormat.CSV), any(InputStream.class)))
+                .willReturn(ClientImportReport.builder().received(0).errors(List.of()).build());
+
+        mockMvc.perform(post("/api/admin/clients/import")
+                        .contentType("text/csv")
+                        .content("clientType,firstName,lastName\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received", is(0)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.rvk.skycommerce.mock.api;
+
+import com.rvk.skycommerce.api.CartJsonCache;
+import com.rvk.skycommerce.api.ShoppingCartController;
+import com.rvk.skycommerce.config.SecurityConfig;
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.service.OptimisticRetry;
+import com.rvk.skycommerce.service.ShoppingCartService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ShoppingCartController.class)
+@Import({SecurityConfig.class, OptimisticRetry.class})
+@WithMockUser(roles = "USER")
+class ShoppingCartControllerJsonCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ShoppingCartService shoppingCartService;
+
+    @MockBean
+    private CartJsonCache cartJsonCache;
+
+    @Test
+    void getCart_shouldWriteCachedJsonAsIs() throws Exception {
+        ShoppingCartModel model = cart();
+        String json = "{\"id\":5,\"version\":2}";
+        given(shoppingCartService.getCart(5L)).willReturn(model);
+        given(cartJsonCache.json(model)).willReturn(json.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/api/carts/{cartId}", 5L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(json));
+    }
+
+    @Test
+    void getCart_shouldNotTouchJsonCacheWhenNotModified() throws Exception {
+        given(shoppingCartService.getCart(5L)).willReturn(cart());
+
+        mockMvc.perform(get("/api/carts/{cartId}", 5L).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(cartJsonCache);
+    }
+
+    private static ShoppingCartModel cart() {
+        return ShoppingCartModel.builder()
+                .id(5L)
+                .clientId("CLIENT-5")
+                .items(List.of())
+                .totalAmount(BigDecimal.ZERO)
+                .version(2L)
+                .build();
+    }
+}
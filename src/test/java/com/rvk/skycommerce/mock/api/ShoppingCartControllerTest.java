@@ -7,9 +7,13 @@ import com.rvk.skycommerce.api.dto.cart.AddCartItemsRequest;
 import com.rvk.skycommerce.api.dto.cart.UpdateCartItemQuantityRequest;
 import com.rvk.skycommerce.config.SecurityConfig;
 import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
 import com.rvk.skycommerce.model.CartItemModel;
 import com.rvk.skycommerce.model.ProductType;
 import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.repository.entity.ShoppingCart;
+import com.rvk.skycommerce.service.OptimisticRetry;
 import com.rvk.skycommerce.service.ShoppingCartService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,7 +21,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,16 +31,23 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = ShoppingCartController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, OptimisticRetry.class})
 @WithMockUser(roles = "USER")
 class ShoppingCartControllerTest {
 
@@ -104,7 +117,7 @@ class ShoppingCartControllerTest {
     }
 
     @Test
-    void addItems_shouldCallServiceForEachItemAndReturnUpdatedCart() throws Exception {
+    void addItems_shouldCallServiceOnceAndReturnUpdatedCart() throws Exception {
         AddCartItem item1 = new AddCartItem(ProductType.HIGH_END_PHONE, 1);
         AddCartItem item2 = new AddCartItem(ProductType.LAPTOP, 2);
         AddCartItemsRequest request = new AddCartItemsRequest(List.of(item1, item2));
@@ -132,7 +145,7 @@ class ShoppingCartControllerTest {
                 .items(List.of(modelItem1, modelItem2))
                 .build();
 
-        given(shoppingCartService.getCart(5L)).willReturn(updated);
+        given(shoppingCartService.addItems(eq(5L), anyList(), isNull())).willReturn(updated);
 
         mockMvc.perform(post("/api/carts/{cartId}/items", 5L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -145,9 +158,11 @@ class ShoppingCartControllerTest {
                 .andExpect(jsonPath("$.items.length()").value(2));
 
 
-        verify(shoppingCartService).addItem(eq(5L), eq(ProductType.HIGH_END_PHONE), eq(1));
-        verify(shoppingCartService).addItem(eq(5L), eq(ProductType.LAPTOP), eq(2));
-        verify(shoppingCartService).getCart(5L);
+        verify(shoppingCartService).addItems(5L, List.of(
+                AddCartItemModel.builder().productType(ProductType.HIGH_END_PHONE).quantity(1).build(),
+                AddCartItemModel.builder().productType(ProductType.LAPTOP).quantity(2).build()
+        ), null);
+        verifyNoMoreInteractions(shoppingCartService);
     }
 
     @Test
@@ -169,7 +184,7 @@ class ShoppingCartControllerTest {
                 .items(List.of(item))
                 .build();
 
-        given(shoppingCartService.updateItemQuantity(7L, 200L, 3)).willReturn(model);
+        given(shoppingCartService.updateItemQuantity(7L, 200L, 3, null)).willReturn(model);
 
         mockMvc.perform(put("/api/carts/{cartId}/items/{itemId}", 7L, 200L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -181,7 +196,7 @@ class ShoppingCartControllerTest {
                 .andExpect(jsonPath("$.items[0].id").value(200L))
                 .andExpect(jsonPath("$.items[0].quantity").value(3));
 
-        verify(shoppingCartService).updateItemQuantity(7L, 200L, 3);
+        verify(shoppingCartService).updateItemQuantity(7L, 200L, 3, null);
     }
 
     @Test
@@ -201,7 +216,7 @@ class ShoppingCartControllerTest {
                 .items(List.of(item))
                 .build();
 
-        given(shoppingCartService.removeItem(9L, 400L)).willReturn(model);
+        given(shoppingCartService.removeItem(9L, 400L, null)).willReturn(model);
 
         mockMvc.perform(delete("/api/carts/{cartId}/items/{itemId}", 9L, 400L))
                 .andExpect(status().isOk())
@@ -210,7 +225,7 @@ class ShoppingCartControllerTest {
                 .andExpect(jsonPath("$.totalAmount").value(1200.00))
                 .andExpect(jsonPath("$.items[0].id").value(300L));
 
-        verify(shoppingCartService).removeItem(9L, 400L);
+        verify(shoppingCartService).removeItem(9L, 400L, null);
     }
 
     @Test
@@ -223,4 +238,113 @@ class ShoppingCartControllerTest {
 
         verify(shoppingCartService).getCart(123L);
     }
+
+    @Test
+    void getCart_shouldExposeVersionAsETag() throws Exception {
+        ShoppingCartModel model = ShoppingCartModel.builder()
+                .id(3L)
+                .clientId("CLIENT-3")
+                .totalAmount(BigDecimal.ZERO)
+                .items(List.of())
+                .version(4L)
+                .build();
+
+        given(shoppingCartService.getCart(3L)).willReturn(model);
+
+        mockMvc.perform(get("/api/carts/{cartId}", 3L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void getCart_shouldReturn304WithoutBodyWhenIfNoneMatchHasCurrentVersion() throws Exception {
+        ShoppingCartModel model = ShoppingCartModel.builder()
+                .id(3L)
+                .clientId("CLIENT-3")
+                .totalAmount(BigDecimal.ZERO)
+                .items(List.of())
+                .version(4L)
+                .build();
+
+        given(shoppingCartService.getCart(3L)).willReturn(model);
+
+        mockMvc.perform(get("/api/carts/{cartId}", 3L).header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/carts/{cartId}", 3L).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void removeItem_shouldPassIfMatchVersionAndReturn412OnMismatch() throws Exception {
+        given(shoppingCartService.removeItem(9L, 400L, 2L))
+                .willThrow(new PreconditionFailedException("Cart 9 is at version 3, expected 2"));
+
+        mockMvc.perform(delete("/api/carts/{cartId}/items/{itemId}", 9L, 400L)
+                        .header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(shoppingCartService, times(1)).removeItem(9L, 400L, 2L);
+    }
+
+    @Test
+    void removeItem_shouldRetryOptimisticLockConflictWithoutIfMatch() throws Exception {
+        ShoppingCartModel model = ShoppingCartModel.builder()
+                .id(9L)
+                .clientId("CLIENT-9")
+                .totalAmount(BigDecimal.ZERO)
+                .items(List.of())
+                .version(6L)
+                .build();
+
+        given(shoppingCartService.removeItem(9L, 400L, null))
+                .willThrow(new ObjectOptimisticLockingFailureException(ShoppingCart.class, 9L))
+                .willReturn(model);
+
+        mockMvc.perform(delete("/api/carts/{cartId}/items/{itemId}", 9L, 400L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+
+        verify(shoppingCartService, times(2)).removeItem(9L, 400L, null);
+    }
+
+    @Test
+    void removeItem_shouldReturn409WhenRetriesAreExhausted() throws Exception {
+        given(shoppingCartService.removeItem(9L, 400L, null))
+                .willThrow(new ObjectOptimisticLockingFailureException(ShoppingCart.class, 9L));
+
+        mockMvc.perform(delete("/api/carts/{cartId}/items/{itemId}", 9L, 400L))
+                .andExpect(status().isConflict());
+
+        verify(shoppingCartService, times(4)).removeItem(9L, 400L, null);
+    }
+
+    @Test
+    void removeItem_shouldRejectMalformedIfMatch() throws Exception {
+        mockMvc.perform(delete("/api/carts/{cartId}/items/{itemId}", 9L, 400L)
+                        .header(HttpHeaders.IF_MATCH, "\"abc\""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void removeItem_shouldFailPreconditionForWeakIfMatch() throws Exception {
+        mockMvc.perform(delete("/api/carts/{cartId}/items/{itemId}", 9L, 400L)
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(shoppingCartService);
+    }
+
+    @Test
+    void removeItem_shouldRejectIfMatchList() throws Exception {
+        mockMvc.perform(delete("/api/carts/{cartId}/items/{itemId}", 9L, 400L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\", \"4\""))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(shoppingCartService);
+    }
 }
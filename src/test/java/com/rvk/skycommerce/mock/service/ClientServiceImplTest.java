@@ -3,19 +3,28 @@ package com.rvk.skycommerce.mock.service;
 import com.rvk.skycommerce.exception.NotFoundException;
 import com.rvk.skycommerce.model.IndividualClientModel;
 import com.rvk.skycommerce.model.ProfessionalClientModel;
+import com.rvk.skycommerce.model.TaggedModel;
 import com.rvk.skycommerce.repository.ClientRepository;
 import com.rvk.skycommerce.repository.entity.Client;
 import com.rvk.skycommerce.repository.entity.IndividualClient;
 import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import com.rvk.skycommerce.service.ClientRevenueChangedEvent;
 import com.rvk.skycommerce.service.ClientServiceImpl;
+import com.rvk.skycommerce.service.TaggedClientCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
@@ -25,6 +34,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +43,12 @@ class ClientServiceImplTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TaggedClientCache taggedClientCache = new TaggedClientCache(new NoOpCacheManager());
+
     @InjectMocks
     private ClientServiceImpl clientService;
 
@@ -99,6 +115,11 @@ class ClientServiceImplTest {
         assertThat(result.getId()).isEqualTo("ID123");
         assertThat(result.getFirstName()).isEqualTo("New");
         assertThat(result.getLastName()).isEqualTo("User");
+
+        ArgumentCaptor<TaggedModel<?>> tagged = ArgumentCaptor.forClass(TaggedModel.class);
+        verify(taggedClientCache).putAfterCommit(eq("individual:ID123"), tagged.capture());
+        assertThat(tagged.getValue().model()).isEqualTo(result);
+        assertThat(tagged.getValue().etag()).matches("[0-9a-f]{64}");
     }
 
     @Test
@@ -162,6 +183,28 @@ class ClientServiceImplTest {
         assertThat(result.getRegistrationNumber()).isEqualTo("NEW-REG");
         assertThat(result.getAnnualRevenue()).isEqualByComparingTo("7000000.00");
         assertThat(result.getVatNumber()).isEqualTo("NEW-VAT");
+
+        ArgumentCaptor<ClientRevenueChangedEvent> captor = ArgumentCaptor.forClass(ClientRevenueChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().clientId()).isEqualTo("PRO123");
+        assertThat(captor.getValue().previousRevenue()).isEqualByComparingTo("5000000.00");
+        assertThat(captor.getValue().annualRevenue()).isEqualByComparingTo("7000000.00");
+    }
+
+    @Test
+    void updateProfessionalClient_shouldNotPublishEvent_whenRevenueUnchanged() {
+        ProfessionalClient existing = new ProfessionalClient(
+                "PRO123",
+                "OldCo",
+                "OLD-REG",
+                new BigDecimal("5000000.00"),
+                "OLD-VAT"
+        );
+        when(clientRepository.findById("PRO123")).thenReturn(Optional.of(existing));
+
+        clientService.updateProfessionalClient("PRO123", "NewCo", "NEW-REG", new BigDecimal("5000000"), "NEW-VAT");
+
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -264,6 +307,26 @@ class ClientServiceImplTest {
         assertThat(result.getVatNumber()).isEqualTo("VAT");
     }
 
+    @Test
+    void getTaggedProfessional_shouldTagContentWithStableSha256() {
+        when(clientRepository.findById("PRO1")).thenReturn(
+                Optional.of(new ProfessionalClient("PRO1", "Co", "REG", new BigDecimal("5000000.00"), "VAT")),
+                Optional.of(new ProfessionalClient("PRO1", "Co", "REG", new BigDecimal("5000000.00"), "VAT")),
+                Optional.of(new ProfessionalClient("PRO1", "Co", "REG", new BigDecimal("5000000.0"), "VAT")),
+                Optional.of(new ProfessionalClient("PRO1", "CoR", "EG", new BigDecimal("5000000.00"), "VAT")));
+
+        TaggedModel<ProfessionalClientModel> first = clientService.getTaggedProfessional("PRO1");
+        TaggedModel<ProfessionalClientModel> same = clientService.getTaggedProfessional("PRO1");
+        TaggedModel<ProfessionalClientModel> rescaled = clientService.getTaggedProfessional("PRO1");
+        TaggedModel<ProfessionalClientModel> shifted = clientService.getTaggedProfessional("PRO1");
+
+        assertThat(first.model().getCompanyName()).isEqualTo("Co");
+        assertThat(first.etag()).matches("[0-9a-f]{64}").isEqualTo(same.etag());
+        // the response would show 5000000.0, and field boundaries are part of the content
+        assertThat(rescaled.etag()).isNotEqualTo(first.etag());
+        assertThat(shifted.etag()).isNotEqualTo(first.etag());
+    }
+
     @Test
     void getProfessionalById_shouldThrow_whenClientNotFound() {
         when(clientRepository.findById("MISSING")).thenReturn(Optional.empty());
@@ -332,4 +395,52 @@ class ClientServiceImplTest {
                 .extracting(ProfessionalClientModel::getId)
                 .containsExactlyInAnyOrder("P1", "P2");
     }
+
+    @Test
+    void scrollIndividuals_shouldStartFirstSliceBeforeAllIdsWithoutCountQuery() {
+        IndividualClient ind1 = new IndividualClient("I1", "John", "Doe");
+
+        when(clientRepository.findIndividualsAfter("", PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(ind1), PageRequest.of(0, 10), false));
+
+        Slice<IndividualClientModel> result = clientService.scrollIndividuals(null, 10);
+
+        assertThat(result.getContent())
+                .extracting(IndividualClientModel::getId)
+                .containsExactly("I1");
+        assertThat(result.hasNext()).isFalse();
+        verify(clientRepository, never()).findIndividuals(any(Pageable.class));
+    }
+
+    @Test
+    void scrollProfessionals_shouldContinueAfterGivenId() {
+        ProfessionalClient pro2 = new ProfessionalClient(
+                "P2",
+                "Co2",
+                "REG2",
+                new BigDecimal("2000000.00"),
+                "VAT2"
+        );
+
+        when(clientRepository.findProfessionalsAfter("P1", PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(pro2), PageRequest.of(0, 1), true));
+
+        Slice<ProfessionalClientModel> result = clientService.scrollProfessionals("P1", 1);
+
+        assertThat(result.getContent())
+                .extracting(ProfessionalClientModel::getId)
+                .containsExactly("P2");
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    @Test
+    void scrollIndividuals_shouldRejectSizeOutOfRange() {
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> clientService.scrollIndividuals(null, 0)
+        );
+
+        assertThat(ex.getMessage()).isEqualTo("Size must be between 1 and 100");
+        verifyNoInteractions(clientRepository);
+    }
 }
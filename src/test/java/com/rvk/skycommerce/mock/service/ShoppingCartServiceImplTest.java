@@ -1,21 +1,30 @@
 package com.rvk.skycommerce.mock.service;
 
 import com.rvk.skycommerce.exception.NotFoundException;
+import com.rvk.skycommerce.exception.PreconditionFailedException;
+import com.rvk.skycommerce.model.AddCartItemModel;
 import com.rvk.skycommerce.model.CartItemModel;
 import com.rvk.skycommerce.model.ProductType;
 import com.rvk.skycommerce.model.ShoppingCartModel;
 import com.rvk.skycommerce.repository.ClientRepository;
+import com.rvk.skycommerce.repository.ShoppingCartJdbcRepository;
 import com.rvk.skycommerce.repository.ShoppingCartRepository;
 import com.rvk.skycommerce.repository.entity.CartItem;
 import com.rvk.skycommerce.repository.entity.IndividualClient;
 import com.rvk.skycommerce.repository.entity.ShoppingCart;
 import com.rvk.skycommerce.service.ShoppingCartServiceImpl;
 import com.rvk.skycommerce.service.pricing.PriceCalculator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -25,6 +34,11 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,11 +48,20 @@ class ShoppingCartServiceImplTest {
     private ShoppingCartRepository shoppingCartRepository;
 
     @Mock
-    private ClientRepository clientRepository;
+    private ShoppingCartJdbcRepository shoppingCartJdbcRepository;
 
     @Mock
+    private ClientRepository clientRepository;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private PriceCalculator priceCalculator;
 
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager("shoppingCarts");
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ShoppingCartServiceImpl shoppingCartService;
 
@@ -89,7 +112,7 @@ class ShoppingCartServiceImplTest {
 
         cart.setItems(new ArrayList<>(List.of(item1, item2)));
 
-        when(shoppingCartRepository.findByIdWithItems(5L)).thenReturn(Optional.of(cart));
+        when(shoppingCartJdbcRepository.findCart(5L)).thenReturn(Optional.of(cart));
 
         when(priceCalculator.getUnitPrice(client, ProductType.HIGH_END_PHONE))
                 .thenReturn(new BigDecimal("1500.00"));
@@ -121,11 +144,87 @@ class ShoppingCartServiceImplTest {
         assertThat(m2.getLineTotal()).isEqualByComparingTo("1200.00");
 
         assertThat(result.getTotalAmount()).isEqualByComparingTo("4200.00");
+        // the read prices copies; the loaded lines keep what was stored
+        assertThat(item1.getUnitPrice()).isNull();
+        assertThat(item1.getLineTotal()).isNull();
+        assertThat(item2.getUnitPrice()).isNull();
+        assertThat(item2.getLineTotal()).isNull();
+    }
+
+    @Test
+    void getCart_shouldUseStoredLinePricesWithoutPricing() {
+        IndividualClient client = new IndividualClient("CLIENT-1");
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setId(7L);
+        cart.setTotalAmount(new BigDecimal("1600.00"));
+
+        CartItem item = new CartItem(ProductType.MID_RANGE_PHONE, 2);
+        item.setId(102L);
+        item.setUnitPrice(new BigDecimal("800.00"));
+        item.setLineTotal(new BigDecimal("1600.00"));
+        cart.setItems(new ArrayList<>(List.of(item)));
+
+        when(shoppingCartJdbcRepository.findCart(7L)).thenReturn(Optional.of(cart));
+
+        ShoppingCartModel result = shoppingCartService.getCart(7L);
+
+        assertThat(result.getItems()).singleElement().satisfies(line -> {
+            assertThat(line.getUnitPrice()).isEqualByComparingTo("800.00");
+            assertThat(line.getLineTotal()).isEqualByComparingTo("1600.00");
+        });
+        assertThat(result.getTotalAmount()).isEqualByComparingTo("1600.00");
+        verifyNoInteractions(priceCalculator);
+    }
+
+    @Test
+    void getCart_shouldServeSecondReadFromCacheAndTimeHitsAndMisses() {
+        IndividualClient client = new IndividualClient("CLIENT-1");
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setId(6L);
+        cart.setTotalAmount(BigDecimal.ZERO);
+
+        when(shoppingCartJdbcRepository.findCart(6L)).thenReturn(Optional.of(cart));
+
+        ShoppingCartModel first = shoppingCartService.getCart(6L);
+        ShoppingCartModel second = shoppingCartService.getCart(6L);
+
+        assertThat(second).isSameAs(first);
+        verify(shoppingCartJdbcRepository, times(1)).findCart(6L);
+        assertThat(meterRegistry.get("skycommerce.cart.get").tag("cache", "miss").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("skycommerce.cart.get").tag("cache", "hit").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getCart_shouldNotReplaceANewerVersionPutWhileTheMissWasLoading() {
+        IndividualClient client = new IndividualClient("CLIENT-1");
+        ShoppingCart stale = new ShoppingCart(client);
+        stale.setId(7L);
+        stale.setVersion(1L);
+        stale.setTotalAmount(BigDecimal.ZERO);
+        ShoppingCartModel updated = ShoppingCartModel.builder()
+                .id(7L)
+                .clientId("CLIENT-1")
+                .items(List.of())
+                .totalAmount(new BigDecimal("1200.00"))
+                .version(2L)
+                .build();
+
+        when(shoppingCartJdbcRepository.findCart(7L)).thenAnswer(invocation -> {
+            // a mutation commits and puts its result while the read still holds version 1
+            cacheManager.getCache("shoppingCarts").put(7L, updated);
+            return Optional.of(stale);
+        });
+
+        ShoppingCartModel read = shoppingCartService.getCart(7L);
+
+        assertThat(read.getVersion()).isEqualTo(1L);
+        assertThat(cacheManager.getCache("shoppingCarts").get(7L, ShoppingCartModel.class)).isSameAs(updated);
+        assertThat(shoppingCartService.getCart(7L)).isSameAs(updated);
     }
 
     @Test
     void getCart_shouldThrowWhenCartNotFound() {
-        when(shoppingCartRepository.findByIdWithItems(999L)).thenReturn(Optional.empty());
+        when(shoppingCartJdbcRepository.findCart(999L)).thenReturn(Optional.empty());
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
@@ -144,18 +243,20 @@ class ShoppingCartServiceImplTest {
         cart.setItems(new ArrayList<>());
 
         when(shoppingCartRepository.findByIdWithItems(3L)).thenReturn(Optional.of(cart));
-        when(shoppingCartRepository.save(any(ShoppingCart.class)))
+        when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
         when(priceCalculator.getUnitPrice(client, ProductType.MID_RANGE_PHONE))
                 .thenReturn(new BigDecimal("800.00"));
 
-        ShoppingCartModel result = shoppingCartService.addItem(3L, ProductType.MID_RANGE_PHONE, 2);
+        ShoppingCartModel result = shoppingCartService.addItem(3L, ProductType.MID_RANGE_PHONE, 2, null);
 
         assertThat(cart.getItems()).hasSize(1);
         CartItem item = cart.getItems().getFirst();
         assertThat(item.getProductType()).isEqualTo(ProductType.MID_RANGE_PHONE);
         assertThat(item.getQuantity()).isEqualTo(2);
+        assertThat(item.getUnitPrice()).isEqualByComparingTo("800.00");
+        assertThat(item.getLineTotal()).isEqualByComparingTo("1600.00");
 
         assertThat(result.getItems()).hasSize(1);
         CartItemModel model = result.getItems().getFirst();
@@ -178,13 +279,13 @@ class ShoppingCartServiceImplTest {
         cart.setItems(new ArrayList<>(List.of(existing)));
 
         when(shoppingCartRepository.findByIdWithItems(4L)).thenReturn(Optional.of(cart));
-        when(shoppingCartRepository.save(any(ShoppingCart.class)))
+        when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
         when(priceCalculator.getUnitPrice(client, ProductType.LAPTOP))
                 .thenReturn(new BigDecimal("1200.00"));
 
-        ShoppingCartModel result = shoppingCartService.addItem(4L, ProductType.LAPTOP, 2);
+        ShoppingCartModel result = shoppingCartService.addItem(4L, ProductType.LAPTOP, 2, null);
 
         assertThat(existing.getQuantity()).isEqualTo(3);
 
@@ -198,7 +299,7 @@ class ShoppingCartServiceImplTest {
     void addItem_shouldThrowWhenQuantityNonPositive() {
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
-                () -> shoppingCartService.addItem(1L, ProductType.LAPTOP, 0)
+                () -> shoppingCartService.addItem(1L, ProductType.LAPTOP, 0, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Quantity must be positive");
@@ -210,12 +311,85 @@ class ShoppingCartServiceImplTest {
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.addItem(10L, ProductType.LAPTOP, 1)
+                () -> shoppingCartService.addItem(10L, ProductType.LAPTOP, 1, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Cart with id 10 not found");
     }
 
+    @Test
+    void addItems_shouldMergeAllLinesWithSinglePricingAndSave() {
+        IndividualClient client = new IndividualClient("CLIENT-1");
+
+        ShoppingCart cart = new ShoppingCart(client);
+        cart.setId(5L);
+
+        CartItem existing = new CartItem(ProductType.LAPTOP, 1);
+        existing.setId(300L);
+        cart.setItems(new ArrayList<>(List.of(existing)));
+
+        when(shoppingCartRepository.findByIdWithItems(5L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        when(priceCalculator.getUnitPrice(client, ProductType.LAPTOP))
+                .thenReturn(new BigDecimal("1200.00"));
+        when(priceCalculator.getUnitPrice(client, ProductType.MID_RANGE_PHONE))
+                .thenReturn(new BigDecimal("800.00"));
+
+        ShoppingCartModel result = shoppingCartService.addItems(5L, List.of(
+                AddCartItemModel.builder().productType(ProductType.LAPTOP).quantity(2).build(),
+                AddCartItemModel.builder().productType(ProductType.MID_RANGE_PHONE).quantity(1).build(),
+                AddCartItemModel.builder().productType(ProductType.MID_RANGE_PHONE).quantity(2).build()
+        ), null);
+
+        assertThat(cart.getItems()).hasSize(2);
+        assertThat(existing.getQuantity()).isEqualTo(3);
+        assertThat(cart.getItems().get(1).getQuantity()).isEqualTo(3);
+
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(result.getItems().get(0).getLineTotal()).isEqualByComparingTo("3600.00");
+        assertThat(result.getItems().get(1).getLineTotal()).isEqualByComparingTo("2400.00");
+        assertThat(result.getTotalAmount()).isEqualByComparingTo("6000.00");
+
+        verify(shoppingCartRepository, times(1)).findByIdWithItems(5L);
+        verify(shoppingCartRepository, times(1)).saveAndFlush(cart);
+        verify(priceCalculator, times(1)).priceCart(eq(client), any());
+    }
+
+    @Test
+    void addItems_shouldRejectNonPositiveQuantityBeforeLoadingCart() {
+        List<AddCartItemModel> items = List.of(
+                AddCartItemModel.builder().productType(ProductType.LAPTOP).quantity(1).build(),
+                AddCartItemModel.builder().productType(ProductType.LAPTOP).quantity(0).build()
+        );
+
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> shoppingCartService.addItems(1L, items, null)
+        );
+
+        assertThat(ex.getMessage()).isEqualTo("Quantity must be positive");
+        verifyNoInteractions(shoppingCartRepository);
+    }
+
+    @Test
+    void addItem_shouldThrowWhenExpectedVersionIsStale() {
+        ShoppingCart cart = new ShoppingCart(new IndividualClient("CLIENT-1"));
+        cart.setId(6L);
+        cart.setVersion(3L);
+
+        when(shoppingCartRepository.findByIdWithItems(6L)).thenReturn(Optional.of(cart));
+
+        PreconditionFailedException ex = assertThrows(
+                PreconditionFailedException.class,
+                () -> shoppingCartService.addItem(6L, ProductType.LAPTOP, 1, 2L)
+        );
+
+        assertThat(ex.getMessage()).isEqualTo("Cart 6 is at version 3, expected 2");
+        verify(shoppingCartRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     void updateItemQuantity_shouldUpdateExistingItem() {
         IndividualClient client = new IndividualClient("CLIENT-1");
@@ -228,13 +402,13 @@ class ShoppingCartServiceImplTest {
         cart.setItems(new ArrayList<>(List.of(item)));
 
         when(shoppingCartRepository.findByIdWithItems(7L)).thenReturn(Optional.of(cart));
-        when(shoppingCartRepository.save(any(ShoppingCart.class)))
+        when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
         when(priceCalculator.getUnitPrice(client, ProductType.HIGH_END_PHONE))
                 .thenReturn(new BigDecimal("1500.00"));
 
-        ShoppingCartModel result = shoppingCartService.updateItemQuantity(7L, 300L, 4);
+        ShoppingCartModel result = shoppingCartService.updateItemQuantity(7L, 300L, 4, null);
 
         assertThat(item.getQuantity()).isEqualTo(4);
 
@@ -248,7 +422,7 @@ class ShoppingCartServiceImplTest {
     void updateItemQuantity_shouldThrowWhenQuantityNonPositive() {
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
-                () -> shoppingCartService.updateItemQuantity(1L, 2L, 0)
+                () -> shoppingCartService.updateItemQuantity(1L, 2L, 0, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Quantity must be positive");
@@ -260,7 +434,7 @@ class ShoppingCartServiceImplTest {
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.updateItemQuantity(99L, 1L, 1)
+                () -> shoppingCartService.updateItemQuantity(99L, 1L, 1, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Cart with id 99 not found");
@@ -277,7 +451,7 @@ class ShoppingCartServiceImplTest {
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.updateItemQuantity(8L, 123L, 1)
+                () -> shoppingCartService.updateItemQuantity(8L, 123L, 1, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Item with id 123 not found in cart 8");
@@ -298,13 +472,13 @@ class ShoppingCartServiceImplTest {
         cart.setItems(new ArrayList<>(List.of(item1, item2)));
 
         when(shoppingCartRepository.findByIdWithItems(11L)).thenReturn(Optional.of(cart));
-        when(shoppingCartRepository.save(any(ShoppingCart.class)))
+        when(shoppingCartRepository.saveAndFlush(any(ShoppingCart.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
         when(priceCalculator.getUnitPrice(client, ProductType.LAPTOP))
                 .thenReturn(new BigDecimal("1200.00"));
 
-        ShoppingCartModel result = shoppingCartService.removeItem(11L, 400L);
+        ShoppingCartModel result = shoppingCartService.removeItem(11L, 400L, null);
 
         assertThat(cart.getItems()).hasSize(1);
         assertThat(cart.getItems().getFirst().getId()).isEqualTo(401L);
@@ -321,7 +495,7 @@ class ShoppingCartServiceImplTest {
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.removeItem(77L, 1L)
+                () -> shoppingCartService.removeItem(77L, 1L, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Cart with id 77 not found");
@@ -339,7 +513,7 @@ class ShoppingCartServiceImplTest {
 
         NotFoundException ex = assertThrows(
                 NotFoundException.class,
-                () -> shoppingCartService.removeItem(12L, 999L)
+                () -> shoppingCartService.removeItem(12L, 999L, null)
         );
 
         assertThat(ex.getMessage()).isEqualTo("Item with id 999 not found in cart 12");
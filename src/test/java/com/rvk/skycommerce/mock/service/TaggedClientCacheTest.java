@@ -0,0 +1,89 @@
+package com.rvk.skycommerce.mock.service;
+
+import com.rvk.skycommerce.model.TaggedModel;
+import com.rvk.skycommerce.service.TaggedClientCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaggedClientCacheTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("clients");
+    private TaggedClientCache taggedClientCache;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        taggedClientCache = new TaggedClientCache(cacheManager);
+        cache = cacheManager.getCache("clients");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_shouldLoadOnceAndServeFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        TaggedModel<String> first = taggedClientCache.get("individual:1", () -> tagged("v1", loads));
+        TaggedModel<String> second = taggedClientCache.get("individual:1", () -> tagged("v2", loads));
+
+        assertThat(first.model()).isEqualTo("v1");
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_shouldNotCacheALoadOvertakenByAnUpdate() {
+        TaggedModel<String> updated = new TaggedModel<>("new", "tag-new");
+
+        TaggedModel<String> loaded = taggedClientCache.get("individual:1", () -> {
+            // the update commits while the read still holds the content it loaded before
+            taggedClientCache.putAfterCommit("individual:1", updated);
+            return new TaggedModel<>("old", "tag-old");
+        });
+
+        assertThat(loaded.model()).isEqualTo("old");
+        assertThat(cache.get("individual:1", TaggedModel.class)).isSameAs(updated);
+    }
+
+    @Test
+    void putAfterCommit_shouldPublishOnlyOnceCommitted() {
+        TaggedModel<String> updated = new TaggedModel<>("new", "tag-new");
+        TransactionSynchronizationManager.initSynchronization();
+
+        taggedClientCache.putAfterCommit("professional:1", updated);
+        assertThat(cache.get("professional:1")).isNull();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.get("professional:1", TaggedModel.class)).isSameAs(updated);
+    }
+
+    @Test
+    void putAfterCommit_shouldPublishNothingOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        taggedClientCache.putAfterCommit("professional:1", new TaggedModel<>("new", "tag-new"));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(cache.get("professional:1")).isNull();
+    }
+
+    private static TaggedModel<String> tagged(String model, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new TaggedModel<>(model, "tag-" + model);
+    }
+}
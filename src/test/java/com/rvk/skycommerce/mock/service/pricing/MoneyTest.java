@@ -0,0 +1,37 @@
+package com.rvk.skycommerce.mock.service.pricing;
+
+import com.rvk.skycommerce.service.pricing.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void shouldConvertBetweenDecimalAndMinorUnits() {
+        assertThat(Money.toMinor(new BigDecimal("1500.00"))).isEqualTo(150_000L);
+        assertThat(Money.toMinor(new BigDecimal("12.5"))).isEqualTo(1_250L);
+        assertThat(Money.toMinor(new BigDecimal("7"))).isEqualTo(700L);
+        assertThat(Money.toBigDecimal(150_000L)).isEqualTo(new BigDecimal("1500.00"));
+    }
+
+    @Test
+    void shouldRejectSubCentAmounts() {
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void shouldMultiplyAndAdd() {
+        assertThat(Money.plus(Money.times(55_000L, 3), 120_000L)).isEqualTo(285_000L);
+    }
+
+    @Test
+    void shouldFailOnOverflowInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+        assertThrows(ArithmeticException.class, () -> Money.plus(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.toMinor(new BigDecimal("1E+20")));
+    }
+}
@@ -0,0 +1,134 @@
+package com.rvk.skycommerce.mock.service.pricing;
+
+import com.rvk.skycommerce.model.ClientType;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.service.pricing.PriceTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceTableTest {
+
+    private PriceTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = PriceTable.builder()
+                .add(ClientType.INDIVIDUAL, ProductType.LAPTOP, null, new BigDecimal("1200.00"))
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP,
+                        new BigDecimal("50000000.00"), null, new BigDecimal("800.00"))
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP,
+                        null, new BigDecimal("10000000.00"), new BigDecimal("1000.00"))
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP,
+                        new BigDecimal("10000000.00"), new BigDecimal("50000000.00"), new BigDecimal("900.00"))
+                .build();
+    }
+
+    @Test
+    void shouldReturnFlatPriceForIndividual() {
+        assertThat(table.findUnitPrice(ClientType.INDIVIDUAL, ProductType.LAPTOP, null))
+                .isEqualByComparingTo("1200.00");
+    }
+
+    @Test
+    void shouldSelectBracketByExclusiveLowerBound() {
+        assertThat(table.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("0.00")))
+                .isEqualByComparingTo("1000.00");
+        assertThat(table.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("10000000.00")))
+                .isEqualByComparingTo("1000.00");
+        assertThat(table.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("10000000.01")))
+                .isEqualByComparingTo("900.00");
+        assertThat(table.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("50000000.00")))
+                .isEqualByComparingTo("900.00");
+        assertThat(table.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("90000000.00")))
+                .isEqualByComparingTo("800.00");
+    }
+
+    @Test
+    void shouldUseLowestBracketForNullRevenue() {
+        assertThat(table.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, null))
+                .isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void shouldReturnNullWhenNothingConfigured() {
+        assertThat(table.findUnitPrice(ClientType.INDIVIDUAL, ProductType.HIGH_END_PHONE, null)).isNull();
+    }
+
+    @Test
+    void shouldReturnNullBelowFirstBoundedBracket() {
+        PriceTable bounded = PriceTable.builder()
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("100.00"), new BigDecimal("900.00"))
+                .build();
+
+        assertThat(bounded.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("100.00"))).isNull();
+        assertThat(bounded.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, null)).isNull();
+    }
+
+    @Test
+    void shouldRejectDuplicateBrackets() {
+        PriceTable.Builder builder = PriceTable.builder()
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("10.00"), new BigDecimal("1.00"))
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("10.0"), new BigDecimal("2.00"));
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void shouldRejectOverlappingIntervals() {
+        PriceTable.Builder builder = PriceTable.builder()
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, null, new BigDecimal("20.00"), new BigDecimal("1.00"))
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("10.00"), null, new BigDecimal("2.00"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+        assertThat(ex.getMessage()).startsWith("Overlapping revenue intervals");
+    }
+
+    @Test
+    void shouldRejectGapBetweenIntervals() {
+        PriceTable.Builder builder = PriceTable.builder()
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, null, new BigDecimal("10.00"), new BigDecimal("1.00"))
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("20.00"), null, new BigDecimal("2.00"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+        assertThat(ex.getMessage()).startsWith("Gap between revenue intervals");
+    }
+
+    @Test
+    void shouldRejectEmptyInterval() {
+        assertThrows(IllegalArgumentException.class, () -> PriceTable.builder()
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP,
+                        new BigDecimal("10.00"), new BigDecimal("10.00"), new BigDecimal("1.00")));
+    }
+
+    @Test
+    void shouldReturnNullAboveLastBoundedInterval() {
+        PriceTable bounded = PriceTable.builder()
+                .add(ClientType.PROFESSIONAL, ProductType.LAPTOP, null, new BigDecimal("100.00"), new BigDecimal("900.00"))
+                .build();
+
+        assertThat(bounded.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("100.00")))
+                .isEqualByComparingTo("900.00");
+        assertThat(bounded.findUnitPrice(ClientType.PROFESSIONAL, ProductType.LAPTOP, new BigDecimal("100.01"))).isNull();
+    }
+
+    @Test
+    void shouldResolveMinorUnitPricesPerProduct() {
+        long[] prices = table.minorPricesFor(ClientType.PROFESSIONAL, new BigDecimal("20000000.00"));
+
+        assertThat(prices[ProductType.LAPTOP.ordinal()]).isEqualTo(90_000L);
+        assertThat(prices[ProductType.HIGH_END_PHONE.ordinal()]).isEqualTo(PriceTable.NO_PRICE);
+    }
+
+    @Test
+    void shouldRejectPricesWithMoreThanTwoDecimals() {
+        PriceTable.Builder builder = PriceTable.builder();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(ClientType.INDIVIDUAL, ProductType.LAPTOP, null, new BigDecimal("1.005")));
+    }
+}
@@ -0,0 +1,122 @@
+package com.rvk.skycommerce.mock.service.pricing;
+
+import com.rvk.skycommerce.config.PricingProperties;
+import com.rvk.skycommerce.config.PricingSourceProperties;
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.IndividualClient;
+import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import com.rvk.skycommerce.service.pricing.ClientPriceOverrides;
+import com.rvk.skycommerce.service.pricing.PricingReloader;
+import com.rvk.skycommerce.service.pricing.YamlPriceCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PricingReloaderTest {
+
+    private static final String VALID_PRICES = """
+            pricing:
+              individual:
+                HIGH_END_PHONE: 1600
+                MID_RANGE_PHONE: 850
+                LAPTOP: 1250
+              professional:
+                tiers:
+                  - maxRevenueInclusive: 10000000
+                    products:
+                      HIGH_END_PHONE: 1200
+                      MID_RANGE_PHONE: 650
+                      LAPTOP: 1050
+                  - minRevenueExclusive: 10000000
+                    products:
+                      HIGH_END_PHONE: 1050
+                      MID_RANGE_PHONE: 600
+                      LAPTOP: 950
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private Path pricingFile;
+    private YamlPriceCalculator calculator;
+    private PricingReloader reloader;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        PricingProperties startup = new PricingProperties();
+        Map<ProductType, BigDecimal> individual = new EnumMap<>(ProductType.class);
+        individual.put(ProductType.HIGH_END_PHONE, new BigDecimal("1500.00"));
+        individual.put(ProductType.MID_RANGE_PHONE, new BigDecimal("800.00"));
+        individual.put(ProductType.LAPTOP, new BigDecimal("1200.00"));
+        startup.setIndividual(individual);
+        calculator = new YamlPriceCalculator(startup, ClientPriceOverrides.NONE);
+
+        pricingFile = tempDir.resolve("pricing.yml");
+        PricingSourceProperties properties = new PricingSourceProperties();
+        properties.setLocation(pricingFile.toUri().toString());
+
+        cacheManager = new ConcurrentMapCacheManager("shoppingCarts");
+        cacheManager.getCache("shoppingCarts").put(1L, "cart");
+        reloader = new PricingReloader(calculator, properties, new DefaultResourceLoader(), cacheManager);
+    }
+
+    @Test
+    void reload_shouldPublishNewPrices() throws IOException {
+        Files.writeString(pricingFile, VALID_PRICES);
+
+        reloader.reload();
+
+        assertThat(calculator.getUnitPrice(new IndividualClient("IND_1"), ProductType.LAPTOP))
+                .isEqualByComparingTo("1250");
+        ProfessionalClient professional = new ProfessionalClient(
+                "PRO_HIGH", "HighCorp", "REG-HIGH", new BigDecimal("20000000.00"), "EU-HIGH");
+        assertThat(calculator.getUnitPrice(professional, ProductType.LAPTOP))
+                .isEqualByComparingTo("950");
+        assertThat(reloader.getLastReloadedAt()).isNotNull();
+        assertThat(reloader.getLastError()).isNull();
+        assertThat(cacheManager.getCache("shoppingCarts").get(1L)).isNull();
+    }
+
+    @Test
+    void reload_shouldKeepCurrentPricesWhenTiersDoNotMeet() throws IOException {
+        Files.writeString(pricingFile, VALID_PRICES.replace("minRevenueExclusive: 10000000", "minRevenueExclusive: 20000000"));
+
+        assertThrows(IllegalStateException.class, reloader::reload);
+
+        assertThat(calculator.getUnitPrice(new IndividualClient("IND_1"), ProductType.LAPTOP))
+                .isEqualByComparingTo("1200.00");
+        assertThat(reloader.getLastError()).contains("Gap between revenue intervals");
+        assertThat(cacheManager.getCache("shoppingCarts").get(1L)).isNotNull();
+    }
+
+    @Test
+    void reload_shouldKeepCurrentPricesWhenPriceIsNegative() throws IOException {
+        Files.writeString(pricingFile, VALID_PRICES.replace("LAPTOP: 1250", "LAPTOP: -1"));
+
+        assertThrows(IllegalStateException.class, reloader::reload);
+
+        assertThat(calculator.getUnitPrice(new IndividualClient("IND_1"), ProductType.LAPTOP))
+                .isEqualByComparingTo("1200.00");
+    }
+
+    @Test
+    void reload_shouldFailWhenFileIsMissing() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class, reloader::reload);
+
+        assertThat(ex.getMessage()).contains("does not exist");
+    }
+}
@@ -0,0 +1,43 @@
+package com.rvk.skycommerce.mock.service.pricing;
+
+import com.rvk.skycommerce.exception.ConflictException;
+import com.rvk.skycommerce.service.pricing.CartRepricingJob;
+import com.rvk.skycommerce.service.pricing.RepricingEndpoint;
+import com.rvk.skycommerce.service.pricing.RepricingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class RepricingEndpointTest {
+
+    private final CartRepricingJob job = mock(CartRepricingJob.class);
+    private final RepricingEndpoint endpoint = new RepricingEndpoint(job);
+
+    @Test
+    void start_shouldAnswerOkWhenRunStarts() {
+        given(job.status()).willReturn(RepricingStatus.builder().state(RepricingStatus.State.RUNNING).build());
+
+        WebEndpointResponse<Map<String, Object>> response = endpoint.start(42L);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getBody()).containsEntry("status", "started");
+    }
+
+    @Test
+    void start_shouldAnswerConflictWhenRunIsActive() {
+        given(job.start(0L)).willThrow(new ConflictException("Repricing is already running"));
+        given(job.status()).willReturn(RepricingStatus.builder().state(RepricingStatus.State.RUNNING).build());
+
+        WebEndpointResponse<Map<String, Object>> response = endpoint.start(null);
+
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getBody())
+                .containsEntry("status", "rejected")
+                .containsEntry("error", "Repricing is already running");
+    }
+}
@@ -2,25 +2,32 @@ package com.rvk.skycommerce.mock.service.pricing;
 
 import com.rvk.skycommerce.config.PricingProperties;
 import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.CartItem;
 import com.rvk.skycommerce.repository.entity.IndividualClient;
 import com.rvk.skycommerce.repository.entity.ProfessionalClient;
+import com.rvk.skycommerce.service.pricing.CartPricing;
+import com.rvk.skycommerce.service.pricing.ClientPriceBook;
+import com.rvk.skycommerce.service.pricing.ClientPriceOverrides;
 import com.rvk.skycommerce.service.pricing.YamlPriceCalculator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class YamlPriceCalculatorTest {
 
+    private PricingProperties properties;
     private YamlPriceCalculator calculator;
 
     @BeforeEach
     void setUp() {
-        PricingProperties properties = new PricingProperties();
+        properties = new PricingProperties();
 
         Map<ProductType, BigDecimal> individual = new EnumMap<>(ProductType.class);
         individual.put(ProductType.HIGH_END_PHONE, new BigDecimal("1500.00"));
@@ -50,7 +57,7 @@ class YamlPriceCalculatorTest {
 
         properties.setProfessional(professional);
 
-        calculator = new YamlPriceCalculator(properties);
+        calculator = new YamlPriceCalculator(properties, ClientPriceOverrides.NONE);
     }
 
     @Test
@@ -118,4 +125,102 @@ class YamlPriceCalculatorTest {
         assertThat(midRange).isEqualByComparingTo("550.00");
         assertThat(laptop).isEqualByComparingTo("900.00");
     }
+
+    @Test
+    void priceCart_shouldReturnLinePricesAndTotalForProfessionalClient() {
+        ProfessionalClient client = new ProfessionalClient(
+                "PRO_HIGH",
+                "HighCorp",
+                "REG-HIGH",
+                new BigDecimal("20000000.00"),
+                "EU-HIGH"
+        );
+        List<CartItem> items = List.of(
+                new CartItem(ProductType.HIGH_END_PHONE, 2),
+                new CartItem(ProductType.LAPTOP, 3)
+        );
+
+        CartPricing pricing = calculator.priceCart(client, items);
+
+        assertThat(pricing.size()).isEqualTo(2);
+        assertThat(pricing.getUnitPrice(0)).isEqualByComparingTo("1000.00");
+        assertThat(pricing.getLineTotal(0)).isEqualByComparingTo("2000.00");
+        assertThat(pricing.getUnitPrice(1)).isEqualByComparingTo("900.00");
+        assertThat(pricing.getLineTotal(1)).isEqualByComparingTo("2700.00");
+        assertThat(pricing.getTotal()).isEqualByComparingTo("4700.00");
+        assertThat(pricing.getTotalMinor()).isEqualTo(470_000L);
+    }
+
+    @Test
+    void shouldSelectAmongConfiguredRevenueTiers() {
+        PricingProperties properties = new PricingProperties();
+        PricingProperties.Professional professional = new PricingProperties.Professional();
+        professional.setTiers(List.of(
+                tier(null, "1000000.00", "1100.00"),
+                tier("1000000.00", "10000000.00", "1000.00"),
+                tier("10000000.00", null, "900.00")
+        ));
+        properties.setProfessional(professional);
+
+        YamlPriceCalculator tiered = new YamlPriceCalculator(properties, ClientPriceOverrides.NONE);
+
+        assertThat(tiered.getUnitPrice(professional("500000.00"), ProductType.LAPTOP)).isEqualByComparingTo("1100.00");
+        assertThat(tiered.getUnitPrice(professional("1000000.00"), ProductType.LAPTOP)).isEqualByComparingTo("1100.00");
+        assertThat(tiered.getUnitPrice(professional("1000000.01"), ProductType.LAPTOP)).isEqualByComparingTo("1000.00");
+        assertThat(tiered.getUnitPrice(professional("20000000.00"), ProductType.LAPTOP)).isEqualByComparingTo("900.00");
+    }
+
+    @Test
+    void shouldRejectOverlappingRevenueTiers() {
+        PricingProperties properties = new PricingProperties();
+        PricingProperties.Professional professional = new PricingProperties.Professional();
+        professional.setTiers(List.of(
+                tier(null, "10000000.00", "1000.00"),
+                tier("5000000.00", null, "900.00")
+        ));
+        properties.setProfessional(professional);
+
+        assertThrows(IllegalStateException.class, () -> new YamlPriceCalculator(properties, ClientPriceOverrides.NONE));
+    }
+
+    @Test
+    void shouldPreferClientOverrideOverRevenueTier() {
+        ClientPriceOverrides overrides = clientId -> "PRO_HIGH".equals(clientId)
+                ? ClientPriceBook.of(Map.of(ProductType.LAPTOP, new BigDecimal("850.00")))
+                : ClientPriceBook.EMPTY;
+        YamlPriceCalculator withOverrides = new YamlPriceCalculator(properties, overrides);
+        ProfessionalClient client = new ProfessionalClient(
+                "PRO_HIGH", "HighCorp", "REG-HIGH", new BigDecimal("20000000.00"), "EU-HIGH");
+        List<CartItem> items = List.of(
+                new CartItem(ProductType.HIGH_END_PHONE, 1),
+                new CartItem(ProductType.LAPTOP, 2)
+        );
+
+        CartPricing pricing = withOverrides.priceCart(client, items);
+
+        assertThat(withOverrides.getUnitPrice(client, ProductType.LAPTOP)).isEqualByComparingTo("850.00");
+        assertThat(withOverrides.getUnitPrice(client, ProductType.HIGH_END_PHONE)).isEqualByComparingTo("1000.00");
+        assertThat(pricing.getUnitPrice(1)).isEqualByComparingTo("850.00");
+        assertThat(pricing.getTotal()).isEqualByComparingTo("2700.00");
+        assertThat(withOverrides.getUnitPrice(professional("20000000.00"), ProductType.LAPTOP))
+                .isEqualByComparingTo("900.00");
+    }
+
+    @Test
+    void shouldRejectOverridePriceWithMoreThanTwoDecimals() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ClientPriceBook.of(Map.of(ProductType.LAPTOP, new BigDecimal("850.001"))));
+    }
+
+    private static PricingProperties.Tier tier(String minExclusive, String maxInclusive, String laptopPrice) {
+        PricingProperties.Tier tier = new PricingProperties.Tier();
+        tier.setMinRevenueExclusive(minExclusive != null ? new BigDecimal(minExclusive) : null);
+        tier.setMaxRevenueInclusive(maxInclusive != null ? new BigDecimal(maxInclusive) : null);
+        tier.setProducts(Map.of(ProductType.LAPTOP, new BigDecimal(laptopPrice)));
+        return tier;
+    }
+
+    private static ProfessionalClient professional(String revenue) {
+        return new ProfessionalClient("PRO_TIER", "TierCorp", "REG-TIER", new BigDecimal(revenue), "EU-TIER");
+    }
 }
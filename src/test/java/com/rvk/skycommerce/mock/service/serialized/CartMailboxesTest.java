@@ -0,0 +1,139 @@
+package com.rvk.skycommerce.mock.service.serialized;
+
+import com.rvk.skycommerce.model.ShoppingCartModel;
+import com.rvk.skycommerce.service.serialized.CartMailboxes;
+import com.rvk.skycommerce.service.serialized.CartMailboxes.Submission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CartMailboxesTest {
+
+    private final List<List<Submission>> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+
+    private CartMailboxes mailboxes;
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstBatch.countDown();
+        mailboxes.close();
+    }
+
+    @Test
+    void submit_shouldBatchCommandsQueuedWhileCartIsBusy() throws Exception {
+        mailboxes = new CartMailboxes(100, this::blockingFirstBatch);
+
+        CompletableFuture<ShoppingCartModel> first = mailboxes.submit(1L, null, cart -> { });
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<ShoppingCartModel>> queued = new ArrayList<>();
+        for (long i = 0; i < 3; i++) {
+            queued.add(mailboxes.submit(1L, i, cart -> { }));
+        }
+        assertThat(mailboxes.queued()).isEqualTo(3);
+        releaseFirstBatch.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1L);
+        for (CompletableFuture<ShoppingCartModel> future : queued) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(2L);
+        }
+        assertThat(batches).extracting(List::size).containsExactly(1, 3);
+        assertThat(batches.get(1)).extracting(Submission::expectedVersion).containsExactly(0L, 1L, 2L);
+        assertThat(mailboxes.queued()).isZero();
+    }
+
+    @Test
+    void submit_shouldNotHoldOtherCartsBehindABusyOne() throws Exception {
+        mailboxes = new CartMailboxes(100, this::blockingFirstBatch);
+
+        CompletableFuture<ShoppingCartModel> first = mailboxes.submit(1L, null, cart -> { });
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<ShoppingCartModel> other = mailboxes.submit(2L, 7L, cart -> { });
+
+        assertThat(other.get(5, TimeUnit.SECONDS).getId()).isEqualTo(2L);
+        assertThat(first).isNotDone();
+        releaseFirstBatch.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(batches).extracting(batch -> batch.getFirst().cartId()).containsExactly(1L, 2L);
+        assertThat(batches.get(1)).extracting(Submission::expectedVersion).containsExactly(7L);
+    }
+
+    @Test
+    void submit_shouldFailCommandsLeftIncompleteByAFailingHandler() {
+        mailboxes = new CartMailboxes(100, (cartId, batch) -> {
+            throw new IllegalStateException("database down");
+        });
+
+        CompletableFuture<ShoppingCartModel> future = mailboxes.submit(1L, null, cart -> { });
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertThat(ex.getCause()).isInstanceOf(IllegalStateException.class).hasMessage("database down");
+    }
+
+    @Test
+    void submit_shouldNeverRunTwoBatchesOfOneCartAtOnce() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger applied = new AtomicInteger();
+        mailboxes = new CartMailboxes(100, (cartId, batch) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            applied.addAndGet(batch.size());
+            running.decrementAndGet();
+            batch.forEach(submission -> submission.result().complete(ShoppingCartModel.builder().id(cartId).build()));
+        });
+
+        List<CompletableFuture<ShoppingCartModel>> futures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int j = 0; j < 10; j++) {
+                    futures.add(mailboxes.submit(42L, null, cart -> { }));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(applied.get()).isEqualTo(200);
+    }
+
+    /**
+     * Blocks the first batch until released, then completes every command with the batch number as
+     * the cart version.
+     */
+    private void blockingFirstBatch(long cartId, List<Submission> batch) {
+        batches.add(batch);
+        if (batches.size() == 1) {
+            firstBatchStarted.countDown();
+            try {
+                releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ShoppingCartModel model = ShoppingCartModel.builder().id(cartId).version((long) batches.size()).build();
+        batch.forEach(submission -> submission.result().complete(model));
+    }
+}
@@ -0,0 +1,95 @@
+package com.rvk.skycommerce.mock.service.writebehind;
+
+import com.rvk.skycommerce.model.ProductType;
+import com.rvk.skycommerce.repository.entity.CartItem;
+import com.rvk.skycommerce.service.writebehind.CartMutationLog;
+import com.rvk.skycommerce.service.writebehind.CartState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartMutationLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_shouldReturnAppendedStatesInOrder() throws IOException {
+        CartMutationLog log = new CartMutationLog(directory, true);
+        log.append(state(1L, 1, 10L, 1));
+        log.append(state(1L, 2, 10L, 3));
+        long next = log.rotate();
+        log.close();
+
+        List<Path> segments = log.segmentsBefore(next);
+        assertThat(segments).hasSize(1);
+
+        List<CartState> states = CartMutationLog.read(segments.getFirst());
+        assertThat(states).extracting(CartState::version).containsExactly(1L, 2L);
+        CartState last = states.getLast();
+        assertThat(last.totalAmount()).isEqualByComparingTo("3600.00");
+        assertThat(last.items()).singleElement().satisfies(item -> {
+            assertThat(item.getId()).isEqualTo(10L);
+            assertThat(item.getProductType()).isEqualTo(ProductType.LAPTOP);
+            assertThat(item.getQuantity()).isEqualTo(3);
+            assertThat(item.getUnitPrice()).isEqualByComparingTo("1200.00");
+        });
+        assertThat(last.removed()).isEmpty();
+    }
+
+    @Test
+    void read_shouldKeepLinesWithoutIdAndRemovedLines() throws IOException {
+        CartItem removed = new CartItem(ProductType.HIGH_END_PHONE, 0);
+        removed.setId(7L);
+        CartMutationLog log = new CartMutationLog(directory, false);
+        log.append(state(2L, 5, null, 1).withRemoved(List.of(removed)));
+        log.close();
+
+        CartState state = CartMutationLog.read(log.segmentsBefore(Long.MAX_VALUE).getFirst()).getFirst();
+
+        assertThat(state.items().getFirst().getId()).isNull();
+        assertThat(state.removed()).extracting(CartItem::getId).containsExactly(7L);
+    }
+
+    @Test
+    void read_shouldIgnoreTornTail() throws IOException {
+        CartMutationLog log = new CartMutationLog(directory, true);
+        log.append(state(1L, 1, 10L, 1));
+        log.close();
+        Path segment = log.segmentsBefore(Long.MAX_VALUE).getFirst();
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertThat(CartMutationLog.read(segment)).extracting(CartState::version).containsExactly(1L);
+    }
+
+    @Test
+    void newLog_shouldStartAfterLeftoverSegments() throws IOException {
+        CartMutationLog first = new CartMutationLog(directory, false);
+        first.append(state(1L, 1, 10L, 1));
+        first.close();
+
+        CartMutationLog second = new CartMutationLog(directory, false);
+        List<Path> leftover = second.segmentsBefore(second.currentSegment());
+        second.deleteSegmentsBefore(second.currentSegment());
+        second.close();
+
+        assertThat(leftover).hasSize(1);
+        assertThat(second.segmentsBefore(second.currentSegment())).isEmpty();
+    }
+
+    private static CartState state(long cartId, long version, Long itemId, int quantity) {
+        CartItem item = new CartItem(ProductType.LAPTOP, quantity);
+        item.setId(itemId);
+        item.setUnitPrice(new BigDecimal("1200.00"));
+        item.setLineTotal(new BigDecimal("1200.00").multiply(BigDecimal.valueOf(quantity)));
+        return new CartState(cartId, null, version, item.getLineTotal(), List.of(item), List.of());
+    }
+}